@@ -42,3 +42,12 @@ application {
 
     mainClass = "org.example.App"
 }
+
+// Runs one of the benchmark harnesses in src/test/java/org/example/Benchmarks, e.g.
+// ./gradlew benchmark -PbenchClass=org.example.Benchmarks.OscillatorBenchmark
+tasks.register<JavaExec>("benchmark") {
+    group = "verification"
+    description = "Runs the benchmark class given by -PbenchClass."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass = providers.gradleProperty("benchClass").orElse("org.example.Benchmarks.OscillatorBenchmark")
+}
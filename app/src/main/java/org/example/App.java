@@ -1,15 +1,37 @@
 package org.example;
 import java.io.IOException;
+import org.example.Business.Managers.LibraryManager;
 import org.example.Presentation.Controller;
+import org.example.Presentation.StreamingServer;
 
 public class App {
 
     public static void main(String[] args) {
         try {
+            if (args.length > 0 && args[0].equals("--serve")) {
+                serve(args.length > 1 ? Integer.parseInt(args[1]) : StreamingServer.DEFAULT_PORT);
+                return;
+            }
             Controller controller = new Controller();
             controller.start();
         } catch (IOException e) {
             System.err.println("Error initializing application: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Modo sin consola ni tarjeta de sonido: solo el endpoint HTTP de streaming
+    private static void serve(int port) throws IOException {
+        LibraryManager library = new LibraryManager();
+        StreamingServer server = new StreamingServer(library, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            try {
+                library.close();
+            } catch (IOException e) {
+                System.err.println("Error saving the library: " + e.getMessage());
+            }
+        }));
+        server.start();
+        System.out.println("Streaming en http://127.0.0.1:" + server.getPort() + "/songs/{id} y /playlists/{id}");
+    }
+}
@@ -0,0 +1,464 @@
+package org.example.Business.Audio;
+
+import org.example.Business.Model.NoteView;
+import org.example.Business.Model.TempoMap;
+import org.example.CustomExceptions.AudioOutputException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams synthesized audio into an {@link AudioSink} in fixed-size blocks.
+ * The sink is opened once per playback session and kept open across notes and songs,
+ * so consecutive notes are written back to back without reopening or draining the line.
+ *
+ * Playback is split in two threads: the calling (render) thread synthesizes into a
+ * preallocated {@link AudioRingBuffer}, and an output thread drains it into the sink.
+ * A slow note or a GC pause on the render side is absorbed by the blocks already queued,
+ * and nothing is allocated per block once the session has started.
+ * Both threads report timings and queue levels to the engine's {@link AudioMetrics}.
+ */
+public class AudioEngine {
+
+    public static final int DEFAULT_BLOCK_SAMPLES = 1024;
+    public static final int DEFAULT_DEPTH = 8;
+
+    private static final int MIN_BLOCK_SAMPLES = 64;
+
+    private final AudioSink sink;
+    private final SoundSynth synth;
+    private final OutputFormat format;
+    private final NoteRenderer renderer;
+    private final AudioRingBuffer ring;
+    private final AudioMetrics metrics;
+    private final int frameSize;
+    private final long waitNanos;
+
+    // Render thread state: block being filled and how many bytes it holds
+    private byte[] current;
+    private int fill;
+    private boolean open;
+
+    // Song played block by block: pre-rendered PCM (from pcmStart), or the renderer if null
+    private ByteBuffer pcm;
+    private int pcmStart;
+    private ByteBuffer capture; // Receives what the renderer queues, until a seek breaks the sequence
+
+    // Shared with the output thread
+    private volatile boolean finished;
+    private volatile boolean paused;
+    private volatile long discardBefore;  // Blocks with a lower sequence number are dropped unplayed
+    private volatile int flushRequests;   // Incremented by flush(); the output thread then flushes the sink
+    private volatile AudioOutputException outputError;
+    private volatile Thread renderThread;
+    private Thread outputThread;
+
+    public AudioEngine(AudioSink sink, SoundSynth synth) {
+        this(sink, synth, DEFAULT_BLOCK_SAMPLES, DEFAULT_DEPTH);
+    }
+
+    /**
+     * @param blockSamples Samples per block handed to the sink.
+     * @param depth Number of blocks that can be queued between the render and output threads.
+     */
+    public AudioEngine(AudioSink sink, SoundSynth synth, int blockSamples, int depth) {
+        this(sink, synth, blockSamples, depth, VoiceMixer.DEFAULT_MAX_VOICES);
+    }
+
+    /**
+     * @param maxVoices Notes that can sound at the same time before the oldest one is stolen.
+     */
+    public AudioEngine(AudioSink sink, SoundSynth synth, int blockSamples, int depth, int maxVoices) {
+        if (blockSamples <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSamples);
+        }
+        this.sink = sink;
+        this.synth = synth;
+        // The synth renders directly at the format the sink accepts, so nothing is resampled later
+        this.format = sink.negotiate(synth.getFormat());
+        synth.setFormat(format);
+        this.renderer = new NoteRenderer(synth, maxVoices, blockSamples);
+        this.frameSize = format.getFrameSize();
+        this.ring = new AudioRingBuffer(depth, blockSamples * frameSize);
+        this.metrics = new AudioMetrics(format.getSampleRate(), depth);
+        renderer.setMetrics(metrics);
+        // Poll a few times per block while waiting for the other thread
+        this.waitNanos = Math.max(50_000L, (long) (blockSamples * 1e9 / format.getSampleRate()) / 4);
+    }
+
+    /**
+     * Creates an engine whose queue holds roughly {@code targetLatencyMs} of audio split in {@code depth} blocks.
+     * Lower latency reacts faster; more depth tolerates longer render stalls.
+     */
+    public static AudioEngine withLatency(AudioSink sink, SoundSynth synth, int targetLatencyMs, int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Depth must be positive: " + depth);
+        }
+        int blockSamples = Math.max(MIN_BLOCK_SAMPLES, synth.samplesFor(targetLatencyMs) / depth);
+        return new AudioEngine(sink, synth, blockSamples, depth);
+    }
+
+    /**
+     * Opens the sink for a new session and starts the output thread.
+     * Does nothing if the session is already open.
+     */
+    public void open() throws AudioOutputException {
+        if (open) return;
+        long started = System.nanoTime();
+        try {
+            sink.open(format.toAudioFormat());
+        } catch (AudioOutputException e) {
+            metrics.recordOutputError();
+            throw e;
+        }
+        metrics.recordLineOpen(System.nanoTime() - started);
+        ring.clear();
+        current = null;
+        fill = 0;
+        finished = false;
+        paused = false;
+        discardBefore = ring.writePosition();
+        outputError = null;
+
+        outputThread = new Thread(this::drainLoop, "audio-output");
+        outputThread.setDaemon(true);
+        outputThread.setPriority(Thread.MAX_PRIORITY);
+        outputThread.start();
+        open = true;
+    }
+
+    public boolean isOpen() { return open; }
+
+    /**
+     * Format agreed with the sink; also the format of cached or pre-rendered PCM passed to {@link #playPcm}.
+     */
+    public OutputFormat getFormat() { return format; }
+
+    public AudioMetrics getMetrics() { return metrics; }
+
+    /**
+     * Synthesizes a song's notes, mixing overlapping tracks, starting from phase zero
+     * so the same notes always produce the same PCM. Durations are ticks of {@code tempo}.
+     */
+    public void playNotes(NoteView notes, TempoMap tempo) throws AudioOutputException {
+        playNotes(notes, tempo, null);
+    }
+
+    /**
+     * Like {@link #playNotes(NoteView, TempoMap)}, additionally copying every byte queued for output
+     * into {@code capture} (e.g. to fill the render cache while playing).
+     */
+    public void playNotes(NoteView notes, TempoMap tempo, ByteBuffer capture) throws AudioOutputException {
+        ensureOpen();
+
+        pcm = null;
+        renderer.start(notes, tempo);
+        while (!renderer.isDone()) {
+            int bytes = reserve((int) Math.min(Integer.MAX_VALUE, renderer.remainingBytes()));
+            int n = renderer.render(current, fill, bytes);
+            if (capture != null) {
+                capture.put(current, fill, n);
+            }
+            commit(n);
+        }
+    }
+
+    /**
+     * Prepares a song for block-by-block playback with {@link #playNextBlock()},
+     * so the caller can react to commands (pause, seek, skip) between blocks.
+     */
+    public void startNotes(NoteView notes, TempoMap tempo) throws AudioOutputException {
+        startNotes(notes, tempo, null);
+    }
+
+    /**
+     * Like {@link #startNotes(NoteView, TempoMap)}, copying every rendered byte into {@code capture} as long as
+     * the song is played through; a {@link #seek} stops the copy, which is then incomplete.
+     */
+    public void startNotes(NoteView notes, TempoMap tempo, ByteBuffer capture) throws AudioOutputException {
+        ensureOpen();
+        this.pcm = null;
+        this.capture = capture;
+        renderer.start(notes, tempo);
+    }
+
+    /**
+     * Prepares previously rendered PCM (in the engine's format, e.g. from the render cache) for
+     * block-by-block playback, with the same controls as {@link #startNotes}.
+     */
+    public void startPcm(ByteBuffer pcm) throws AudioOutputException {
+        ensureOpen();
+        this.pcm = pcm.duplicate();
+        this.pcmStart = this.pcm.position();
+        this.capture = null;
+    }
+
+    /**
+     * Queues the next block of the song started with {@link #startNotes} or {@link #startPcm},
+     * synthesizing it if needed. Blocks while the queue is full.
+     *
+     * @return false once the whole song has been queued.
+     */
+    public boolean playNextBlock() throws AudioOutputException {
+        ensureOpen();
+        if (pcm != null) {
+            if (!pcm.hasRemaining()) return false;
+            int n = reserve(pcm.remaining());
+            pcm.get(current, fill, n);
+            commit(n);
+            return true;
+        }
+        if (renderer.isDone()) return false;
+        int bytes = reserve((int) Math.min(Integer.MAX_VALUE, renderer.remainingBytes()));
+        int n = renderer.render(current, fill, bytes);
+        if (capture != null) {
+            capture.put(current, fill, n);
+        }
+        commit(n);
+        return true;
+    }
+
+    /**
+     * Moves the current song to the given sample.
+     * Call {@link #flush()} first to drop the audio already queued from the old position.
+     */
+    public void seek(long samplePosition) {
+        capture = null;
+        if (pcm != null) {
+            long frames = Math.max(0, Math.min(samplePosition, getTotalSamples()));
+            pcm.position(pcmStart + (int) frames * frameSize);
+        } else {
+            renderer.seek(samplePosition);
+        }
+    }
+
+    /**
+     * Samples of the current song queued so far, and the song's total length.
+     */
+    public long getPosition() {
+        return pcm != null ? (pcm.position() - pcmStart) / frameSize : renderer.getPosition();
+    }
+
+    public long getTotalSamples() {
+        return pcm != null ? (pcm.limit() - pcmStart) / frameSize : renderer.getTotalSamples();
+    }
+
+    /**
+     * Drops all audio queued but not played yet, in the engine and in the sink,
+     * so a stop or seek is heard at once instead of after the queued latency.
+     */
+    public void flush() throws AudioOutputException {
+        ensureOpen();
+        current = null; // The block being filled is simply reused
+        fill = 0;
+        discardBefore = ring.writePosition();
+        flushRequests++; // Single writer: the render thread
+        if (paused) {
+            // The output thread may be stuck writing into the stopped sink and would only flush
+            // after resume; flushing here releases that write, and the rest of its block is then
+            // dropped by the flush the output thread still does on its own
+            sink.flush();
+        }
+        LockSupport.unpark(outputThread);
+    }
+
+    /**
+     * Stops the sink at once; queued audio stays until {@link #resume()} or {@link #flush()}.
+     */
+    public void pause() throws AudioOutputException {
+        ensureOpen();
+        if (paused) return;
+        paused = true;
+        sink.pause();
+    }
+
+    public void resume() throws AudioOutputException {
+        ensureOpen();
+        if (!paused) return;
+        sink.resume();
+        paused = false;
+    }
+
+    public boolean isPaused() { return paused; }
+
+    /**
+     * Queues previously rendered PCM (in the engine's format) for output.
+     */
+    public void playPcm(ByteBuffer pcm) throws AudioOutputException {
+        ensureOpen();
+
+        ByteBuffer source = pcm.duplicate();
+        while (source.hasRemaining()) {
+            int n = reserve(source.remaining());
+            source.get(current, fill, n);
+            commit(n);
+        }
+    }
+
+    /**
+     * Queues silence, e.g. as a pause between songs, keeping the line running.
+     */
+    public void playSilence(int durationMs) throws AudioOutputException {
+        ensureOpen();
+
+        int remaining = synth.samplesFor(durationMs) * frameSize;
+        while (remaining > 0) {
+            int n = reserve(remaining);
+            Arrays.fill(current, fill, fill + n, (byte) 0);
+            commit(n);
+            remaining -= n;
+        }
+    }
+
+    /**
+     * Waits for the sink to play out everything queued so far and ends the session.
+     */
+    public void close() throws AudioOutputException {
+        if (!open) return;
+        if (paused) {
+            resume(); // A stopped line would never drain
+        }
+        open = false;
+        try {
+            if (outputError == null && fill > 0) {
+                ring.publish(fill); // Last, partially filled block
+            }
+            current = null;
+            fill = 0;
+            pcm = null;
+            capture = null;
+            finished = true;
+            LockSupport.unpark(outputThread);
+            joinOutputThread();
+            if (outputError != null) {
+                throw outputError;
+            }
+            sink.drain();
+        } finally {
+            long started = System.nanoTime();
+            sink.close();
+            metrics.recordLineClose(System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Makes sure there is a block to write into and returns how many of the wanted bytes fit in it.
+     * Blocks while the ring is full.
+     */
+    private int reserve(int wanted) throws AudioOutputException {
+        while (current == null) {
+            checkOutput();
+            current = ring.writeBlock();
+            if (current == null) {
+                renderThread = Thread.currentThread();
+                LockSupport.parkNanos(waitNanos); // Woken by the output thread when it frees a block
+            }
+            fill = 0;
+        }
+        return Math.min(wanted, current.length - fill);
+    }
+
+    /**
+     * Accounts for bytes written into the current block and hands it over once full.
+     */
+    private void commit(int n) {
+        fill += n;
+        if (fill == current.length) {
+            ring.publish(fill);
+            LockSupport.unpark(outputThread);
+            current = null;
+            fill = 0;
+        }
+    }
+
+    // Output thread: moves published blocks into the sink until the session is finished
+    private void drainLoop() {
+        boolean playing = false; // At least one block has been written this session
+        boolean starved = false; // Already counted the current run of empty polls as one underrun
+        int flushesDone = 0;
+        try {
+            while (true) {
+                int requested = flushRequests;
+                if (requested != flushesDone) {
+                    flushesDone = requested;
+                    sink.flush();
+                    starved = true; // Refilling after a flush is not an underrun
+                }
+                if (paused && !finished) {
+                    // Nothing is written into a stopped sink, so a flush while paused drops every block
+                    LockSupport.parkNanos(waitNanos);
+                    continue;
+                }
+                int queued = ring.available();
+                byte[] block = ring.readBlock();
+                if (block == null) {
+                    if (finished && ring.available() == 0) {
+                        return;
+                    }
+                    if (playing && !starved && !finished && !paused) {
+                        metrics.recordUnderrun();
+                        metrics.recordQueued(0);
+                        starved = true;
+                    }
+                    LockSupport.parkNanos(waitNanos); // Woken by the render thread when it publishes
+                    continue;
+                }
+                if (ring.readPosition() < discardBefore) {
+                    ring.release(); // Flushed before it could be played
+                    wakeRenderThread();
+                    continue;
+                }
+                metrics.recordQueued(queued);
+                long started = System.nanoTime();
+                sink.write(block, 0, ring.readLength());
+                metrics.recordSinkWrite(System.nanoTime() - started);
+                metrics.samplesWritten();
+                playing = true;
+                starved = false;
+                ring.release();
+                wakeRenderThread();
+            }
+        } catch (AudioOutputException e) {
+            metrics.recordOutputError();
+            outputError = e;
+        } catch (RuntimeException e) {
+            metrics.recordOutputError();
+            outputError = new AudioOutputException("Audio output failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void wakeRenderThread() {
+        Thread waiting = renderThread;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+    }
+
+    private void joinOutputThread() throws AudioOutputException {
+        try {
+            outputThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AudioOutputException("Interrupted while finishing playback.", e);
+        } finally {
+            outputThread = null;
+        }
+    }
+
+    private void checkOutput() throws AudioOutputException {
+        AudioOutputException e = outputError;
+        if (e != null) {
+            throw e;
+        }
+        if (outputThread == null || !outputThread.isAlive()) {
+            throw new AudioOutputException("Audio output thread is not running.");
+        }
+    }
+
+    private void ensureOpen() throws AudioOutputException {
+        if (!open) {
+            throw new AudioOutputException("Audio engine is not open.");
+        }
+    }
+}
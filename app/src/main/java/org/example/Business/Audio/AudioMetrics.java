@@ -0,0 +1,171 @@
+package org.example.Business.Audio;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measurements of one {@link AudioEngine}'s audio path, for diagnosing glitches and tuning
+ * the block size and queue depth of a host:
+ * <ul>
+ *   <li>time to synthesize each block, and the resulting real-time factor;</li>
+ *   <li>time the sink takes to accept each block;</li>
+ *   <li>how many blocks were queued when the output thread took one, and underruns
+ *       (the output thread found the queue empty in the middle of a session);</li>
+ *   <li>time to open and close the line;</li>
+ *   <li>time from a play request to its first sample reaching the sink.</li>
+ * </ul>
+ * Every counter can be updated from the render, output and prefetch threads at once,
+ * and read at any time without stopping playback.
+ */
+public final class AudioMetrics {
+
+    private final float sampleRate;
+    private final int depth;
+
+    private final LatencyHistogram renderTime = new LatencyHistogram();
+    private final LatencyHistogram sinkWriteTime = new LatencyHistogram();
+    private final LatencyHistogram lineOpenTime = new LatencyHistogram();
+    private final LatencyHistogram lineCloseTime = new LatencyHistogram();
+    private final LatencyHistogram timeToFirstSample = new LatencyHistogram();
+    private final AtomicLongArray queuedBlocks; // Index: blocks queued when the output thread took one
+    private final LongAdder renderedSamples = new LongAdder();
+    private final LongAdder underruns = new LongAdder();
+    private final LongAdder outputErrors = new LongAdder();
+    private final AtomicLong pendingRequest = new AtomicLong(); // nanoTime of a play request waiting for its first sample
+
+    /**
+     * @param depth Capacity of the engine's queue in blocks.
+     */
+    public AudioMetrics(float sampleRate, int depth) {
+        this.sampleRate = sampleRate;
+        this.depth = depth;
+        this.queuedBlocks = new AtomicLongArray(depth + 1);
+    }
+
+    // --- Recording ---
+
+    /**
+     * One block synthesized: how long it took and how many sample frames it produced.
+     */
+    public void recordRender(long nanos, int samples) {
+        renderTime.record(nanos);
+        renderedSamples.add(samples);
+    }
+
+    public void recordSinkWrite(long nanos) { sinkWriteTime.record(nanos); }
+    public void recordLineOpen(long nanos) { lineOpenTime.record(nanos); }
+    public void recordLineClose(long nanos) { lineCloseTime.record(nanos); }
+    public void recordUnderrun() { underruns.increment(); }
+    public void recordOutputError() { outputErrors.increment(); }
+
+    public void recordQueued(int blocks) {
+        queuedBlocks.incrementAndGet(Math.max(0, Math.min(depth, blocks)));
+    }
+
+    /**
+     * Marks the start of a play request (e.g. a call to playSong); the next sample
+     * written to the sink completes the time-to-first-sample measurement.
+     */
+    public void markRequest() {
+        pendingRequest.compareAndSet(0, System.nanoTime());
+    }
+
+    /**
+     * Called by the output thread after every write to the sink.
+     */
+    void samplesWritten() {
+        if (pendingRequest.get() == 0) return;
+        long started = pendingRequest.getAndSet(0);
+        if (started != 0) {
+            timeToFirstSample.record(System.nanoTime() - started);
+        }
+    }
+
+    // --- Queries ---
+
+    public LatencyHistogram getRenderTime() { return renderTime; }
+    public LatencyHistogram getSinkWriteTime() { return sinkWriteTime; }
+    public LatencyHistogram getLineOpenTime() { return lineOpenTime; }
+    public LatencyHistogram getLineCloseTime() { return lineCloseTime; }
+    public LatencyHistogram getTimeToFirstSample() { return timeToFirstSample; }
+
+    public long getUnderruns() { return underruns.sum(); }
+    public long getOutputErrors() { return outputErrors.sum(); }
+    public long getRenderedSamples() { return renderedSamples.sum(); }
+
+    /**
+     * How many times faster than real time the audio is synthesized; below 1 playback cannot keep up.
+     */
+    public double getRealTimeFactor() {
+        long nanos = renderTime.getTotalNanos();
+        return nanos == 0 ? 0 : (renderedSamples.sum() / (double) sampleRate) / (nanos / 1e9);
+    }
+
+    /**
+     * Number of times the output thread found 0, 1, ... {@code depth} blocks queued.
+     * Mostly-empty queues on a host suggest a larger depth or block size.
+     */
+    public long[] getQueueFillDistribution() {
+        long[] copy = new long[depth + 1];
+        for (int i = 0; i <= depth; i++) copy[i] = queuedBlocks.get(i);
+        return copy;
+    }
+
+    /**
+     * Average fraction of the queue that was full, from 0 to 1.
+     */
+    public double getAverageQueueFill() {
+        long samples = 0;
+        long weighted = 0;
+        for (int i = 0; i <= depth; i++) {
+            long n = queuedBlocks.get(i);
+            samples += n;
+            weighted += n * i;
+        }
+        return samples == 0 ? 0 : (double) weighted / samples / depth;
+    }
+
+    public void reset() {
+        renderTime.reset();
+        sinkWriteTime.reset();
+        lineOpenTime.reset();
+        lineCloseTime.reset();
+        timeToFirstSample.reset();
+        for (int i = 0; i <= depth; i++) queuedBlocks.set(i, 0);
+        renderedSamples.reset();
+        underruns.reset();
+        outputErrors.reset();
+        pendingRequest.set(0);
+    }
+
+    /**
+     * Prints {@link #toString()} when the JVM exits, so a session's figures are kept after a glitch.
+     */
+    public void dumpOnExit(PrintStream out) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> out.println(this), "audio-metrics-dump"));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder fill = new StringBuilder();
+        long[] dist = getQueueFillDistribution();
+        for (int i = 0; i < dist.length; i++) {
+            if (i > 0) fill.append(' ');
+            fill.append(i).append(':').append(dist[i]);
+        }
+        return "Audio metrics\n"
+                + "  render per block    : " + renderTime + "\n"
+                + "  real-time factor    : " + String.format("%.1fx", getRealTimeFactor())
+                + " (" + String.format("%.1f", getRenderedSamples() / (double) sampleRate) + " s synthesized)\n"
+                + "  sink write          : " + sinkWriteTime + "\n"
+                + "  queue fill          : " + String.format("%.0f%%", getAverageQueueFill() * 100)
+                + " avg, blocks queued [" + fill + "]\n"
+                + "  underruns           : " + getUnderruns() + "\n"
+                + "  output errors       : " + getOutputErrors() + "\n"
+                + "  line open           : " + lineOpenTime + "\n"
+                + "  line close          : " + lineCloseTime + "\n"
+                + "  time to first sample: " + timeToFirstSample;
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.Business.Audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-producer/single-consumer lock-free ring of preallocated audio blocks.
+ * The render thread fills the block returned by {@link #writeBlock()} and publishes it;
+ * the output thread reads published blocks in order and releases them for reuse.
+ * No locks are taken and nothing is allocated after construction.
+ */
+final class AudioRingBuffer {
+
+    private final byte[][] blocks;
+    private final int[] lengths;
+    private final int mask;
+
+    // Monotonic counters; slot = counter & mask. Written by one thread each, read by the other.
+    private final AtomicLong readCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+
+    AudioRingBuffer(int depth, int blockBytes) {
+        if (depth <= 0 || blockBytes <= 0) {
+            throw new IllegalArgumentException("Depth and block size must be positive.");
+        }
+        int capacity = Integer.highestOneBit(depth);
+        if (capacity < depth) {
+            capacity <<= 1;
+        }
+        this.blocks = new byte[capacity][blockBytes];
+        this.lengths = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    int capacity() {
+        return blocks.length;
+    }
+
+    int blockBytes() {
+        return blocks[0].length;
+    }
+
+    /**
+     * Number of published blocks waiting to be read.
+     */
+    int available() {
+        return (int) (writeCount.get() - readCount.get());
+    }
+
+    /**
+     * Total number of blocks published so far; also the sequence number of the next block to publish.
+     */
+    long writePosition() {
+        return writeCount.get();
+    }
+
+    /**
+     * Sequence number of the block returned by {@link #readBlock()}.
+     */
+    long readPosition() {
+        return readCount.get();
+    }
+
+    // --- Producer side ---
+
+    /**
+     * Next free block to fill, or null if the ring is full.
+     */
+    byte[] writeBlock() {
+        long w = writeCount.get();
+        if (w - readCount.get() >= blocks.length) {
+            return null;
+        }
+        return blocks[(int) w & mask];
+    }
+
+    /**
+     * Makes the block returned by {@link #writeBlock()} visible to the consumer.
+     */
+    void publish(int length) {
+        long w = writeCount.get();
+        lengths[(int) w & mask] = length;
+        writeCount.lazySet(w + 1); // Release store: the block contents are visible before the count
+    }
+
+    // --- Consumer side ---
+
+    /**
+     * Oldest published block, or null if the ring is empty.
+     */
+    byte[] readBlock() {
+        long r = readCount.get();
+        if (r >= writeCount.get()) {
+            return null;
+        }
+        return blocks[(int) r & mask];
+    }
+
+    /**
+     * Valid bytes in the block returned by {@link #readBlock()}.
+     */
+    int readLength() {
+        return lengths[(int) readCount.get() & mask];
+    }
+
+    /**
+     * Returns the block returned by {@link #readBlock()} to the producer.
+     */
+    void release() {
+        readCount.lazySet(readCount.get() + 1);
+    }
+
+    /**
+     * Discards everything not read yet. Only safe while no producer or consumer is running.
+     */
+    void clear() {
+        readCount.set(writeCount.get());
+    }
+}
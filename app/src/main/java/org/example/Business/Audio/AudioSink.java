@@ -0,0 +1,58 @@
+package org.example.Business.Audio;
+
+import org.example.CustomExceptions.AudioOutputException;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Destination for the PCM blocks produced by the {@link AudioEngine}.
+ * Implementations may write to a sound card line, a file or discard the data.
+ */
+public interface AudioSink {
+
+    /**
+     * Returns the closest format to {@code requested} that this sink can play.
+     * The engine synthesizes in the returned format. Sinks that accept any format return it unchanged.
+     */
+    default OutputFormat negotiate(OutputFormat requested) {
+        return requested;
+    }
+
+    /**
+     * Prepares the sink to receive audio in the given format.
+     * Called once per playback session.
+     */
+    void open(AudioFormat format) throws AudioOutputException;
+
+    /**
+     * Writes a block of PCM bytes. May block until the sink can accept the data.
+     */
+    void write(byte[] buffer, int offset, int length) throws AudioOutputException;
+
+    /**
+     * Stops playing at once, keeping what was written; {@link #resume()} continues from there.
+     * Sinks that do not play in real time (files, null output) ignore it.
+     */
+    default void pause() throws AudioOutputException {
+    }
+
+    default void resume() throws AudioOutputException {
+    }
+
+    /**
+     * Discards audio written but not played yet, e.g. when playback is stopped or moved.
+     * Sinks that do not play in real time ignore it.
+     */
+    default void flush() throws AudioOutputException {
+    }
+
+    /**
+     * Waits until every byte written so far has been consumed.
+     */
+    void drain() throws AudioOutputException;
+
+    /**
+     * Releases the underlying resource. Safe to call more than once.
+     */
+    void close() throws AudioOutputException;
+}
@@ -0,0 +1,237 @@
+package org.example.Business.Audio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Byte stream written by one render and read by any number of consumers, each at its own position,
+ * through a fixed ring of {@code chunks} chunks. Memory does not depend on the length of the stream.
+ *
+ * The writer waits for the slowest reader once the ring is full, so a render never runs more than
+ * the ring ahead of its listeners. A reader that falls the whole ring behind while others are
+ * already waiting for more data holds them all back: if it does not catch up within the stall
+ * timeout it is dropped, and its next read fails.
+ *
+ * A consumer can only join while the beginning of the stream is still in the ring
+ * (e.g. for the WAV header); later ones need a stream of their own.
+ */
+public class BroadcastBuffer extends OutputStream {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition grown = lock.newCondition();
+    private final Condition space = lock.newCondition();
+    private final byte[] ring;
+    private final long stallNanos;
+    private final List<Reader> readers = new ArrayList<>();
+    private long size;
+    private boolean closed;
+    private boolean cancelled;
+    private IOException failure;
+
+    /**
+     * @param chunks Chunks in the ring; how far the writer may run ahead of the slowest reader.
+     * @param chunkBytes Size of each chunk.
+     * @param stallTimeoutMs How long a reader a whole ring behind may hold back faster ones.
+     */
+    public BroadcastBuffer(int chunks, int chunkBytes, long stallTimeoutMs) {
+        if (chunks <= 0 || chunkBytes <= 0) {
+            throw new IllegalArgumentException("Ring size must be positive: " + chunks + " x " + chunkBytes);
+        }
+        this.ring = new byte[Math.multiplyExact(chunks, chunkBytes)];
+        this.stallNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMs);
+    }
+
+    /**
+     * Registers a reader at the start of the stream.
+     *
+     * @return The reader, or null if the start has already been overwritten or the stream was cancelled.
+     */
+    public Reader join() {
+        lock.lock();
+        try {
+            if (cancelled || size > ring.length) return null;
+            Reader reader = new Reader();
+            readers.add(reader);
+            return reader;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        lock.lock();
+        try {
+            while (len > 0) {
+                if (cancelled) throw new IOException("Broadcast cancelled: no readers left.");
+                if (closed) throw new IOException("Broadcast already closed.");
+                int free = awaitSpace();
+                int at = (int) (size % ring.length);
+                int n = Math.min(Math.min(len, free), ring.length - at);
+                System.arraycopy(b, off, ring, at, n);
+                size += n;
+                off += n;
+                len -= n;
+                grown.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Waits until the slowest reader leaves room in the ring; returns the free bytes
+    private int awaitSpace() throws IOException {
+        while (true) {
+            long slowest = size;
+            long fastest = 0;
+            for (Reader r : readers) {
+                slowest = Math.min(slowest, r.position);
+                fastest = Math.max(fastest, r.position);
+            }
+            long free = ring.length - (size - slowest);
+            if (free > 0 || cancelled) return (int) free;
+
+            // A reader that keeps the ring full is only cleared once it catches up half of it,
+            // so trickling a few bytes at a time does not reset its clock
+            long now = System.nanoTime();
+            long stalled = 0;
+            for (Reader r : readers) {
+                if (r.position == slowest) {
+                    if (r.behindSince == 0) r.behindSince = now;
+                    stalled = Math.max(stalled, now - r.behindSince);
+                }
+            }
+            if (stalled >= stallNanos && fastest == size) {
+                // Someone is waiting for data the laggards keep the writer from producing
+                for (Reader r : readers) {
+                    if (r.position == slowest) r.dropped = true;
+                }
+                readers.removeIf(r -> r.dropped);
+                grown.signalAll();
+                continue;
+            }
+            try {
+                space.awaitNanos(stalled < stallNanos ? stallNanos - stalled : stallNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for slow readers.");
+            }
+        }
+    }
+
+    /**
+     * Marks the end of the stream; readers get -1 once they have read everything.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            grown.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends the stream with an error, which readers get once they reach the end of the data.
+     */
+    public void fail(Exception cause) {
+        lock.lock();
+        try {
+            failure = cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+            closed = true;
+            grown.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes the writer's next write fail, e.g. when every reader has gone.
+     */
+    public void cancel() {
+        lock.lock();
+        try {
+            cancelled = true;
+            space.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One consumer's position in the stream. Not thread-safe: each reader belongs to one connection.
+     */
+    public final class Reader {
+        private long position; // Guarded by the buffer's lock
+        private boolean dropped;
+        private long behindSince; // When it last held the writer back, 0 once it has caught up
+
+        private Reader() {
+        }
+
+        /**
+         * Copies up to {@code len} bytes, waiting for the writer if needed.
+         *
+         * @return Bytes copied, or -1 at the end of a closed stream.
+         * @throws IOException If the writer failed or this reader fell too far behind.
+         */
+        public int read(byte[] dst, int off, int len) throws IOException, InterruptedException {
+            lock.lock();
+            try {
+                while (position >= size && !closed && !dropped) {
+                    space.signalAll(); // A writer held back by a laggard may now drop it
+                    grown.await();
+                }
+                if (dropped) throw new IOException("Reader too slow: dropped from the broadcast.");
+                if (position >= size) {
+                    if (failure != null) throw failure;
+                    return -1;
+                }
+                int at = (int) (position % ring.length);
+                int n = (int) Math.min(Math.min(len, size - position), ring.length - at);
+                System.arraycopy(ring, at, dst, off, n);
+                position += n;
+                if (size - position <= ring.length / 2) behindSince = 0;
+                space.signalAll();
+                return n;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Stops reading; the writer no longer waits for this reader.
+         */
+        public void leave() {
+            lock.lock();
+            try {
+                readers.remove(this);
+                space.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.Business.Audio.Effects;
+
+/**
+ * One processing stage of an {@link EffectChain}. Stages work in place on the float blocks
+ * of the mix and keep their state (filter memory, delay lines) between blocks.
+ * Everything they need is allocated when they are created, never per block.
+ */
+public interface AudioEffect {
+
+    /**
+     * Processes {@code length} samples starting at {@code offset}.
+     *
+     * @param right Right channel, or null when the output is mono.
+     */
+    void process(float[] left, float[] right, int offset, int length);
+
+    /**
+     * Clears the stage's state, e.g. before rendering a new song.
+     */
+    void reset();
+}
@@ -0,0 +1,70 @@
+package org.example.Business.Audio.Effects;
+
+/**
+ * Second-order low-pass or high-pass filter (RBJ cookbook coefficients),
+ * run as a transposed direct form II with separate state per channel.
+ */
+public class BiquadFilter implements AudioEffect {
+
+    public enum Type { LOW_PASS, HIGH_PASS }
+
+    // Butterworth response: flat pass band, no resonant peak
+    public static final double DEFAULT_Q = 0.7071;
+
+    private final float b0, b1, b2, a1, a2;
+    private float z1Left, z2Left, z1Right, z2Right;
+
+    /**
+     * @param cutoffHz Corner frequency; limited to just below half the sample rate.
+     */
+    public BiquadFilter(Type type, double cutoffHz, double q, float sampleRate) {
+        if (cutoffHz <= 0 || q <= 0) {
+            throw new IllegalArgumentException("Cutoff and Q must be positive: " + cutoffHz + ", " + q);
+        }
+        double w0 = 2 * Math.PI * Math.min(cutoffHz, 0.45 * sampleRate) / sampleRate;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2 * q);
+        double a0 = 1 + alpha;
+
+        double side = type == Type.LOW_PASS ? (1 - cos) / 2 : (1 + cos) / 2;
+        double middle = type == Type.LOW_PASS ? 1 - cos : -(1 + cos);
+        this.b0 = (float) (side / a0);
+        this.b1 = (float) (middle / a0);
+        this.b2 = (float) (side / a0);
+        this.a1 = (float) (-2 * cos / a0);
+        this.a2 = (float) ((1 - alpha) / a0);
+    }
+
+    @Override
+    public void process(float[] left, float[] right, int offset, int length) {
+        // State lives in locals for the loop, written back once per block
+        float z1 = z1Left, z2 = z2Left;
+        for (int i = offset; i < offset + length; i++) {
+            float x = left[i];
+            float y = b0 * x + z1;
+            z1 = b1 * x - a1 * y + z2;
+            z2 = b2 * x - a2 * y;
+            left[i] = y;
+        }
+        z1Left = z1;
+        z2Left = z2;
+
+        if (right == null) return;
+        z1 = z1Right;
+        z2 = z2Right;
+        for (int i = offset; i < offset + length; i++) {
+            float x = right[i];
+            float y = b0 * x + z1;
+            z1 = b1 * x - a1 * y + z2;
+            z2 = b2 * x - a2 * y;
+            right[i] = y;
+        }
+        z1Right = z1;
+        z2Right = z2;
+    }
+
+    @Override
+    public void reset() {
+        z1Left = z2Left = z1Right = z2Right = 0f;
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.Business.Audio.Effects;
+
+import java.util.Arrays;
+
+/**
+ * Feedback echo: the signal is repeated every {@code delayMs}, each repeat
+ * {@code feedback} times quieter, and added to the dry signal at the {@code mix} level.
+ */
+public class Delay implements AudioEffect {
+
+    private final float feedback;
+    private final float mix;
+    private final float[] lineLeft;
+    private final float[] lineRight;
+    private int index;
+
+    public Delay(int delayMs, double feedback, double mix, float sampleRate, int channels) {
+        if (delayMs <= 0) {
+            throw new IllegalArgumentException("Delay must be positive: " + delayMs);
+        }
+        if (!(feedback >= 0 && feedback < 1) || !(mix >= 0 && mix <= 1)) {
+            throw new IllegalArgumentException("Feedback must be in [0, 1) and mix in [0, 1].");
+        }
+        int length = Math.max(1, (int) ((delayMs * sampleRate) / 1000));
+        this.feedback = (float) feedback;
+        this.mix = (float) mix;
+        this.lineLeft = new float[length];
+        this.lineRight = channels == 2 ? new float[length] : null;
+    }
+
+    @Override
+    public void process(float[] left, float[] right, int offset, int length) {
+        int start = index;
+        index = run(left, lineLeft, offset, length, start);
+        if (right != null && lineRight != null) {
+            run(right, lineRight, offset, length, start);
+        }
+    }
+
+    private int run(float[] buffer, float[] line, int offset, int length, int position) {
+        for (int i = offset; i < offset + length; i++) {
+            float x = buffer[i];
+            float delayed = line[position];
+            line[position] = x + delayed * feedback;
+            buffer[i] = x + delayed * mix;
+            if (++position == line.length) position = 0;
+        }
+        return position;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(lineLeft, 0f);
+        if (lineRight != null) Arrays.fill(lineRight, 0f);
+        index = 0;
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.Business.Audio.Effects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable description of the processing applied to a song: the envelope of each note
+ * and an ordered list of stages run on the mix. It holds no audio state, so the same chain can
+ * be shared between threads; every renderer builds its own stages with {@link #createStages}.
+ *
+ * <pre>
+ * EffectChain chain = EffectChain.builder()
+ *         .envelope(new Envelope(10, 80, 0.7f, 120))
+ *         .lowPass(4000)
+ *         .reverb(0.6, 0.4, 0.25)
+ *         .build();
+ * </pre>
+ */
+public final class EffectChain {
+
+    // Raw oscillator output, no processing at all
+    public static final EffectChain NONE = builder().envelope(Envelope.NONE).build();
+
+    // Click-free notes, no other processing
+    public static final EffectChain DEFAULT = builder().build();
+
+    private final Envelope envelope;
+    private final List<Stage> stages;
+    private final String description;
+
+    private EffectChain(Envelope envelope, List<Stage> stages) {
+        this.envelope = envelope;
+        this.stages = Collections.unmodifiableList(new ArrayList<>(stages));
+        StringBuilder sb = new StringBuilder(envelope.toString());
+        for (Stage s : stages) {
+            sb.append(" -> ").append(s.description);
+        }
+        this.description = sb.toString();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Envelope getEnvelope() { return envelope; }
+
+    /**
+     * True when there are no stages to run on the mix (the envelope may still shape the notes).
+     */
+    public boolean hasNoStages() { return stages.isEmpty(); }
+
+    /**
+     * Builds fresh stages for one renderer, chained into a single effect that runs them in order.
+     *
+     * @param maxBlock Largest block the renderer will process at once.
+     */
+    public AudioEffect createStages(float sampleRate, int channels, int maxBlock) {
+        AudioEffect[] effects = new AudioEffect[stages.size()];
+        for (int i = 0; i < effects.length; i++) {
+            effects[i] = stages.get(i).factory.create(sampleRate, channels, maxBlock);
+        }
+        return new Pipeline(effects);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof EffectChain && description.equals(((EffectChain) o).description));
+    }
+
+    @Override
+    public int hashCode() {
+        return description.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    public static final class Builder {
+        private Envelope envelope = Envelope.DEFAULT;
+        private final List<Stage> stages = new ArrayList<>();
+
+        private Builder() {}
+
+        public Builder envelope(Envelope envelope) {
+            if (envelope == null) {
+                throw new IllegalArgumentException("Envelope must not be null; use Envelope.NONE.");
+            }
+            this.envelope = envelope;
+            return this;
+        }
+
+        public Builder lowPass(double cutoffHz) {
+            return lowPass(cutoffHz, BiquadFilter.DEFAULT_Q);
+        }
+
+        public Builder lowPass(double cutoffHz, double q) {
+            new BiquadFilter(BiquadFilter.Type.LOW_PASS, cutoffHz, q, 44100f); // Validates the settings now
+            return add("lowpass(" + cutoffHz + "Hz, q=" + q + ")",
+                    (rate, channels, block) -> new BiquadFilter(BiquadFilter.Type.LOW_PASS, cutoffHz, q, rate));
+        }
+
+        public Builder highPass(double cutoffHz) {
+            return highPass(cutoffHz, BiquadFilter.DEFAULT_Q);
+        }
+
+        public Builder highPass(double cutoffHz, double q) {
+            new BiquadFilter(BiquadFilter.Type.HIGH_PASS, cutoffHz, q, 44100f);
+            return add("highpass(" + cutoffHz + "Hz, q=" + q + ")",
+                    (rate, channels, block) -> new BiquadFilter(BiquadFilter.Type.HIGH_PASS, cutoffHz, q, rate));
+        }
+
+        public Builder gainPan(double gainDb, double pan) {
+            GainPan stage = new GainPan(gainDb, pan); // Stateless, can be shared
+            return add("gain(" + gainDb + "dB, pan=" + pan + ")", (rate, channels, block) -> stage);
+        }
+
+        public Builder delay(int delayMs, double feedback, double mix) {
+            new Delay(delayMs, feedback, mix, 1000f, 1);
+            return add("delay(" + delayMs + "ms, fb=" + feedback + ", mix=" + mix + ")",
+                    (rate, channels, block) -> new Delay(delayMs, feedback, mix, rate, channels));
+        }
+
+        public Builder reverb(double roomSize, double damping, double mix) {
+            new Reverb(roomSize, damping, mix, 1000f, 1, 1);
+            return add("reverb(room=" + roomSize + ", damp=" + damping + ", mix=" + mix + ")",
+                    (rate, channels, block) -> new Reverb(roomSize, damping, mix, rate, channels, block));
+        }
+
+        public EffectChain build() {
+            return new EffectChain(envelope, stages);
+        }
+
+        private Builder add(String description, StageFactory factory) {
+            stages.add(new Stage(description, factory));
+            return this;
+        }
+    }
+
+    private interface StageFactory {
+        AudioEffect create(float sampleRate, int channels, int maxBlock);
+    }
+
+    private static final class Stage {
+        final String description;
+        final StageFactory factory;
+
+        Stage(String description, StageFactory factory) {
+            this.description = description;
+            this.factory = factory;
+        }
+    }
+
+    private static final class Pipeline implements AudioEffect {
+        private final AudioEffect[] effects;
+
+        Pipeline(AudioEffect[] effects) {
+            this.effects = effects;
+        }
+
+        @Override
+        public void process(float[] left, float[] right, int offset, int length) {
+            for (AudioEffect e : effects) {
+                e.process(left, right, offset, length);
+            }
+        }
+
+        @Override
+        public void reset() {
+            for (AudioEffect e : effects) {
+                e.reset();
+            }
+        }
+    }
+}
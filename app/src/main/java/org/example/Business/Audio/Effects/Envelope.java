@@ -0,0 +1,129 @@
+package org.example.Business.Audio.Effects;
+
+/**
+ * ADSR amplitude envelope applied to every note. Without it a note starts and stops
+ * at full level, which is heard as a click.
+ *
+ * The note keeps its scheduled length: the release happens during its last
+ * {@code releaseMs}, and for notes too short for the whole shape the segments are shortened.
+ */
+public final class Envelope {
+
+    // Raw oscillator output: every note starts and ends at full level
+    public static final Envelope NONE = new Envelope(0, 0, 1f, 0);
+
+    // Just enough attack and release to remove the clicks without softening the notes
+    public static final Envelope DEFAULT = new Envelope(5, 0, 1f, 15);
+
+    private final int attackMs;
+    private final int decayMs;
+    private final float sustainLevel;
+    private final int releaseMs;
+
+    /**
+     * @param sustainLevel Level held after the decay, between 0 and 1.
+     */
+    public Envelope(int attackMs, int decayMs, float sustainLevel, int releaseMs) {
+        if (attackMs < 0 || decayMs < 0 || releaseMs < 0) {
+            throw new IllegalArgumentException("Envelope times must not be negative.");
+        }
+        if (!(sustainLevel >= 0 && sustainLevel <= 1)) {
+            throw new IllegalArgumentException("Sustain level must be between 0 and 1: " + sustainLevel);
+        }
+        this.attackMs = attackMs;
+        this.decayMs = decayMs;
+        this.sustainLevel = sustainLevel;
+        this.releaseMs = releaseMs;
+    }
+
+    public int getAttackMs() { return attackMs; }
+    public int getDecayMs() { return decayMs; }
+    public float getSustainLevel() { return sustainLevel; }
+    public int getReleaseMs() { return releaseMs; }
+
+    public boolean isNone() {
+        return attackMs == 0 && decayMs == 0 && releaseMs == 0 && sustainLevel == 1f;
+    }
+
+    /**
+     * Multiplies a block of one note's samples by the envelope.
+     *
+     * @param position Index within the note of the first sample of the block.
+     * @param noteLength Length of the whole note in samples.
+     */
+    public void apply(float[] buffer, int offset, int length, int position, int noteLength, float sampleRate) {
+        if (isNone()) return;
+
+        int attack = Math.min(samples(attackMs, sampleRate), noteLength / 2);
+        int release = Math.min(samples(releaseMs, sampleRate), noteLength - attack);
+        int decay = Math.min(samples(decayMs, sampleRate), noteLength - attack - release);
+        int releaseStart = noteLength - release;
+
+        // Each segment is a straight line, applied as one simple loop over the part of the block it covers
+        ramp(buffer, offset, length, position, 0, attack, 0f, 1f);
+        ramp(buffer, offset, length, position, attack, attack + decay, 1f, sustainLevel);
+        ramp(buffer, offset, length, position, attack + decay, releaseStart, sustainLevel, sustainLevel);
+        ramp(buffer, offset, length, position, releaseStart, noteLength, sustainLevel, 0f);
+    }
+
+    /**
+     * Samples the release takes at the given rate; also the fade given to a note cut short.
+     */
+    public int releaseSamples(float sampleRate) {
+        return samples(releaseMs, sampleRate);
+    }
+
+    /**
+     * Fades a note that was cut short: the level goes linearly from 1 at {@code from} down to 0 at {@code to},
+     * both positions within the note. Applied on top of {@link #apply}.
+     */
+    public static void fadeOut(float[] buffer, int offset, int length, int position, int from, int to) {
+        ramp(buffer, offset, length, position, from, to, 1f, 0f);
+    }
+
+    // Scales the samples of the note between [from, to) by a level going linearly from 'start' to 'end'
+    private static void ramp(float[] buffer, int offset, int length, int position,
+                             int from, int to, float start, float end) {
+        int first = Math.max(from, position);
+        int last = Math.min(to, position + length);
+        if (first >= last) return;
+
+        float slope = (end - start) / (to - from);
+        float level = start + slope * (first - from);
+        int base = offset + first - position;
+        int count = last - first;
+        if (slope == 0f) {
+            if (level == 1f) return;
+            for (int i = 0; i < count; i++) {
+                buffer[base + i] *= level;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                buffer[base + i] *= level + slope * i;
+            }
+        }
+    }
+
+    private static int samples(int ms, float sampleRate) {
+        return (int) ((ms * sampleRate) / 1000);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Envelope)) return false;
+        Envelope e = (Envelope) o;
+        return attackMs == e.attackMs && decayMs == e.decayMs
+                && Float.compare(sustainLevel, e.sustainLevel) == 0 && releaseMs == e.releaseMs;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((attackMs * 31 + decayMs) * 31 + Float.floatToIntBits(sustainLevel)) * 31 + releaseMs;
+    }
+
+    @Override
+    public String toString() {
+        return "adsr(" + attackMs + "ms, " + decayMs + "ms, " + sustainLevel + ", " + releaseMs + "ms)";
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.Business.Audio.Effects;
+
+/**
+ * Output level and stereo balance. Panning attenuates the opposite side only,
+ * so a centred signal passes at exactly the given gain. Mono outputs get the gain alone.
+ */
+public class GainPan implements AudioEffect {
+
+    private final float leftGain;
+    private final float rightGain;
+    private final float monoGain;
+
+    /**
+     * @param pan -1 for fully left, 0 for centre, 1 for fully right.
+     */
+    public GainPan(double gainDb, double pan) {
+        if (!(pan >= -1 && pan <= 1)) {
+            throw new IllegalArgumentException("Pan must be between -1 and 1: " + pan);
+        }
+        float gain = (float) Math.pow(10, gainDb / 20);
+        this.monoGain = gain;
+        this.leftGain = gain * (float) Math.min(1, 1 - pan);
+        this.rightGain = gain * (float) Math.min(1, 1 + pan);
+    }
+
+    @Override
+    public void process(float[] left, float[] right, int offset, int length) {
+        if (right == null) {
+            scale(left, offset, length, monoGain);
+        } else {
+            scale(left, offset, length, leftGain);
+            scale(right, offset, length, rightGain);
+        }
+    }
+
+    private static void scale(float[] buffer, int offset, int length, float gain) {
+        if (gain == 1f) return;
+        for (int i = offset; i < offset + length; i++) {
+            buffer[i] *= gain;
+        }
+    }
+
+    @Override
+    public void reset() {
+        // Stateless
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.Business.Audio.Effects;
+
+import java.util.Arrays;
+
+/**
+ * Small Schroeder/Freeverb-style reverb: four damped feedback combs in parallel followed by
+ * two allpass diffusers, per channel. The right channel uses slightly longer delay lines
+ * so the tail is decorrelated between the two sides.
+ *
+ * Each comb runs over the whole block in turn (rather than all combs per sample),
+ * which keeps every inner loop short and its state in registers.
+ */
+public class Reverb implements AudioEffect {
+
+    // Freeverb tunings in samples at 44.1 kHz, scaled to the actual sample rate
+    private static final int[] COMB_TUNING = {1116, 1188, 1277, 1356};
+    private static final int[] ALLPASS_TUNING = {556, 441};
+    private static final int STEREO_SPREAD = 23;
+
+    private static final float INPUT_GAIN = 0.03f;
+    private static final float WET_SCALE = 3f;
+    private static final float ALLPASS_FEEDBACK = 0.5f;
+
+    private final float feedback;
+    private final float damp;
+    private final float wetLevel;
+    private final float dryLevel;
+    private final Channel leftChannel;
+    private final Channel rightChannel;
+    private final float[] input;
+    private final float[] wet;
+
+    /**
+     * @param roomSize 0 to 1; longer tails for bigger rooms.
+     * @param damping 0 to 1; how quickly high frequencies die out in the tail.
+     * @param mix 0 to 1; 0 is the dry signal only, 1 the reverb only.
+     * @param maxBlock Largest block passed to {@link #process}.
+     */
+    public Reverb(double roomSize, double damping, double mix, float sampleRate, int channels, int maxBlock) {
+        if (!(roomSize >= 0 && roomSize <= 1) || !(damping >= 0 && damping <= 1) || !(mix >= 0 && mix <= 1)) {
+            throw new IllegalArgumentException("Room size, damping and mix must be between 0 and 1.");
+        }
+        this.feedback = (float) (0.7 + 0.28 * roomSize);
+        this.damp = (float) (0.4 * damping);
+        this.wetLevel = (float) mix * WET_SCALE;
+        this.dryLevel = (float) (1 - mix);
+        this.leftChannel = new Channel(sampleRate, 0);
+        this.rightChannel = channels == 2 ? new Channel(sampleRate, STEREO_SPREAD) : null;
+        this.input = new float[maxBlock];
+        this.wet = new float[maxBlock];
+    }
+
+    @Override
+    public void process(float[] left, float[] right, int offset, int length) {
+        for (int done = 0; done < length; done += input.length) {
+            int n = Math.min(input.length, length - done);
+            run(leftChannel, left, offset + done, n);
+            if (right != null && rightChannel != null) {
+                run(rightChannel, right, offset + done, n);
+            }
+        }
+    }
+
+    private void run(Channel channel, float[] buffer, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            input[i] = buffer[offset + i] * INPUT_GAIN;
+        }
+        Arrays.fill(wet, 0, length, 0f);
+
+        for (Comb comb : channel.combs) {
+            comb.run(input, wet, length, feedback, damp);
+        }
+        for (Allpass allpass : channel.allpasses) {
+            allpass.run(wet, length);
+        }
+
+        for (int i = 0; i < length; i++) {
+            buffer[offset + i] = buffer[offset + i] * dryLevel + wet[i] * wetLevel;
+        }
+    }
+
+    @Override
+    public void reset() {
+        leftChannel.reset();
+        if (rightChannel != null) rightChannel.reset();
+    }
+
+    private static int scaled(int tuning, float sampleRate) {
+        return Math.max(1, Math.round(tuning * sampleRate / 44100f));
+    }
+
+    private static final class Channel {
+        final Comb[] combs = new Comb[COMB_TUNING.length];
+        final Allpass[] allpasses = new Allpass[ALLPASS_TUNING.length];
+
+        Channel(float sampleRate, int spread) {
+            for (int i = 0; i < combs.length; i++) {
+                combs[i] = new Comb(scaled(COMB_TUNING[i] + spread, sampleRate));
+            }
+            for (int i = 0; i < allpasses.length; i++) {
+                allpasses[i] = new Allpass(scaled(ALLPASS_TUNING[i] + spread, sampleRate));
+            }
+        }
+
+        void reset() {
+            for (Comb c : combs) c.reset();
+            for (Allpass a : allpasses) a.reset();
+        }
+    }
+
+    // Feedback comb with a one-pole low-pass in the loop
+    private static final class Comb {
+        final float[] line;
+        int index;
+        float store;
+
+        Comb(int length) {
+            this.line = new float[length];
+        }
+
+        void run(float[] in, float[] out, int length, float feedback, float damp) {
+            float[] buf = line;
+            int idx = index;
+            float s = store;
+            float keep = 1f - damp;
+            for (int i = 0; i < length; i++) {
+                float delayed = buf[idx];
+                s = delayed * keep + s * damp;
+                buf[idx] = in[i] + s * feedback;
+                out[i] += delayed;
+                if (++idx == buf.length) idx = 0;
+            }
+            index = idx;
+            store = s;
+        }
+
+        void reset() {
+            Arrays.fill(line, 0f);
+            index = 0;
+            store = 0f;
+        }
+    }
+
+    private static final class Allpass {
+        final float[] line;
+        int index;
+
+        Allpass(int length) {
+            this.line = new float[length];
+        }
+
+        void run(float[] buffer, int length) {
+            float[] buf = line;
+            int idx = index;
+            for (int i = 0; i < length; i++) {
+                float x = buffer[i];
+                float delayed = buf[idx];
+                buffer[i] = delayed - x;
+                buf[idx] = x + delayed * ALLPASS_FEEDBACK;
+                if (++idx == buf.length) idx = 0;
+            }
+            index = idx;
+        }
+
+        void reset() {
+            Arrays.fill(line, 0f);
+            index = 0;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.Business.Audio;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds. Buckets are log-linear: four per power of two,
+ * so any value is reported within 25% while the whole range of a long fits in a few hundred counters.
+ * Recording is safe from any number of threads and never allocates.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    public long getCount() { return count.sum(); }
+    public long getTotalNanos() { return sum.sum(); }
+    public long getMaxNanos() { return max.get(); }
+
+    public double getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0-100), or 0 when empty.
+     */
+    public long getPercentileNanos(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    // Values below 4 get a bucket each; above, the top three significant bits pick the bucket
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exp - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exp = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long next = (long) (SUB_BUCKETS + sub + 1) << (exp - SUB_BITS);
+        return next <= 0 ? Long.MAX_VALUE : next - 1;
+    }
+
+    /**
+     * One-line summary, e.g. {@code n=120 mean=1.2ms p50=1.0ms p99=3.1ms max=4.0ms}.
+     */
+    @Override
+    public String toString() {
+        if (getCount() == 0) return "n=0";
+        return "n=" + getCount()
+                + " mean=" + format((long) getMeanNanos())
+                + " p50=" + format(getPercentileNanos(50))
+                + " p99=" + format(getPercentileNanos(99))
+                + " max=" + format(getMaxNanos());
+    }
+
+    static String format(long nanos) {
+        if (nanos >= 1_000_000_000L) return String.format("%.2fs", nanos / 1e9);
+        if (nanos >= 1_000_000L) return String.format("%.2fms", nanos / 1e6);
+        if (nanos >= 1_000L) return String.format("%.1fus", nanos / 1e3);
+        return nanos + "ns";
+    }
+}
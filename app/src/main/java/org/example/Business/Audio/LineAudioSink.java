@@ -0,0 +1,119 @@
+package org.example.Business.Audio;
+
+import org.example.CustomExceptions.AudioOutputException;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sink that streams audio to the sound card through a single {@link SourceDataLine}.
+ * The line stays open for the whole session instead of being reopened per note.
+ */
+public class LineAudioSink implements AudioSink {
+
+    private SourceDataLine line;
+
+    /**
+     * Picks the format closest to the requested one that the installed mixers support:
+     * the requested rate first, then the nearest standard rates; at each rate the requested
+     * channel count and bit depth first, then the remaining ones from highest quality down.
+     */
+    @Override
+    public OutputFormat negotiate(OutputFormat requested) {
+        for (OutputFormat candidate : candidates(requested)) {
+            if (AudioSystem.isLineSupported(new DataLine.Info(SourceDataLine.class, candidate.toAudioFormat()))) {
+                return candidate;
+            }
+        }
+        return requested; // Nothing matches: let open() report the error
+    }
+
+    private static List<OutputFormat> candidates(OutputFormat requested) {
+        List<Float> rates = new ArrayList<>();
+        rates.add(requested.getSampleRate());
+        List<Float> others = new ArrayList<>();
+        for (float r : OutputFormat.SUPPORTED_RATES) {
+            if (r != requested.getSampleRate()) others.add(r);
+        }
+        others.sort(Comparator.comparingDouble(r -> Math.abs(r - requested.getSampleRate())));
+        rates.addAll(others);
+
+        int[] channels = {requested.getChannels(), 3 - requested.getChannels()};
+        List<Integer> bits = new ArrayList<>();
+        bits.add(requested.getBits());
+        for (int i = OutputFormat.SUPPORTED_BITS.length - 1; i >= 0; i--) {
+            if (OutputFormat.SUPPORTED_BITS[i] != requested.getBits()) bits.add(OutputFormat.SUPPORTED_BITS[i]);
+        }
+
+        List<OutputFormat> result = new ArrayList<>();
+        for (float rate : rates) {
+            for (int c : channels) {
+                for (int b : bits) {
+                    result.add(new OutputFormat(rate, b, c));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void open(AudioFormat format) throws AudioOutputException {
+        try {
+            line = AudioSystem.getSourceDataLine(format);
+            line.open(format);
+            line.start();
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            line = null;
+            throw new AudioOutputException("Audio line unavailable: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) {
+        if (line != null) {
+            line.write(buffer, offset, length);
+        }
+    }
+
+    @Override
+    public void pause() {
+        if (line != null) {
+            line.stop();
+        }
+    }
+
+    @Override
+    public void resume() {
+        if (line != null) {
+            line.start();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (line != null) {
+            line.flush();
+        }
+    }
+
+    @Override
+    public void drain() {
+        if (line != null) {
+            line.drain();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (line != null) {
+            line.close();
+            line = null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.Business.Audio;
+
+import org.example.Business.Audio.Effects.AudioEffect;
+import org.example.Business.Audio.Effects.EffectChain;
+import org.example.Business.Model.NoteView;
+import org.example.Business.Model.TempoMap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns a song's notes into PCM in the synth's format, a block at a time.
+ * Overlapping tracks are mixed by a {@link VoiceMixer}, run through the synth's {@link EffectChain}
+ * and encoded once by a {@link PcmEncoder}.
+ * Not thread-safe: each thread rendering audio needs its own instance.
+ */
+public class NoteRenderer {
+
+    private final SoundSynth synth;
+    private final VoiceMixer mixer;
+    private final PcmEncoder encoder;
+    private final int frameSize;
+    private final float[] mix;
+    private final float[] right; // Second channel for the effect stages on a stereo output
+
+    private EffectChain chain;
+    private AudioEffect stages;
+    private AudioMetrics metrics;
+
+    private NoteSchedule schedule;
+    private long position; // Samples of the current song already rendered
+    private int next;      // Next note of the schedule to start
+
+    public NoteRenderer(SoundSynth synth, int maxVoices, int blockSamples) {
+        this.synth = synth;
+        this.mixer = synth.createMixer(maxVoices, blockSamples);
+        this.encoder = new PcmEncoder(synth.getFormat());
+        this.frameSize = synth.getFormat().getFrameSize();
+        this.mix = new float[blockSamples];
+        this.right = synth.getFormat().getChannels() == 2 ? new float[blockSamples] : null;
+    }
+
+    public OutputFormat getFormat() {
+        return encoder.getFormat();
+    }
+
+    /**
+     * Records the time taken by every block from now on; null to stop recording.
+     */
+    public void setMetrics(AudioMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Prepares to render a song from its first sample, at phase zero,
+     * so the same notes always produce the same PCM. Durations are ticks of {@code tempo}.
+     */
+    public void start(NoteView notes, TempoMap tempo) {
+        schedule = NoteSchedule.of(notes, tempo, synth);
+        mixer.setOscillators(synth::createOscillator);
+        mixer.reset();
+        encoder.reset();
+
+        // Stages are only rebuilt when the chain changes; otherwise their state is just cleared
+        EffectChain effects = synth.getEffects();
+        float sampleRate = synth.getFormat().getSampleRate();
+        if (!effects.equals(chain)) {
+            chain = effects;
+            stages = effects.hasNoStages() ? null : effects.createStages(sampleRate, right == null ? 1 : 2, mix.length);
+        }
+        if (stages != null) {
+            stages.reset();
+        }
+        mixer.setEnvelope(effects.getEnvelope(), sampleRate);
+        position = 0;
+        next = 0;
+    }
+
+    /**
+     * Moves the current song to the given sample. Notes sounding at that point are restarted
+     * part-way through, and the effect stages are cleared.
+     */
+    public void seek(long samplePosition) {
+        if (schedule == null) return;
+        position = Math.max(0, Math.min(samplePosition, schedule.getTotalSamples()));
+        mixer.reset();
+        if (stages != null) {
+            stages.reset();
+        }
+        next = schedule.firstStartingAt(position);
+        for (int i = schedule.firstSoundingAt(position); i < next; i++) {
+            long elapsed = position - schedule.getStart(i);
+            if (elapsed < schedule.getLength(i)) {
+                mixer.noteOn(schedule.getFrequency(i), schedule.getLength(i), (int) elapsed);
+            }
+        }
+    }
+
+    /**
+     * Samples of the current song rendered so far.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public long getTotalSamples() {
+        return schedule == null ? 0 : schedule.getTotalSamples();
+    }
+
+    public boolean isDone() {
+        return schedule == null || position >= schedule.getTotalSamples();
+    }
+
+    /**
+     * Bytes still to be rendered for the current song.
+     */
+    public long remainingBytes() {
+        return schedule == null ? 0 : (schedule.getTotalSamples() - position) * frameSize;
+    }
+
+    /**
+     * Renders up to {@code maxBytes} (rounded down to whole frames, and at most one block) into {@code dst}.
+     *
+     * @return Number of bytes written; 0 once the song is finished.
+     */
+    public int render(byte[] dst, int offset, int maxBytes) {
+        if (isDone()) return 0;
+        long started = metrics != null ? System.nanoTime() : 0;
+        int samples = (int) Math.min(Math.min(maxBytes / frameSize, mix.length), schedule.getTotalSamples() - position);
+
+        // Every note starting in this block begins at its exact sample offset; the block is mixed in one pass
+        long end = position + samples;
+        while (next < schedule.size() && schedule.getStart(next) < end) {
+            int at = (int) Math.max(0, schedule.getStart(next) - position);
+            mixer.noteOnAt(schedule.getFrequency(next), schedule.getLength(next), at);
+            next++;
+        }
+        mixer.render(mix, 0, samples);
+
+        if (stages == null) {
+            encoder.encode(mix, mix, 0, dst, offset, samples);
+        } else if (right == null) {
+            stages.process(mix, null, 0, samples);
+            encoder.encode(mix, mix, 0, dst, offset, samples);
+        } else {
+            System.arraycopy(mix, 0, right, 0, samples);
+            stages.process(mix, right, 0, samples);
+            encoder.encode(mix, right, 0, dst, offset, samples);
+        }
+        position += samples;
+        if (metrics != null) {
+            metrics.recordRender(System.nanoTime() - started, samples);
+        }
+        return samples * frameSize;
+    }
+
+    /**
+     * Renders a whole song into a new direct buffer, ready for the render cache.
+     */
+    public ByteBuffer renderAll(NoteView notes, TempoMap tempo) {
+        start(notes, tempo);
+        long size = remainingBytes();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Song too long to render in memory: " + size + " bytes");
+        }
+        ByteBuffer pcm = ByteBuffer.allocateDirect((int) size);
+        byte[] block = new byte[mix.length * frameSize];
+        int n;
+        while ((n = render(block, 0, block.length)) > 0) {
+            pcm.put(block, 0, n);
+        }
+        return pcm.flip();
+    }
+}
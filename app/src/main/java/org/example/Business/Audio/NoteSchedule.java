@@ -0,0 +1,134 @@
+package org.example.Business.Audio;
+
+import org.example.Business.Model.NoteView;
+import org.example.Business.Model.TempoMap;
+
+import java.util.Arrays;
+
+/**
+ * A song's notes laid out on an absolute sample timeline, ordered by start sample.
+ * Note boundaries are tick positions converted exactly through the song's {@link TempoMap},
+ * so an hour-long song ends on the same sample as its tick length, with no drift.
+ * Notes of the same track follow each other; different tracks overlap, so chords
+ * are notes that start at the same position on different tracks.
+ * Rests (frequency <= 0) only advance their track and are not scheduled.
+ */
+public final class NoteSchedule {
+
+    private final long[] starts;
+    private final int[] lengths;
+    private final double[] frequencies;
+    private final long[] reach; // reach[i]: latest end sample among notes 0..i, never decreasing
+    private final long totalSamples;
+
+    private NoteSchedule(long[] starts, int[] lengths, double[] frequencies, long totalSamples) {
+        this.starts = starts;
+        this.lengths = lengths;
+        this.frequencies = frequencies;
+        this.totalSamples = totalSamples;
+        this.reach = new long[starts.length];
+        long end = 0;
+        for (int i = 0; i < starts.length; i++) {
+            end = Math.max(end, starts[i] + lengths[i]);
+            reach[i] = end;
+        }
+    }
+
+    // Sort keys pack (start sample << INDEX_BITS) | note index, so one primitive sort orders by start
+    // and keeps notes that start together in their original order
+    private static final int INDEX_BITS = 24;
+
+    /**
+     * @param tempo Time base of the note durations, the song's {@code getTempo()}.
+     */
+    public static NoteSchedule of(NoteView notes, TempoMap tempo, SoundSynth synth) {
+        int n = notes.size();
+        if (n >= 1 << INDEX_BITS) {
+            throw new IllegalArgumentException("Too many notes in one song: " + n);
+        }
+        long rate = Math.round(synth.getFormat().getSampleRate());
+        long[] trackTicks = new long[4];
+        long[] keys = new long[n];
+        int[] rawLengths = new int[n];
+        long total = 0;
+        int count = 0;
+
+        for (int i = 0; i < n; i++) {
+            int track = Math.max(0, notes.getTrack(i));
+            if (track >= trackTicks.length) {
+                trackTicks = Arrays.copyOf(trackTicks, Math.max(track + 1, trackTicks.length * 2));
+            }
+            // Both ends come from absolute tick positions, so the rounding of one note never shifts the next
+            long startTick = trackTicks[track];
+            trackTicks[track] = startTick + Math.max(0, notes.getDurationTicks(i));
+            long start = tempo.samplesAt(startTick, rate);
+            long end = tempo.samplesAt(trackTicks[track], rate);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Note too long: " + (end - start) + " samples");
+            }
+            int length = (int) (end - start);
+            total = Math.max(total, end);
+
+            if (notes.getFrequency(i) > 0 && length > 0) {
+                rawLengths[i] = length;
+                keys[count++] = (start << INDEX_BITS) | i;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        long[] starts = new long[count];
+        int[] lengths = new int[count];
+        double[] frequencies = new double[count];
+        for (int k = 0; k < count; k++) {
+            int i = (int) (keys[k] & ((1 << INDEX_BITS) - 1));
+            starts[k] = keys[k] >>> INDEX_BITS;
+            lengths[k] = rawLengths[i];
+            frequencies[k] = notes.getFrequency(i);
+        }
+        return new NoteSchedule(starts, lengths, frequencies, total);
+    }
+
+    /**
+     * Number of audible notes.
+     */
+    public int size() { return starts.length; }
+
+    public long getStart(int i) { return starts[i]; }
+
+    public int getLength(int i) { return lengths[i]; }
+
+    public double getFrequency(int i) { return frequencies[i]; }
+
+    /**
+     * Index of the first note starting at or after {@code sample}; {@link #size()} if there is none.
+     */
+    public int firstStartingAt(long sample) {
+        int lo = 0, hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] < sample) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Index of the first note that could still be sounding at {@code sample}: every note before it
+     * has ended by then. Together with {@link #firstStartingAt} this bounds the notes to restart
+     * after a seek without walking the song from the beginning.
+     */
+    public int firstSoundingAt(long sample) {
+        int lo = 0, hi = reach.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (reach[mid] <= sample) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Length of the song in samples: the end of its longest track.
+     */
+    public long getTotalSamples() { return totalSamples; }
+}
@@ -0,0 +1,32 @@
+package org.example.Business.Audio;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Sink that discards everything written to it.
+ * Useful on headless servers without a sound device.
+ */
+public class NullAudioSink implements AudioSink {
+
+    private long bytesWritten;
+
+    @Override
+    public void open(AudioFormat format) {
+        bytesWritten = 0;
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) {
+        bytesWritten += length;
+    }
+
+    @Override
+    public void drain() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public long getBytesWritten() { return bytesWritten; }
+}
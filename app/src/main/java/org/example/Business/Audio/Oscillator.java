@@ -0,0 +1,18 @@
+package org.example.Business.Audio;
+
+/**
+ * Source of a periodic signal, rendered in blocks. Implementations keep their phase
+ * between calls so consecutive notes join without a discontinuity.
+ */
+public interface Oscillator {
+
+    /**
+     * Generates the next {@code length} samples in [-1, 1] at the given frequency.
+     */
+    void render(double freq, float[] out, int offset, int length);
+
+    /**
+     * Restarts the waveform at phase zero, e.g. at the start of a new song.
+     */
+    void reset();
+}
@@ -0,0 +1,85 @@
+package org.example.Business.Audio;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.Objects;
+
+/**
+ * PCM format the float pipeline is converted to at the output: sample rate, bit depth and channels.
+ * Samples are signed; 16 and 24-bit samples are little-endian, as in WAV files.
+ */
+public final class OutputFormat {
+
+    public static final float[] SUPPORTED_RATES = {22050f, 44100f, 48000f, 96000f};
+    public static final int[] SUPPORTED_BITS = {8, 16, 24};
+
+    // Standard CD quality sample rate (44.1 kHz), 16-bit mono
+    public static final OutputFormat DEFAULT = new OutputFormat(44100f, 16, 1);
+
+    private final float sampleRate;
+    private final int bits;
+    private final int channels;
+
+    public OutputFormat(float sampleRate, int bits, int channels) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("Sample rate must be positive: " + sampleRate);
+        }
+        if (bits != 8 && bits != 16 && bits != 24) {
+            throw new IllegalArgumentException("Unsupported sample size: " + bits + " bits");
+        }
+        if (channels != 1 && channels != 2) {
+            throw new IllegalArgumentException("Only mono and stereo are supported: " + channels);
+        }
+        this.sampleRate = sampleRate;
+        this.bits = bits;
+        this.channels = channels;
+    }
+
+    public float getSampleRate() { return sampleRate; }
+    public int getBits() { return bits; }
+    public int getChannels() { return channels; }
+
+    public int getBytesPerSample() {
+        return bits / 8;
+    }
+
+    /**
+     * Bytes per frame (one sample for every channel).
+     */
+    public int getFrameSize() {
+        return getBytesPerSample() * channels;
+    }
+
+    public OutputFormat withSampleRate(float sampleRate) {
+        return new OutputFormat(sampleRate, bits, channels);
+    }
+
+    public OutputFormat withBits(int bits) {
+        return new OutputFormat(sampleRate, bits, channels);
+    }
+
+    public OutputFormat withChannels(int channels) {
+        return new OutputFormat(sampleRate, bits, channels);
+    }
+
+    public AudioFormat toAudioFormat() {
+        return new AudioFormat(sampleRate, bits, channels, true, false);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OutputFormat)) return false;
+        OutputFormat f = (OutputFormat) o;
+        return Float.compare(sampleRate, f.sampleRate) == 0 && bits == f.bits && channels == f.channels;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sampleRate, bits, channels);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.2f kHz, %d-bit, %s", sampleRate / 1000, bits, channels == 1 ? "mono" : "stereo");
+    }
+}
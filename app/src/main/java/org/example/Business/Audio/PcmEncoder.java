@@ -0,0 +1,75 @@
+package org.example.Business.Audio;
+
+/**
+ * Converts float samples in [-1, 1] into the PCM layout of an {@link OutputFormat}.
+ * Quantization to 8 and 16 bits uses TPDF dither, so the rounding error becomes
+ * low-level noise instead of distortion. This is the only place the float pipeline
+ * is converted to integers.
+ */
+public final class PcmEncoder {
+
+    private final OutputFormat format;
+    private final float scale;
+    private final float ditherAmplitude;
+    private static final int SEED = 0x2545F491;
+
+    private int seed = SEED; // xorshift state, so dithering allocates nothing
+
+    public PcmEncoder(OutputFormat format) {
+        this.format = format;
+        this.scale = (1 << (format.getBits() - 1)) - 1;
+        // 24-bit quantization error is already far below audibility
+        this.ditherAmplitude = format.getBits() < 24 ? 1f : 0f;
+    }
+
+    public OutputFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Restarts the dither sequence, so encoding the same samples again gives the same bytes.
+     */
+    public void reset() {
+        seed = SEED;
+    }
+
+    /**
+     * Encodes {@code frames} frames. For a mono output only {@code left} is used;
+     * for stereo, pass the same array twice to play a mono signal on both channels.
+     */
+    public void encode(float[] left, float[] right, int srcOffset, byte[] dst, int dstOffset, int frames) {
+        int channels = format.getChannels();
+        int bytesPerSample = format.getBytesPerSample();
+        int out = dstOffset;
+        for (int i = 0; i < frames; i++) {
+            out = write(left[srcOffset + i], dst, out, bytesPerSample);
+            if (channels == 2) {
+                out = write(right[srcOffset + i], dst, out, bytesPerSample);
+            }
+        }
+    }
+
+    private int write(float sample, byte[] dst, int out, int bytesPerSample) {
+        float x = sample * scale + ditherAmplitude * (nextUniform() - nextUniform());
+        int q = Math.round(x);
+        int max = (int) scale;
+        if (q > max) q = max;
+        else if (q < -max - 1) q = -max - 1;
+
+        // Little-endian, signed
+        for (int b = 0; b < bytesPerSample; b++) {
+            dst[out++] = (byte) (q >> (8 * b));
+        }
+        return out;
+    }
+
+    // Uniform value in [0, 1)
+    private float nextUniform() {
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return (x >>> 8) * (1f / (1 << 24));
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.Business.Audio;
+
+/**
+ * Band-limited square/pulse oscillator using PolyBLEP edge correction.
+ * A naive square switches between +1 and -1 instantly, which aliases badly at 44.1 kHz;
+ * here the two samples around every edge are smoothed with a polynomial band-limited step.
+ *
+ * Work is done per block: a branch-free pass writes the naive pulse (simple enough for the
+ * JIT to unroll and vectorize), then a second pass visits only the few samples next to an
+ * edge, whose positions follow directly from the phase and frequency.
+ */
+public class PulseOscillator implements Oscillator {
+
+    public static final double DEFAULT_PULSE_WIDTH = 0.5;
+
+    private static final double CYCLE = 4294967296.0; // 2^32, one cycle of the fixed-point phase
+
+    private final float sampleRate;
+    private double pulseWidth;
+    private int pulseWidthFixed; // Pulse width in 2^-31 cycle units, compared against phase >>> 1
+    private int phase;           // Fraction of a cycle in 2^-32 units; wraps by integer overflow
+
+    public PulseOscillator(float sampleRate) {
+        this(sampleRate, DEFAULT_PULSE_WIDTH);
+    }
+
+    public PulseOscillator(float sampleRate, double pulseWidth) {
+        this.sampleRate = sampleRate;
+        this.pulseWidth = checkPulseWidth(pulseWidth);
+        this.pulseWidthFixed = toFixed(pulseWidth);
+    }
+
+    /**
+     * Fraction of the cycle spent high: 0.5 is a square wave, smaller values a narrower pulse.
+     */
+    public void setPulseWidth(double pulseWidth) {
+        this.pulseWidth = checkPulseWidth(pulseWidth);
+        this.pulseWidthFixed = toFixed(pulseWidth);
+    }
+
+    public double getPulseWidth() {
+        return pulseWidth;
+    }
+
+    @Override
+    public void render(double freq, float[] out, int offset, int length) {
+        double cycles = freq / sampleRate;
+        double dt = cycles - Math.floor(cycles); // Phase advance per sample, in cycles
+        int increment = (int) (long) (dt * CYCLE);
+        int start = phase;
+
+        renderNaive(out, offset, length, start, increment, pulseWidthFixed);
+
+        // Above half the sample rate there is no meaningful band-limited pulse to correct
+        if (dt > 0 && dt < 0.5) {
+            double phase0 = (start & 0xFFFFFFFFL) / CYCLE;
+            correctEdges(out, offset, length, phase0, dt, 0.0, 1f);        // Rising edge, -1 -> +1
+            correctEdges(out, offset, length, phase0, dt, pulseWidth, -1f); // Falling edge, +1 -> -1
+        }
+        phase = start + length * increment;
+    }
+
+    @Override
+    public void reset() {
+        phase = 0;
+    }
+
+    private static double checkPulseWidth(double pulseWidth) {
+        if (!(pulseWidth > 0 && pulseWidth < 1)) {
+            throw new IllegalArgumentException("Pulse width must be between 0 and 1: " + pulseWidth);
+        }
+        return pulseWidth;
+    }
+
+    private static int toFixed(double pulseWidth) {
+        return (int) (pulseWidth * (CYCLE / 2));
+    }
+
+    // +1 while the phase is below the pulse width, -1 after it; no data-dependent branches
+    private static void renderNaive(float[] out, int offset, int length, int start, int increment, int width) {
+        for (int i = 0; i < length; i++) {
+            int p = (start + i * increment) >>> 1;
+            out[offset + i] = p < width ? 1f : -1f;
+        }
+    }
+
+    /**
+     * Applies the PolyBLEP residual to the samples on both sides of every edge in the block.
+     * An edge happens when the unwrapped phase reaches {@code edgePhase + k}; in samples that is
+     * {@code e = (edgePhase + k - phase0) / dt}. Edges just outside the block are included because
+     * they still affect its first or last sample.
+     */
+    private static void correctEdges(float[] out, int offset, int length, double phase0, double dt,
+                                     double edgePhase, float sign) {
+        long k = (long) Math.floor(phase0 - edgePhase - dt) + 1; // First edge with e > -1
+        for (double e = (edgePhase + k - phase0) / dt; e <= length; k++, e = (edgePhase + k - phase0) / dt) {
+            int n = (int) Math.ceil(e); // First sample at or after the edge
+            float x = (float) (n - e);  // Distance past the edge, in samples: [0, 1)
+            if (n >= 0 && n < length) {
+                out[offset + n] += sign * (x + x - x * x - 1f);
+            }
+            float y = x - 1f;           // Distance before the edge for the previous sample: [-1, 0)
+            if (n - 1 >= 0 && n - 1 < length) {
+                out[offset + n - 1] += sign * (y * y + y + y + 1f);
+            }
+        }
+    }
+}
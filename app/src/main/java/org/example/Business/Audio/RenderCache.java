@@ -0,0 +1,281 @@
+package org.example.Business.Audio;
+
+import org.example.Business.Audio.Effects.EffectChain;
+import org.example.Business.Model.NoteView;
+import org.example.Business.Model.TempoMap;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Memory-bounded LRU cache of rendered PCM, one entry per song.
+ * Entries are keyed by a content hash of the notes plus the tempo, synth and format settings themselves,
+ * so a song whose notes change is never served stale audio. Songs with identical notes and
+ * settings share one entry. PCM is kept off-heap in direct buffers, which are released by the
+ * garbage collector once evicted.
+ */
+public class RenderCache {
+
+    public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    private final long budgetBytes;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, Key> keysBySong = new HashMap<>();
+    private final Map<Key, Set<Integer>> songsByKey = new HashMap<>(); // Reverse of keysBySong, per cached entry
+    private long usedBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public RenderCache() {
+        this(DEFAULT_BUDGET_BYTES);
+    }
+
+    public RenderCache(long budgetBytes) {
+        if (budgetBytes < 0) {
+            throw new IllegalArgumentException("Budget must not be negative: " + budgetBytes);
+        }
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Computes the cache key for a note sequence, timed by {@code tempo}, rendered by the given synth.
+     */
+    public static Key keyFor(NoteView notes, TempoMap tempo, SoundSynth synth) {
+        // Two independent 64-bit hashes make an accidental collision of two note sequences practically impossible
+        long h1 = 0xcbf29ce484222325L;
+        long h2 = 0x9e3779b97f4a7c15L;
+        for (int i = 0, n = notes.size(); i < n; i++) {
+            long freq = Double.doubleToLongBits(notes.getFrequency(i));
+            // The track decides which notes overlap, so it is part of the note's identity
+            long duration = notes.getDurationTicks(i) | ((long) notes.getTrack(i) << 32);
+            h1 = (h1 ^ freq) * 0x100000001b3L;
+            h1 = (h1 ^ duration) * 0x100000001b3L;
+            h2 = Long.rotateLeft(h2 ^ (freq * 0xff51afd7ed558ccdL), 27) * 31 + duration;
+        }
+        // Everything else is compared by value: the same ticks last differently under another tempo,
+        // and settings are few enough to keep whole
+        return new Key(h1, h2, notes.size(), tempo, synth.getWaveform(), synth.pulseWidth(),
+                synth.getEffects(), synth.getFormat());
+    }
+
+    /**
+     * Returns a read-only view of the cached PCM for a song, or null on a miss.
+     */
+    public synchronized ByteBuffer get(int songId, Key key) {
+        ByteBuffer pcm = entries.get(key);
+        if (pcm == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        link(songId, key);
+        return pcm.asReadOnlyBuffer();
+    }
+
+    /**
+     * Stores rendered PCM for a song, evicting least recently used entries to stay within budget.
+     * The bytes between position and limit are stored; a direct buffer is kept as is (the caller
+     * must not modify it afterwards), a heap buffer is copied off-heap.
+     *
+     * @return false if the render is larger than the whole budget and was not cached.
+     */
+    public synchronized boolean put(int songId, Key key, ByteBuffer pcm) {
+        int size = pcm.remaining();
+        if (!fits(size)) {
+            return false;
+        }
+        // The song's previous render goes unless another song still plays it
+        if (!key.equals(keysBySong.get(songId))) {
+            unlink(songId);
+        }
+        if (entries.get(key) != null) {
+            // Same notes and settings as a cached song: the PCM is already there
+            link(songId, key);
+            return true;
+        }
+
+        Iterator<Map.Entry<Key, ByteBuffer>> eldest = entries.entrySet().iterator();
+        while (usedBytes + size > budgetBytes && eldest.hasNext()) {
+            Map.Entry<Key, ByteBuffer> entry = eldest.next();
+            usedBytes -= entry.getValue().capacity();
+            forgetSongs(entry.getKey());
+            eldest.remove();
+            evictions++;
+        }
+
+        ByteBuffer stored;
+        if (pcm.isDirect()) {
+            stored = pcm.slice();
+        } else {
+            stored = ByteBuffer.allocateDirect(size);
+            stored.put(pcm.duplicate()).flip();
+        }
+        entries.put(key, stored);
+        link(songId, key);
+        usedBytes += size;
+        return true;
+    }
+
+    /**
+     * Drops the cached render of a song, e.g. after it was edited or deleted. The entry is kept
+     * while another song with the same notes and settings still uses it.
+     */
+    public synchronized void invalidate(int songId) {
+        if (unlink(songId)) {
+            invalidations++;
+        }
+    }
+
+    /**
+     * Whether a render of the given size can be cached at all.
+     */
+    public boolean fits(long bytes) {
+        return bytes <= budgetBytes && bytes <= Integer.MAX_VALUE;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        keysBySong.clear();
+        songsByKey.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, invalidations, entries.size(), usedBytes, budgetBytes);
+    }
+
+    private void link(int songId, Key key) {
+        Key previous = keysBySong.put(songId, key);
+        if (key.equals(previous)) return;
+        if (previous != null) {
+            dropSong(songId, previous);
+        }
+        songsByKey.computeIfAbsent(key, k -> new HashSet<>()).add(songId);
+    }
+
+    // Detaches a song from its entry and removes the entry if no other song uses it
+    private boolean unlink(int songId) {
+        Key key = keysBySong.remove(songId);
+        if (key == null) return false;
+        if (!dropSong(songId, key)) return false;
+        return remove(key);
+    }
+
+    // Returns true if no song is left on the key
+    private boolean dropSong(int songId, Key key) {
+        Set<Integer> songs = songsByKey.get(key);
+        if (songs == null) return true;
+        songs.remove(songId);
+        if (!songs.isEmpty()) return false;
+        songsByKey.remove(key);
+        return true;
+    }
+
+    private void forgetSongs(Key key) {
+        Set<Integer> songs = songsByKey.remove(key);
+        if (songs != null) {
+            keysBySong.keySet().removeAll(songs);
+        }
+    }
+
+    private boolean remove(Key key) {
+        forgetSongs(key);
+        ByteBuffer old = entries.remove(key);
+        if (old == null) return false;
+        usedBytes -= old.capacity();
+        return true;
+    }
+
+    /**
+     * Content hash of a song's notes plus the tempo and synth/format settings used to render them.
+     */
+    public static final class Key {
+        private final long hash1;
+        private final long hash2;
+        private final int noteCount;
+        private final TempoMap tempo;
+        private final Waveform waveform;
+        private final double pulseWidth;
+        private final EffectChain effects;
+        private final OutputFormat format;
+
+        private Key(long hash1, long hash2, int noteCount, TempoMap tempo, Waveform waveform, double pulseWidth,
+                    EffectChain effects, OutputFormat format) {
+            this.hash1 = hash1;
+            this.hash2 = hash2;
+            this.noteCount = noteCount;
+            this.tempo = tempo;
+            this.waveform = waveform;
+            this.pulseWidth = pulseWidth;
+            this.effects = effects;
+            this.format = format;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return hash1 == k.hash1 && hash2 == k.hash2 && noteCount == k.noteCount
+                    && waveform == k.waveform && Double.compare(pulseWidth, k.pulseWidth) == 0
+                    && tempo.equals(k.tempo) && effects.equals(k.effects) && format.equals(k.format);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash1) * 31 + effects.hashCode();
+        }
+    }
+
+    /**
+     * Snapshot of the cache counters, used to size the byte budget.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+        private final int entries;
+        private final long usedBytes;
+        private final long budgetBytes;
+
+        Stats(long hits, long misses, long evictions, long invalidations, int entries, long usedBytes, long budgetBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.entries = entries;
+            this.usedBytes = usedBytes;
+            this.budgetBytes = budgetBytes;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getInvalidations() { return invalidations; }
+        public int getEntries() { return entries; }
+        public long getUsedBytes() { return usedBytes; }
+        public long getBudgetBytes() { return budgetBytes; }
+
+        public double getHitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d (%.1f%%) evictions=%d invalidations=%d entries=%d used=%d/%d bytes",
+                    hits, misses, getHitRatio() * 100, evictions, invalidations, entries, usedBytes, budgetBytes);
+        }
+    }
+}
@@ -1,18 +1,83 @@
 package org.example.Business.Audio;
 
+import org.example.Business.Audio.Effects.EffectChain;
+import org.example.Business.Model.NoteView;
+import org.example.Business.Model.TempoMap;
+
 /**
  * Abstract base class for synthesizers.
- * Defines the contract for making sound.
+ * A synth defines the timbre (waveform and effect chain) and the output format; the {@link AudioEngine}
+ * renders its notes through a {@link VoiceMixer} in float and encodes them once for the sink.
  */
 public abstract class SoundSynth {
-    
-    // Standard CD quality sample rate (44.1 kHz)
-    protected static final float SAMPLE_RATE = 44100f;
+
+    private Waveform waveform;
+    private OutputFormat format = OutputFormat.DEFAULT;
+    private EffectChain effects = EffectChain.DEFAULT;
+
+    protected SoundSynth(Waveform waveform) {
+        this.waveform = waveform;
+    }
+
+    public Waveform getWaveform() { return waveform; }
+    public void setWaveform(Waveform waveform) { this.waveform = waveform; }
+
+    /**
+     * Format the synthesized audio is delivered in: SampleRate, SampleSize(bits), Channels.
+     */
+    public OutputFormat getFormat() { return format; }
+    public void setFormat(OutputFormat format) { this.format = format; }
+
+    /**
+     * Envelope and processing stages applied to the notes; takes effect from the next song.
+     */
+    public EffectChain getEffects() { return effects; }
+    public void setEffects(EffectChain effects) {
+        if (effects == null) {
+            throw new IllegalArgumentException("Effect chain must not be null; use EffectChain.NONE.");
+        }
+        this.effects = effects;
+    }
+
+    /**
+     * Number of samples in the given number of milliseconds (e.g. the gap between songs), rounded down.
+     * Integer arithmetic: float products lose whole samples on long durations.
+     */
+    public int samplesFor(int durationMs) {
+        return (int) ((long) durationMs * Math.round(format.getSampleRate()) / 1000);
+    }
+
+    /**
+     * Number of samples a sequence of notes produces: the end of its longest track.
+     * Lets callers size an output (e.g. a WAV header) before rendering.
+     */
+    public long samplesFor(NoteView notes, TempoMap tempo) {
+        return NoteSchedule.of(notes, tempo, this).getTotalSamples();
+    }
+
+    /**
+     * Creates one voice's oscillator. Square waves use a band-limited pulse so they do not alias;
+     * the other waveforms are read from a wavetable.
+     */
+    public Oscillator createOscillator() {
+        if (waveform == Waveform.SQUARE) {
+            return new PulseOscillator(format.getSampleRate());
+        }
+        return new WavetableOscillator(waveform, format.getSampleRate());
+    }
+
+    /**
+     * Builds a mixer that plays this synth's waveform on several voices at once.
+     */
+    public VoiceMixer createMixer(int maxVoices, int maxBlock) {
+        return new VoiceMixer(this::createOscillator, maxVoices, maxBlock, VoiceMixer.DEFAULT_VOICE_GAIN);
+    }
 
     /**
-     * Generates a tone of a specific frequency for a specific duration.
-     * * @param freq The frequency in Hertz (Hz).
-     * @param durationMs The duration in milliseconds.
+     * Pulse width of the square oscillator, 0 for the other waveforms. With the waveform, effects and format,
+     * everything that changes how notes sound; all of them are part of the render cache key.
      */
-    public abstract void makeSound(double freq, int durationMs);
-}
\ No newline at end of file
+    double pulseWidth() {
+        return waveform == Waveform.SQUARE ? PulseOscillator.DEFAULT_PULSE_WIDTH : 0;
+    }
+}
@@ -1,50 +1,45 @@
 package org.example.Business.Audio;
 
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.SourceDataLine;
-
+/**
+ * Square/pulse synth. The pulse width sets the timbre: 0.5 is a hollow square wave,
+ * narrower pulses sound thinner and brighter.
+ */
 public class SoundSynthSquare extends SoundSynth {
 
+    private double pulseWidth = PulseOscillator.DEFAULT_PULSE_WIDTH;
+
+    public SoundSynthSquare() {
+        super(Waveform.SQUARE);
+    }
+
+    public SoundSynthSquare(double pulseWidth) {
+        this();
+        this.pulseWidth = checkPulseWidth(pulseWidth);
+    }
+
+    public double getPulseWidth() { return pulseWidth; }
+
+    public void setPulseWidth(double pulseWidth) {
+        this.pulseWidth = checkPulseWidth(pulseWidth);
+    }
+
     @Override
-    public void makeSound(double freq, int durationMs) {
-        if (freq <= 0) return; // Ignore silent/invalid frequencies
-
-        try {
-            // 1. Define Audio Format: SampleRate, SampleSize(bits), Channels, Signed, BigEndian
-            // We use 8-bit for simplicity (1 byte per sample)
-            AudioFormat af = new AudioFormat(SAMPLE_RATE, 8, 1, true, true);
-            
-            // 2. Open the line
-            SourceDataLine sdl = AudioSystem.getSourceDataLine(af);
-            sdl.open(af);
-            sdl.start();
-
-            // 3. Calculate number of samples needed for the duration
-            // (duration / 1000) * samples_per_second
-            int numberOfSamples = (int) ((durationMs * SAMPLE_RATE) / 1000);
-            byte[] buffer = new byte[numberOfSamples];
-
-            // 4. Generate the Sine Wave
-            for (int i = 0; i < numberOfSamples; i++) {
-                // Math: sin(2 * PI * frequency * time_index)
-                double angle = 2.0 * Math.PI * freq * (i / SAMPLE_RATE);
-                
-                // Scale amplitude to max byte size (127 for signed 8-bit)
-                // We use 100 to avoid clipping/distortion at the edges
-                buffer[i] = (byte) (Math.sin(angle) * 100); 
-            }
-
-            // 5. Write to the audio output
-            sdl.write(buffer, 0, buffer.length);
-            
-            // 6. Clean up
-            sdl.drain(); // Wait for data to finish playing
-            sdl.close();
-
-        } catch (LineUnavailableException e) {
-            System.err.println("Error de Audio: " + e.getMessage());
+    public Oscillator createOscillator() {
+        if (getWaveform() == Waveform.SQUARE) {
+            return new PulseOscillator(getFormat().getSampleRate(), pulseWidth);
+        }
+        return super.createOscillator();
+    }
+
+    @Override
+    double pulseWidth() {
+        return getWaveform() == Waveform.SQUARE ? pulseWidth : 0;
+    }
+
+    private static double checkPulseWidth(double pulseWidth) {
+        if (!(pulseWidth > 0 && pulseWidth < 1)) {
+            throw new IllegalArgumentException("Pulse width must be between 0 and 1: " + pulseWidth);
         }
+        return pulseWidth;
     }
-}
\ No newline at end of file
+}
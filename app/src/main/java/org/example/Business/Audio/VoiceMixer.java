@@ -0,0 +1,279 @@
+package org.example.Business.Audio;
+
+import org.example.Business.Audio.Effects.Envelope;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Mixes up to a fixed number of simultaneous voices into float blocks.
+ * Voices are preallocated, each with its own oscillator and envelope position; when all are
+ * busy the oldest voice is stolen. The sum is soft-clipped so chords never wrap around the output range.
+ *
+ * Notes can start anywhere inside the next block ({@link #noteOnAt}), so a block is mixed in one pass
+ * however many notes start in it. A voice whose note ends before a new one starts can take the new note
+ * as its follow-up within the same block: voices are picked and stolen exactly as if the block had been
+ * split at every note start.
+ */
+public class VoiceMixer {
+
+    public static final int DEFAULT_MAX_VOICES = 32;
+
+    // Per-voice level: same as the former 8-bit amplitude of 100 out of 127,
+    // so a single voice passes through the clipper unchanged
+    public static final float DEFAULT_VOICE_GAIN = 100f / 127f;
+
+    // Below this level the clipper is linear; above it the signal bends smoothly towards 1
+    private static final float CLIP_KNEE = 0.8f;
+
+    private final Voice[] voices;
+    private final float voiceGain;
+    private final float[] scratch;
+    private Envelope envelope = Envelope.NONE;
+    private float sampleRate;
+    private long clock; // Voice start order, used to pick the oldest voice to steal
+
+    /**
+     * @param maxBlock Largest number of samples requested in one {@link #render} call.
+     */
+    public VoiceMixer(Waveform waveform, float sampleRate, int maxVoices, int maxBlock) {
+        this(() -> new WavetableOscillator(waveform, sampleRate), maxVoices, maxBlock, DEFAULT_VOICE_GAIN);
+    }
+
+    /**
+     * @param oscillators Creates one oscillator per voice.
+     */
+    public VoiceMixer(Supplier<? extends Oscillator> oscillators, int maxVoices, int maxBlock, float voiceGain) {
+        if (maxVoices <= 0) {
+            throw new IllegalArgumentException("At least one voice is required: " + maxVoices);
+        }
+        this.voices = new Voice[maxVoices];
+        for (int i = 0; i < maxVoices; i++) {
+            voices[i] = new Voice();
+            voices[i].oscillator = oscillators.get();
+        }
+        this.voiceGain = voiceGain;
+        this.scratch = new float[maxBlock];
+    }
+
+    /**
+     * Starts a note on a free voice, stealing the oldest one if every voice is busy.
+     */
+    public void noteOn(double freq, int lengthSamples) {
+        noteOn(freq, lengthSamples, 0);
+    }
+
+    /**
+     * Starts a note part-way through, e.g. after seeking into the middle of it.
+     *
+     * @param elapsedSamples Samples of the note already gone; its envelope continues from there.
+     */
+    public void noteOn(double freq, int lengthSamples, int elapsedSamples) {
+        start(freq, lengthSamples, elapsedSamples, 0);
+    }
+
+    /**
+     * Starts a note {@code offset} samples into the next {@link #render} call.
+     * Notes must be given in order of offset.
+     */
+    public void noteOnAt(double freq, int lengthSamples, int offset) {
+        start(freq, lengthSamples, 0, offset);
+    }
+
+    private void start(double freq, int lengthSamples, int elapsedSamples, int offset) {
+        // The first voice that is free when the note starts: idle now, or done by then
+        Voice target = null;
+        Voice oldest = null;
+        for (Voice v : voices) {
+            if (v.end() <= offset) {
+                target = v;
+                break;
+            }
+            if (oldest == null || v.startedAt < oldest.startedAt) {
+                oldest = v;
+            }
+        }
+        if (target == null) {
+            // Every voice is busy: the oldest one fades out over the release and stops where the new note starts
+            target = oldest;
+            target.cutAt(offset, envelope.releaseSamples(sampleRate));
+        }
+        // The voice keeps its phase: a melody reusing the same voice, or a stolen voice, joins without a click
+        target.enqueue(freq, lengthSamples, elapsedSamples, offset);
+        target.startedAt = clock++;
+    }
+
+    /**
+     * Mixes the next {@code length} samples of every active voice into {@code out}.
+     */
+    public void render(float[] out, int offset, int length) {
+        Arrays.fill(out, offset, offset + length, 0f);
+        for (Voice v : voices) {
+            if (v.remaining > 0) {
+                renderVoice(v, out, offset, length);
+            }
+            // Notes queued behind the current one, within this block
+            while (v.remaining <= 0 && v.head < v.queued) {
+                v.promote();
+                renderVoice(v, out, offset, length);
+            }
+            v.endBlock(length);
+        }
+        softClip(out, offset, length);
+    }
+
+    private void renderVoice(Voice v, float[] out, int offset, int length) {
+        int start = Math.min(v.offset, length);
+        int n = Math.min(length - start, v.remaining);
+        v.offset -= start; // Whatever is left applies to the next block
+        if (n <= 0) return;
+
+        v.oscillator.render(v.freq, scratch, 0, n);
+        envelope.apply(scratch, 0, n, v.played, v.length, sampleRate);
+        int end = v.played + v.remaining;
+        if (v.fadeFrom < end) {
+            Envelope.fadeOut(scratch, 0, n, v.played, v.fadeFrom, end);
+        }
+        float gain = voiceGain;
+        int base = offset + start;
+        for (int i = 0; i < n; i++) {
+            out[base + i] += scratch[i] * gain;
+        }
+        v.remaining -= n;
+        v.played += n;
+    }
+
+    public int activeVoices() {
+        int active = 0;
+        for (Voice v : voices) {
+            if (v.remaining > 0 || v.head < v.queued) active++;
+        }
+        return active;
+    }
+
+    /**
+     * Silences every voice, e.g. before a new song.
+     */
+    public void reset() {
+        for (Voice v : voices) {
+            v.remaining = 0;
+            v.offset = 0;
+            v.head = v.queued = 0;
+            v.oscillator.reset();
+        }
+        clock = 0;
+    }
+
+    /**
+     * Replaces every voice's oscillator, e.g. when the synth's timbre changes between songs.
+     */
+    public void setOscillators(Supplier<? extends Oscillator> oscillators) {
+        for (Voice v : voices) {
+            v.oscillator = oscillators.get();
+        }
+    }
+
+    /**
+     * Shapes every note with the given envelope from the next note on.
+     */
+    public void setEnvelope(Envelope envelope, float sampleRate) {
+        this.envelope = envelope;
+        this.sampleRate = sampleRate;
+    }
+
+    static void softClip(float[] buffer, int offset, int length) {
+        final float range = 1f - CLIP_KNEE;
+        for (int i = offset; i < offset + length; i++) {
+            float x = buffer[i];
+            float ax = Math.abs(x);
+            if (ax > CLIP_KNEE) {
+                // Rational tanh approximation on the part above the knee, saturating at 1
+                float t = Math.min((ax - CLIP_KNEE) / range, 3f);
+                float shaped = t * (27f + t * t) / (27f + 9f * t * t);
+                buffer[i] = Math.copySign(CLIP_KNEE + range * shaped, x);
+            }
+        }
+    }
+
+    private static final class Voice {
+        Oscillator oscillator;
+        double freq;
+        int length;
+        int remaining;      // Samples left to play; less than length - played when the note was cut short
+        int played;         // Position in the note, for the envelope
+        int fadeFrom;       // Position in the note where the fade of a cut note starts; MAX_VALUE if not cut
+        int offset;         // Samples into the next block before the note starts
+        long startedAt;
+
+        // Notes that start once the current one ends, in the order they were given; head is the next one
+        double[] queueFreq = new double[2];
+        int[] queueLength = new int[2];
+        int[] queueElapsed = new int[2];
+        int[] queueRemaining = new int[2];
+        int[] queueOffset = new int[2];
+        int[] queueFadeFrom = new int[2];
+        int head;
+        int queued;
+
+        // Offset in the next block where this voice falls silent
+        int end() {
+            if (head < queued) {
+                return queueOffset[queued - 1] + queueRemaining[queued - 1];
+            }
+            return remaining <= 0 ? 0 : offset + remaining;
+        }
+
+        void enqueue(double freq, int length, int elapsed, int offset) {
+            if (queued == queueFreq.length) {
+                queueFreq = Arrays.copyOf(queueFreq, queued * 2);
+                queueLength = Arrays.copyOf(queueLength, queued * 2);
+                queueElapsed = Arrays.copyOf(queueElapsed, queued * 2);
+                queueRemaining = Arrays.copyOf(queueRemaining, queued * 2);
+                queueOffset = Arrays.copyOf(queueOffset, queued * 2);
+                queueFadeFrom = Arrays.copyOf(queueFadeFrom, queued * 2);
+            }
+            queueFreq[queued] = freq;
+            queueLength[queued] = length;
+            queueElapsed[queued] = elapsed;
+            queueRemaining[queued] = length - elapsed;
+            queueOffset[queued] = offset;
+            queueFadeFrom[queued] = Integer.MAX_VALUE;
+            queued++;
+        }
+
+        // The last note given to this voice stops at the given offset, fading out over at most 'fade'
+        // samples before it; the fade never starts before the samples already played, so the level never jumps
+        void cutAt(int at, int fade) {
+            if (head < queued) {
+                int last = queued - 1;
+                int keep = Math.min(queueRemaining[last], Math.max(0, at - queueOffset[last]));
+                queueRemaining[last] = keep;
+                queueFadeFrom[last] = Math.max(queueElapsed[last], queueElapsed[last] + keep - fade);
+            } else {
+                int keep = Math.min(remaining, Math.max(0, at - offset));
+                remaining = keep;
+                fadeFrom = Math.max(played, played + keep - fade);
+            }
+        }
+
+        void promote() {
+            freq = queueFreq[head];
+            length = queueLength[head];
+            played = queueElapsed[head];
+            remaining = queueRemaining[head];
+            offset = queueOffset[head];
+            fadeFrom = queueFadeFrom[head];
+            head++;
+        }
+
+        void endBlock(int blockLength) {
+            if (head == queued) {
+                head = queued = 0;
+                return;
+            }
+            for (int i = head; i < queued; i++) {
+                queueOffset[i] = Math.max(0, queueOffset[i] - blockLength);
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.example.Business.Audio;
+
+import org.example.CustomExceptions.AudioOutputException;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sink that streams audio in RIFF/WAVE format, either into a file or into any {@link OutputStream}.
+ * For files the header is written up front and its sizes are patched when the sink is closed.
+ * Streams cannot be rewound, so the data length must be declared in advance; a shorter
+ * stream is padded with silence on close.
+ */
+public class WavAudioSink implements AudioSink {
+
+    private static final int HEADER_SIZE = 44;
+
+    private final Path path;
+    private final OutputStream stream;
+    private final long declaredDataBytes;
+
+    private FileChannel channel;
+    private AudioFormat format;
+    private long dataBytes;
+    private boolean open;
+    private byte[] scratch = new byte[0];
+
+    /**
+     * Writes to a file. The header is completed when the sink is closed.
+     */
+    public WavAudioSink(Path path) {
+        this.path = path;
+        this.stream = null;
+        this.declaredDataBytes = -1;
+    }
+
+    /**
+     * Writes to a stream that is left open on close.
+     *
+     * @param dataBytes Exact number of PCM bytes that will be written.
+     */
+    public WavAudioSink(OutputStream stream, long dataBytes) {
+        if (dataBytes < 0) {
+            throw new IllegalArgumentException("Data length must be known: " + dataBytes);
+        }
+        this.path = null;
+        this.stream = stream;
+        this.declaredDataBytes = dataBytes;
+    }
+
+    @Override
+    public void open(AudioFormat format) throws AudioOutputException {
+        this.format = format;
+        this.dataBytes = 0;
+        try {
+            if (stream != null) {
+                ByteBuffer header = header(format, declaredDataBytes);
+                stream.write(header.array(), 0, header.limit());
+            } else {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                channel.write(header(format, 0));
+            }
+            open = true;
+        } catch (IOException e) {
+            throw new AudioOutputException("Cannot open WAV output " + target() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) throws AudioOutputException {
+        if (!open) return;
+        if (stream != null && dataBytes + length > declaredDataBytes) {
+            throw new AudioOutputException("WAV stream longer than the declared " + declaredDataBytes + " bytes.");
+        }
+        if (scratch.length < length) {
+            scratch = new byte[length];
+        }
+        toWavByteLayout(format, buffer, offset, scratch, length);
+        try {
+            writeRaw(scratch, length);
+            dataBytes += length;
+        } catch (IOException e) {
+            throw new AudioOutputException("Error writing WAV output " + target() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void drain() throws AudioOutputException {
+        if (stream == null || !open) return;
+        try {
+            stream.flush();
+        } catch (IOException e) {
+            throw new AudioOutputException("Error writing WAV output " + target() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws AudioOutputException {
+        if (!open) return;
+        open = false;
+        try {
+            if (stream != null) {
+                // The header already promised declaredDataBytes, so pad a short render with silence
+                padWithSilence(declaredDataBytes - dataBytes);
+                stream.flush();
+            } else {
+                channel.write(header(format, dataBytes), 0);
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new AudioOutputException("Error closing WAV output " + target() + ": " + e.getMessage(), e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    /**
+     * Size of a complete WAV file holding the given number of PCM bytes.
+     */
+    public static long fileSize(long dataBytes) {
+        return HEADER_SIZE + dataBytes;
+    }
+
+    private void writeRaw(byte[] data, int length) throws IOException {
+        if (stream != null) {
+            stream.write(data, 0, length);
+        } else {
+            ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private void padWithSilence(long missing) throws IOException {
+        if (missing <= 0) return;
+        byte[] silence = new byte[(int) Math.min(missing, 4096)];
+        byte[] converted = new byte[silence.length];
+        toWavByteLayout(format, silence, 0, converted, converted.length);
+        while (missing > 0) {
+            int n = (int) Math.min(missing, converted.length);
+            stream.write(converted, 0, n);
+            missing -= n;
+        }
+    }
+
+    private String target() {
+        return path != null ? path.toString() : "stream";
+    }
+
+    /**
+     * Builds the 44-byte canonical PCM header for the given format and data length.
+     */
+    static ByteBuffer header(AudioFormat format, long dataBytes) {
+        int channels = format.getChannels();
+        int bits = format.getSampleSizeInBits();
+        int sampleRate = (int) format.getSampleRate();
+        int blockAlign = channels * ((bits + 7) / 8);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[] {'R', 'I', 'F', 'F'});
+        header.putInt((int) Math.min(0xFFFFFFFFL, 36 + dataBytes));
+        header.put(new byte[] {'W', 'A', 'V', 'E'});
+        header.put(new byte[] {'f', 'm', 't', ' '});
+        header.putInt(16);
+        header.putShort((short) 1); // PCM
+        header.putShort((short) channels);
+        header.putInt(sampleRate);
+        header.putInt(sampleRate * blockAlign);
+        header.putShort((short) blockAlign);
+        header.putShort((short) bits);
+        header.put(new byte[] {'d', 'a', 't', 'a'});
+        header.putInt((int) Math.min(0xFFFFFFFFL, dataBytes));
+        header.flip();
+        return header;
+    }
+
+    /**
+     * WAV stores 8-bit samples unsigned and wider samples little-endian,
+     * so the engine's native layout is converted on the way out.
+     */
+    static void toWavByteLayout(AudioFormat format, byte[] src, int offset, byte[] dst, int length) {
+        int bytesPerSample = (format.getSampleSizeInBits() + 7) / 8;
+        if (bytesPerSample == 1) {
+            boolean signed = format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED;
+            for (int i = 0; i < length; i++) {
+                dst[i] = signed ? (byte) (src[offset + i] + 128) : src[offset + i];
+            }
+        } else if (format.isBigEndian()) {
+            for (int i = 0; i + bytesPerSample <= length; i += bytesPerSample) {
+                for (int b = 0; b < bytesPerSample; b++) {
+                    dst[i + b] = src[offset + i + bytesPerSample - 1 - b];
+                }
+            }
+        } else {
+            System.arraycopy(src, offset, dst, 0, length);
+        }
+    }
+}
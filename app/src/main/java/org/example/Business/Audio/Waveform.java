@@ -0,0 +1,11 @@
+package org.example.Business.Audio;
+
+/**
+ * Basic waveforms available to the wavetable oscillator.
+ */
+public enum Waveform {
+    SINE,
+    SQUARE,
+    SAW,
+    TRIANGLE
+}
@@ -0,0 +1,59 @@
+package org.example.Business.Audio;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One precomputed cycle of a waveform.
+ * Tables are built once per {@link Waveform} and shared by every oscillator.
+ */
+public final class Wavetable {
+
+    // Power of two so the phase can be wrapped cheaply
+    public static final int SIZE = 4096;
+
+    private static final Map<Waveform, Wavetable> TABLES = new EnumMap<>(Waveform.class);
+
+    static {
+        for (Waveform w : Waveform.values()) {
+            TABLES.put(w, new Wavetable(w));
+        }
+    }
+
+    // SIZE + 1 entries: the last one repeats the first so interpolation never needs to wrap
+    private final float[] samples;
+
+    private Wavetable(Waveform waveform) {
+        this.samples = new float[SIZE + 1];
+        for (int i = 0; i < SIZE; i++) {
+            double t = (double) i / SIZE; // Position in the cycle [0, 1)
+            samples[i] = (float) value(waveform, t);
+        }
+        samples[SIZE] = samples[0];
+    }
+
+    public static Wavetable of(Waveform waveform) {
+        return TABLES.get(waveform);
+    }
+
+    /**
+     * Raw table, SIZE + 1 entries in [-1, 1]. Must not be modified.
+     */
+    float[] samples() {
+        return samples;
+    }
+
+    private static double value(Waveform waveform, double t) {
+        switch (waveform) {
+            case SQUARE:
+                return t < 0.5 ? 1.0 : -1.0;
+            case SAW:
+                return 2.0 * t - 1.0;
+            case TRIANGLE:
+                return t < 0.5 ? 4.0 * t - 1.0 : 3.0 - 4.0 * t;
+            case SINE:
+            default:
+                return Math.sin(2.0 * Math.PI * t);
+        }
+    }
+}
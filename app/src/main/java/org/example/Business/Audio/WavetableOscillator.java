@@ -0,0 +1,62 @@
+package org.example.Business.Audio;
+
+/**
+ * Oscillator that reads a {@link Wavetable} with a phase accumulator and linear interpolation.
+ * The phase is kept between calls, so consecutive notes join without a discontinuity (no clicks)
+ * and no trigonometry is evaluated per sample.
+ */
+public class WavetableOscillator implements Oscillator {
+
+    // The phase is a 32-bit fixed-point fraction of a cycle that wraps by integer overflow:
+    // the top INDEX_BITS select the table entry, the remaining bits interpolate between entries.
+    private static final int INDEX_BITS = Integer.numberOfTrailingZeros(Wavetable.SIZE);
+    private static final int FRAC_BITS = 32 - INDEX_BITS;
+    private static final int FRAC_MASK = (1 << FRAC_BITS) - 1;
+    private static final float FRAC_SCALE = 1f / (1 << FRAC_BITS);
+    private static final double CYCLE = 4294967296.0; // 2^32
+
+    private final float sampleRate;
+    private Wavetable table;
+    private int phase;
+
+    public WavetableOscillator(Waveform waveform, float sampleRate) {
+        this.table = Wavetable.of(waveform);
+        this.sampleRate = sampleRate;
+    }
+
+    public void setWaveform(Waveform waveform) {
+        this.table = Wavetable.of(waveform);
+    }
+
+    /**
+     * Generates samples in [-1, 1] for the given frequency, continuing from the current phase.
+     */
+    @Override
+    public void render(double freq, float[] out, int offset, int length) {
+        int increment = phaseIncrement(freq);
+        renderBlock(table.samples(), phase, increment, out, offset, length);
+        phase += length * increment;
+    }
+
+    // Each sample's phase is derived from the loop index, so iterations are independent
+    private static void renderBlock(float[] t, int start, int increment, float[] out, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            int p = start + i * increment;
+            int index = p >>> FRAC_BITS;
+            float frac = (p & FRAC_MASK) * FRAC_SCALE;
+            float a = t[index];
+            out[offset + i] = a + frac * (t[index + 1] - a);
+        }
+    }
+
+    @Override
+    public void reset() {
+        phase = 0;
+    }
+
+    // Fraction of a cycle advanced per sample, in 2^-32 units (wraps for frequencies above the sample rate)
+    private int phaseIncrement(double freq) {
+        double cycles = freq / sampleRate;
+        return (int) (long) ((cycles - Math.floor(cycles)) * CYCLE);
+    }
+}
@@ -0,0 +1,258 @@
+package org.example.Business.Managers;
+
+import org.example.Business.Audio.OutputFormat;
+import org.example.Business.Model.Playlist;
+import org.example.Business.Model.Song;
+import org.example.CustomExceptions.AudioOutputException;
+import org.example.CustomExceptions.EmptyJsonFileException;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exports many songs or playlists to WAV files in parallel.
+ * Each song is an independent render on a virtual thread; a semaphore limits how many run at once,
+ * both to the number of cores and to a memory budget, so synthesis scales with the cores
+ * without oversubscribing them.
+ *
+ * Every file is rendered under a temporary name and only moved into place once it is complete,
+ * so a failed export never leaves a truncated WAV behind.
+ */
+public class BatchExporter {
+
+    public static final long DEFAULT_MEMORY_BUDGET_BYTES = 256L * 1024 * 1024;
+
+    /**
+     * Receives a call after every exported file (from the worker threads).
+     */
+    public interface ProgressListener {
+        void onExported(String name, int done, int total, long bytes);
+    }
+
+    private final OfflineRenderer renderer;
+    private final int concurrency;
+
+    public BatchExporter() {
+        this(new OfflineRenderer(), Runtime.getRuntime().availableProcessors(), DEFAULT_MEMORY_BUDGET_BYTES);
+    }
+
+    /**
+     * @param parallelism Maximum renders running at the same time (normally the number of cores).
+     * @param memoryBudgetBytes Memory the renders in flight may use together.
+     */
+    public BatchExporter(OfflineRenderer renderer, int parallelism, long memoryBudgetBytes) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.renderer = renderer;
+        long byMemory = Math.max(1, memoryBudgetBytes / renderer.workingSetBytes());
+        this.concurrency = (int) Math.min(parallelism, byMemory);
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Writes one WAV file per playable song into {@code dir}.
+     */
+    public Report exportSongs(List<Song> songs, Path dir, ProgressListener listener) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        for (Song s : songs) {
+            if (s != null && s.isPlayable() && s.hasNotes()) {
+                jobs.add(new Job(fileName(s.getId(), s.getTitle()), List.of(s)));
+            }
+        }
+        return run(jobs, dir, listener);
+    }
+
+    /**
+     * Writes one WAV file per song of the whole library.
+     */
+    public Report exportLibrary(LibraryManager libraryManager, Path dir, ProgressListener listener)
+            throws IOException, EmptyJsonFileException {
+        return exportSongs(libraryManager.getAllSongs(), dir, listener);
+    }
+
+    /**
+     * Writes one WAV file per playlist, with its playable songs concatenated in order.
+     * Playlists without any playable song are skipped and listed in the report.
+     */
+    public Report exportPlaylists(List<Playlist> playlists, LibraryManager libraryManager, Path dir,
+                                  ProgressListener listener) throws IOException, EmptyJsonFileException {
+        // Resolve every ID against one library snapshot instead of a lookup per song
+        Map<Integer, Song> library = new HashMap<>();
+        for (Song s : libraryManager.getAllSongs()) {
+            library.put(s.getId(), s);
+        }
+
+        List<Job> jobs = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        for (Playlist p : playlists) {
+            List<Song> songs = new ArrayList<>();
+            for (int id : p.getSongIds()) {
+                Song s = library.get(id);
+                if (s != null && s.isPlayable() && s.hasNotes()) {
+                    songs.add(s);
+                }
+            }
+            String fileName = fileName(p.getId(), p.getName());
+            if (songs.isEmpty()) {
+                skipped.add(fileName + ": " + (p.getSongIds().isEmpty() ? "the playlist is empty" : "no playable songs"));
+            } else {
+                jobs.add(new Job(fileName, songs));
+            }
+        }
+        return run(jobs, skipped, dir, listener);
+    }
+
+    private Report run(List<Job> jobs, Path dir, ProgressListener listener) throws IOException {
+        return run(jobs, List.of(), dir, listener);
+    }
+
+    private Report run(List<Job> jobs, List<String> skipped, Path dir, ProgressListener listener) throws IOException {
+        Files.createDirectories(dir);
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicInteger done = new AtomicInteger();
+        AtomicLong bytes = new AtomicLong();
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Job job : jobs) {
+                futures.add(executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    Path temp = dir.resolve(job.fileName + ".part");
+                    try {
+                        long written = renderer.renderSongs(job.songs, temp);
+                        moveIntoPlace(temp, dir.resolve(job.fileName));
+                        bytes.addAndGet(written);
+                        int n = done.incrementAndGet();
+                        if (listener != null) {
+                            listener.onExported(job.fileName, n, jobs.size(), written);
+                        }
+                    } catch (AudioOutputException | IOException | RuntimeException e) {
+                        failures.add(job.fileName + ": " + e.getMessage());
+                        deleteQuietly(temp);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    executor.shutdownNow();
+                    break;
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause().getMessage());
+                }
+            }
+        }
+
+        OutputFormat format = renderer.getFormat();
+        double audioSeconds = (double) bytes.get() / format.getFrameSize() / format.getSampleRate();
+        return new Report(done.get(), failures, skipped, bytes.get(), audioSeconds, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void moveIntoPlace(Path temp, Path file) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Nothing else to do; the partial file keeps its temporary name
+        }
+    }
+
+    // "<id>-<title>.wav", keeping only characters that are safe in file names
+    static String fileName(int id, String title) {
+        String safe = title == null ? "" : title.replaceAll("[^A-Za-z0-9._-]+", "_");
+        return id + (safe.isEmpty() ? "" : "-" + safe) + ".wav";
+    }
+
+    private static class Job {
+        final String fileName;
+        final List<Song> songs;
+
+        Job(String fileName, List<Song> songs) {
+            this.fileName = fileName;
+            this.songs = songs;
+        }
+    }
+
+    /**
+     * Outcome and throughput of a batch export.
+     */
+    public static class Report {
+        private final int exported;
+        private final List<String> failures;
+        private final List<String> skipped;
+        private final long bytes;
+        private final double audioSeconds;
+        private final double wallSeconds;
+
+        Report(int exported, List<String> failures, List<String> skipped, long bytes, double audioSeconds,
+               double wallSeconds) {
+            this.exported = exported;
+            this.failures = new ArrayList<>(failures);
+            this.skipped = new ArrayList<>(skipped);
+            this.bytes = bytes;
+            this.audioSeconds = audioSeconds;
+            this.wallSeconds = wallSeconds;
+        }
+
+        public int getExported() { return exported; }
+        public List<String> getFailures() { return failures; }
+
+        /**
+         * Files not written because there was nothing to play in them, each with the reason.
+         */
+        public List<String> getSkipped() { return skipped; }
+        public long getBytes() { return bytes; }
+        public double getAudioSeconds() { return audioSeconds; }
+        public double getWallSeconds() { return wallSeconds; }
+
+        /**
+         * Seconds of audio rendered per second of wall time.
+         */
+        public double getRealTimeFactor() {
+            return wallSeconds == 0 ? 0 : audioSeconds / wallSeconds;
+        }
+
+        public double getMegabytesPerSecond() {
+            return wallSeconds == 0 ? 0 : bytes / 1e6 / wallSeconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d files, %d failed, %d skipped, %.1f MB, %.1f s of audio in %.2f s (%.0fx real time, %.1f MB/s)",
+                    exported, failures.size(), skipped.size(), bytes / 1e6, audioSeconds, wallSeconds,
+                    getRealTimeFactor(), getMegabytesPerSecond());
+        }
+    }
+}
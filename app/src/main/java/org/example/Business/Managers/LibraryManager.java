@@ -10,48 +10,138 @@ import org.example.CustomExceptions.SongNotFoundException;
 import org.example.CustomExceptions.SongNotFoundInPlaylistException;
 import org.example.Persistence.*;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
 
-public class LibraryManager {
+/**
+ * Library operations over an in-memory repository loaded once at startup.
+ * Lookups and listings never read the JSON files; changes are saved in the background
+ * (see {@link LibraryRepository}) and {@link #close()} saves whatever is still pending.
+ *
+ * The save interval and threshold can be set with -Dsoundplayer.flushIntervalMs and
+ * -Dsoundplayer.flushThreshold. Changes go to an append-only journal next to the JSON files,
+ * folded into them once it passes -Dsoundplayer.journalMaxBytes; -Dsoundplayer.journal=false
+ * rewrites the JSON files on every save instead. The files are written compact; -Dsoundplayer.prettyJson=true
+ * indents them.
+ *
+ * -Dsoundplayer.storage=binary keeps the library in memory-mapped binary snapshots (files/songs.bin,
+ * files/playlists.bin) instead of the JSON files; the first start imports the JSON files if the snapshots
+ * do not exist yet. To go back, write JSON files with {@link #exportJson} first: the journal is folded into
+ * whichever storage is in use. Binary storage needs a POSIX system (Linux, macOS); on Windows the library
+ * refuses to open with it.
+ */
+public class LibraryManager implements AutoCloseable {
 
-    private final SongsDAO songsDAO;
-    private final PlaylistsDAO playlistsDAO;
+    private final LibraryRepository repository;
 
-    private List<Song> allSongs;
+    // Notified with the song ID whenever a song is edited or deleted (e.g. to invalidate rendered audio)
+    private final List<IntConsumer> songChangeListeners = new ArrayList<>();
 
     public LibraryManager() throws IOException {
-        this.songsDAO = new JsonSongsDAO();
-        this.playlistsDAO = new JsonPlaylistsDAO();
+        this(defaultSongsDAO(), defaultPlaylistsDAO(),
+                Long.getLong("soundplayer.flushIntervalMs", LibraryRepository.DEFAULT_FLUSH_INTERVAL_MS),
+                Integer.getInteger("soundplayer.flushThreshold", LibraryRepository.DEFAULT_FLUSH_THRESHOLD),
+                Boolean.parseBoolean(System.getProperty("soundplayer.journal", "true")) ? new LibraryJournal() : null,
+                Long.getLong("soundplayer.journalMaxBytes", LibraryRepository.DEFAULT_JOURNAL_MAX_BYTES));
+    }
+
+    public LibraryManager(SongsDAO songsDAO, PlaylistsDAO playlistsDAO, long flushIntervalMs, int flushThreshold)
+            throws IOException {
+        this(songsDAO, playlistsDAO, flushIntervalMs, flushThreshold, null, LibraryRepository.DEFAULT_JOURNAL_MAX_BYTES);
+    }
+
+    /**
+     * @param journal Journal for the changes, or null to rewrite the JSON files on every save.
+     */
+    public LibraryManager(SongsDAO songsDAO, PlaylistsDAO playlistsDAO, long flushIntervalMs, int flushThreshold,
+                          LibraryJournal journal, long journalMaxBytes) throws IOException {
+        try {
+            this.repository = new LibraryRepository(songsDAO, playlistsDAO, flushIntervalMs, flushThreshold,
+                    journal, journalMaxBytes);
+        } catch (EmptyJsonFileException e) {
+            throw new IOException("Error loading the library: " + e.getMessage(), e);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static boolean binaryStorage() {
+        return "binary".equals(System.getProperty("soundplayer.storage", "json"));
+    }
+
+    private static SongsDAO defaultSongsDAO() throws IOException {
+        Path json = Path.of(JsonSongsDAO.DEFAULT_PATH);
+        if (!binaryStorage()) {
+            return new JsonSongsDAO(json, Boolean.getBoolean("soundplayer.prettyJson"));
+        }
+        BinarySongsDAO dao = new BinarySongsDAO();
+        if (!Files.exists(dao.getPath()) && Files.exists(json)) {
+            try {
+                dao.importJson(json);
+            } catch (EmptyJsonFileException e) {
+                throw new IOException("Error importing " + json + ": " + e.getMessage(), e);
+            }
+        }
+        return dao;
+    }
+
+    private static PlaylistsDAO defaultPlaylistsDAO() throws IOException {
+        Path json = Path.of(JsonPlaylistsDAO.DEFAULT_PATH);
+        if (!binaryStorage()) {
+            return new JsonPlaylistsDAO(json, Boolean.getBoolean("soundplayer.prettyJson"));
+        }
+        BinaryPlaylistsDAO dao = new BinaryPlaylistsDAO();
+        if (!Files.exists(dao.getPath()) && Files.exists(json)) {
+            try {
+                dao.importJson(json);
+            } catch (EmptyJsonFileException e) {
+                throw new IOException("Error importing " + json + ": " + e.getMessage(), e);
+            }
+        }
+        return dao;
+    }
+
+    public void addSongChangeListener(IntConsumer listener) {
+        songChangeListeners.add(listener);
+    }
+
+    private void fireSongChanged(int songId) {
+        for (IntConsumer listener : songChangeListeners) {
+            listener.accept(songId);
+        }
     }
 
     public List<Song> getAllSongs() throws EmptyJsonFileException {
-        return songsDAO.loadAll();
+        return repository.getSongs();
     }
 
     public Song getSongById(int id) throws EmptyJsonFileException {
-        return songsDAO.loadAll().stream()
-                .filter(s -> s.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return repository.getSong(id);
     }
 
     public void addSong(Song song) throws EmptyJsonFileException, IOException {
-        List<Song> allSongs = this.songsDAO.loadAll();
-        allSongs.add(song);
-        songsDAO.saveAll(allSongs);
+        repository.addSong(song);
     }
 
-    public void deleteSong(int id) throws EmptyJsonFileException, IOException, SongInUseException, NotFoundException {
-        boolean isUsed = playlistsDAO.loadAll().stream()
-                .anyMatch(p -> p.getSongIds().contains(id));
+    /**
+     * Adds several songs as one change, instead of one change per song.
+     */
+    public void addSongs(List<Song> songs) throws EmptyJsonFileException, IOException {
+        if (songs.isEmpty()) return;
+        repository.addSongs(songs);
+    }
 
-        if (isUsed) {
+    public void deleteSong(int id) throws EmptyJsonFileException, IOException, SongInUseException, NotFoundException {
+        if (repository.isSongInAnyPlaylist(id)) {
             throw new SongInUseException();
         }
 
-        boolean removed = allSongs.removeIf(s -> s.getId() == id);
-        if (removed) {
-            songsDAO.saveAll(allSongs); 
+        if (repository.removeSong(id)) {
+            fireSongChanged(id);
         } else {
             throw new SongNotFoundException();
         }
@@ -61,9 +151,11 @@ public class LibraryManager {
      * Removes a specific song from a playlist and saves the changes.
      */
     public void removeSongFromPlaylist(int playlistId, int songId) throws IOException, NotFoundException {
-        Playlist playlist = getPlaylistById(playlistId);
+        Playlist stored = getPlaylistById(playlistId);
         
-        if (playlist != null) {
+        if (stored != null) {
+            // Edit a copy: the stored playlist may be being written in the background
+            Playlist playlist = stored.copy();
             // CAST IS CRITICAL: remove(Object) vs remove(int index)
             // We want to remove the object (the ID value), not the index.
             boolean removed = playlist.getSongIds().remove((Integer) songId);
@@ -80,49 +172,26 @@ public class LibraryManager {
 
     /**
      * Updates an existing song.
-     * Replaces the song with the matching ID and saves the changes to the JSON file.
+     * Replaces the song with the matching ID; the change is saved in the background.
      */
     public void updateSong(Song updatedSong) throws EmptyJsonFileException, NotFoundException, IOException {
-        // 1. Load the most current list of songs
-        List<Song> currentSongs = songsDAO.loadAll();
-        
-        boolean found = false;
-        
-        // 2. Iterate to find the song by ID
-        for (int i = 0; i < currentSongs.size(); i++) {
-            if (currentSongs.get(i).getId() == updatedSong.getId()) {
-                // 3. Replace the old object with the new one
-                currentSongs.set(i, updatedSong);
-                found = true;
-                break;
-            }
-        }
-
-        // 4. Save changes if the song was found
-        if (found) {
-            songsDAO.saveAll(currentSongs);
-            // Update internal cache if you are using it
-            this.allSongs = currentSongs; 
+        if (repository.updateSong(updatedSong)) {
+            fireSongChanged(updatedSong.getId());
         } else {
             throw new SongNotFoundException();
         }
     }
 
     public List<Playlist> getAllPlaylists() {
-        return playlistsDAO.loadAll();
+        return repository.getPlaylists();
     }
 
     public Playlist getPlaylistById(int id) {
-        return this.playlistsDAO.loadAll().stream()
-                .filter(p -> p.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return repository.getPlaylist(id);
     }
 
     public void createPlaylist(Playlist p) throws IOException {
-        List<Playlist> allPlaylists = this.playlistsDAO.loadAll();
-        allPlaylists.add(p);
-        playlistsDAO.saveAll(allPlaylists);
+        repository.addPlaylist(p);
     }
 
     /**
@@ -136,50 +205,53 @@ public class LibraryManager {
             throw new SongNotFoundException();
         }
 
-        Playlist playlist = getPlaylistById(playlistId);
-        if (playlist == null) {
+        Playlist stored = getPlaylistById(playlistId);
+        if (stored == null) {
             throw new PlaylistNotFoundException();
         }
 
-        // Add ID and save
+        // Add ID to a copy and save it in place of the stored playlist
+        Playlist playlist = stored.copy();
         playlist.addSong(song);
         updatePlaylist(playlist);
     }
 
     /**
      * Updates the metadata (Name, Description) of an existing playlist.
-     * Replaces the object in the list and persists changes.
+     * Replaces the object in the list; the change is saved in the background.
      */
     public void updatePlaylist(Playlist updatedPlaylist) throws IOException, NotFoundException {
-        // 1. Ensure we have the list loaded
-        List<Playlist> allPlaylists = playlistsDAO.loadAll();
-
-        boolean found = false;
-
-        // 2. Iterate to find the playlist by ID
-        for (int i = 0; i < allPlaylists.size(); i++) {
-            if (allPlaylists.get(i).getId() == updatedPlaylist.getId()) {
-                // 3. Replace the old object with the new one
-                // This updates Name, Description, and SongIds all at once
-                allPlaylists.set(i, updatedPlaylist);
-                found = true;
-                break;
-            }
-        }
-
-        // 4. Save changes
-        if (found) {
-            playlistsDAO.saveAll(allPlaylists);
-        } else {
+        if (!repository.updatePlaylist(updatedPlaylist)) {
             throw new PlaylistNotFoundException();
         }
     }
 
     public void deletePlaylist(int id) throws IOException {
-        List<Playlist> playlists = playlistsDAO.loadAll();
-        boolean removed = playlists.removeIf(p -> p.getId() == id);
-        if (removed) {
-            playlistsDAO.saveAll(playlists);
-        }
+        repository.removePlaylist(id);
+    }
+
+    /**
+     * Writes the whole library, pending changes included, as JSON files in the format of
+     * files/songs.json and files/playlists.json.
+     */
+    public void exportJson(Path songsFile, Path playlistsFile) throws IOException {
+        boolean pretty = Boolean.getBoolean("soundplayer.prettyJson");
+        new JsonSongsDAO(songsFile, pretty).saveAll(repository.getSongs());
+        new JsonPlaylistsDAO(playlistsFile, pretty).saveAll(repository.getPlaylists());
+    }
+
+    /**
+     * Saves the pending changes now.
+     */
+    public void flush() throws IOException {
+        repository.flush();
+    }
+
+    /**
+     * Saves the pending changes and stops the background saves. Call it before exiting.
+     */
+    @Override
+    public void close() throws IOException {
+        repository.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package org.example.Business.Managers;
+
+import org.example.Business.Midi.MidiReader;
+import org.example.Business.Midi.MidiWriter;
+import org.example.Business.Model.Song;
+import org.example.CustomExceptions.EmptyJsonFileException;
+import org.example.CustomExceptions.MidiFormatException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Imports MIDI files into the library and exports songs as MIDI.
+ * A directory import parses its files in parallel, one virtual thread per file with at most one parse
+ * per core running at once, and adds every song to the library with a single save.
+ */
+public class MidiImporter {
+
+    private final LibraryManager libraryManager;
+    private final int parallelism;
+
+    public MidiImporter(LibraryManager libraryManager) {
+        this(libraryManager, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MidiImporter(LibraryManager libraryManager, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.libraryManager = libraryManager;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Imports one MIDI file as a new song.
+     */
+    public Song importFile(Path file) throws IOException, MidiFormatException, EmptyJsonFileException {
+        Song song = MidiReader.readSong(file, nextSongId());
+        libraryManager.addSong(song);
+        return song;
+    }
+
+    /**
+     * Imports every .mid/.midi file under {@code dir}, in file name order. Files that cannot be parsed
+     * are reported and skipped; the others are saved together.
+     */
+    public Report importDirectory(Path dir) throws IOException, EmptyJsonFileException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            files = walk.filter(Files::isRegularFile).filter(MidiImporter::isMidiFile).sorted().toList();
+        }
+
+        long start = System.nanoTime();
+        Semaphore permits = new Semaphore(parallelism);
+        List<Future<Song>> futures = new ArrayList<>();
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Path file : files) {
+                futures.add(executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        return MidiReader.readSong(file, 0);
+                    } catch (IOException | MidiFormatException | RuntimeException e) {
+                        failures.add(dir.relativize(file) + ": " + e.getMessage());
+                        return null;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            // IDs follow file order whatever order the parses finish in, skipping the failed files
+            List<Song> songs = new ArrayList<>();
+            int nextId = nextSongId();
+            for (Future<Song> f : futures) {
+                try {
+                    Song s = f.get();
+                    if (s != null) {
+                        s.setId(nextId++);
+                        songs.add(s);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    executor.shutdownNow();
+                    throw new IOException("MIDI import interrupted", e);
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause().getMessage());
+                }
+            }
+            double parseSeconds = (System.nanoTime() - start) / 1e9;
+            libraryManager.addSongs(songs);
+            return new Report(songs, failures, parseSeconds);
+        }
+    }
+
+    public void exportSong(Song song, Path file) throws IOException {
+        MidiWriter.write(song, file);
+    }
+
+    private int nextSongId() throws EmptyJsonFileException {
+        int max = 0;
+        for (Song s : libraryManager.getAllSongs()) {
+            max = Math.max(max, s.getId());
+        }
+        return max + 1;
+    }
+
+    private static boolean isMidiFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".mid") || name.endsWith(".midi");
+    }
+
+    /**
+     * Songs imported from a directory and the files that failed.
+     */
+    public static class Report {
+        private final List<Song> imported;
+        private final List<String> failures;
+        private final double parseSeconds;
+
+        Report(List<Song> imported, List<String> failures, double parseSeconds) {
+            this.imported = imported;
+            this.failures = new ArrayList<>(failures);
+            this.parseSeconds = parseSeconds;
+        }
+
+        public List<Song> getImported() { return imported; }
+        public List<String> getFailures() { return failures; }
+        public double getParseSeconds() { return parseSeconds; }
+
+        @Override
+        public String toString() {
+            int notes = 0;
+            for (Song s : imported) notes += s.getNotes().size();
+            return String.format("%d songs (%d notes) imported, %d failed, parsed in %.2f s",
+                    imported.size(), notes, failures.size(), parseSeconds);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.Business.Managers;
+
+import org.example.Business.Audio.NoteRenderer;
+import org.example.Business.Audio.OutputFormat;
+import org.example.Business.Audio.SoundSynth;
+import org.example.Business.Audio.SoundSynthSinus;
+import org.example.Business.Audio.VoiceMixer;
+import org.example.Business.Audio.WavAudioSink;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.NoteView;
+import org.example.Business.Model.Playlist;
+import org.example.Business.Model.Song;
+import org.example.CustomExceptions.AudioOutputException;
+import org.example.CustomExceptions.EmptyJsonFileException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Renders songs and playlists to WAV as fast as the CPU allows, without a sound device.
+ * Audio is streamed block by block, so memory use does not depend on the length of the song.
+ * Each render uses its own synthesizer, so one renderer can be shared between threads.
+ */
+public class OfflineRenderer {
+
+    // Silence between the songs of a rendered playlist, same as live playback
+    public static final int DEFAULT_GAP_MS = 1000;
+
+    private static final int BLOCK_SAMPLES = 4096;
+    private static final NoteView NO_NOTES = new NoteSequence();
+    private static final int OUTPUT_BUFFER_BYTES = 64 * 1024;
+
+    private final Supplier<SoundSynth> synthFactory;
+    private final int gapMs;
+
+    public OfflineRenderer() {
+        this(OutputFormat.DEFAULT);
+    }
+
+    /**
+     * Renders with the default synth into the given format (e.g. 24-bit stereo at 96 kHz).
+     */
+    public OfflineRenderer(OutputFormat format) {
+        this(() -> {
+            SoundSynth synth = new SoundSynthSinus();
+            synth.setFormat(format);
+            return synth;
+        }, DEFAULT_GAP_MS);
+    }
+
+    public OfflineRenderer(Supplier<SoundSynth> synthFactory, int gapMs) {
+        this.synthFactory = synthFactory;
+        this.gapMs = gapMs;
+    }
+
+    public OutputFormat getFormat() {
+        return synthFactory.get().getFormat();
+    }
+
+    /**
+     * Renders a song into a WAV file.
+     *
+     * @return Number of PCM bytes written.
+     */
+    public long renderSong(Song s, Path file) throws AudioOutputException {
+        return renderSongs(List.of(s), file);
+    }
+
+    /**
+     * Renders a song as a complete WAV stream. The stream is flushed but not closed.
+     *
+     * @return Number of PCM bytes written.
+     */
+    public long renderSong(Song s, OutputStream out) throws AudioOutputException {
+        return renderSongs(List.of(s), out);
+    }
+
+    /**
+     * Renders the playable songs of a playlist, in order, into a single WAV file.
+     */
+    public long renderPlaylist(Playlist p, LibraryManager libraryManager, Path file)
+            throws AudioOutputException, EmptyJsonFileException {
+        return renderSongs(resolvePlayable(p, libraryManager), file);
+    }
+
+    /**
+     * Renders the playable songs of a playlist, in order, as a single WAV stream.
+     */
+    public long renderPlaylist(Playlist p, LibraryManager libraryManager, OutputStream out)
+            throws AudioOutputException, EmptyJsonFileException {
+        return renderSongs(resolvePlayable(p, libraryManager), out);
+    }
+
+    /**
+     * Renders several songs back to back, separated by the configured gap.
+     */
+    public long renderSongs(List<Song> songs, Path file) throws AudioOutputException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), OUTPUT_BUFFER_BYTES)) {
+            return renderSongs(songs, out);
+        } catch (IOException e) {
+            throw new AudioOutputException("Cannot write " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    public long renderSongs(List<Song> songs, OutputStream out) throws AudioOutputException {
+        // The WAV header needs the final length, which is known from the notes before rendering
+        SoundSynth synth = synthFactory.get();
+        long dataBytes = dataBytes(synth, songs);
+
+        // Rendered on the calling thread straight into the sink: no real-time pacing, no hand-off thread
+        NoteRenderer renderer = new NoteRenderer(synth, VoiceMixer.DEFAULT_MAX_VOICES, BLOCK_SAMPLES);
+        byte[] block = new byte[BLOCK_SAMPLES * synth.getFormat().getFrameSize()];
+        WavAudioSink sink = new WavAudioSink(out, dataBytes);
+        sink.open(synth.getFormat().toAudioFormat());
+        try {
+            boolean first = true;
+            for (Song s : songs) {
+                NoteView notes = notesOf(s);
+                if (notes.isEmpty()) continue;
+                if (!first) {
+                    writeSilence(sink, block, synth.samplesFor(gapMs) * (long) synth.getFormat().getFrameSize());
+                }
+                renderer.start(notes, s.getTempo());
+                int n;
+                while ((n = renderer.render(block, 0, block.length)) > 0) {
+                    sink.write(block, 0, n);
+                }
+                first = false;
+            }
+        } finally {
+            sink.close();
+        }
+        return dataBytes;
+    }
+
+    /**
+     * Approximate memory one render in progress needs, used to cap concurrent batch renders.
+     */
+    public long workingSetBytes() {
+        SoundSynth synth = synthFactory.get();
+        long block = (long) BLOCK_SAMPLES * synth.getFormat().getFrameSize();
+        // PCM block + float mix and voice buffers + buffered file output
+        return 2 * block + (VoiceMixer.DEFAULT_MAX_VOICES + 1L) * BLOCK_SAMPLES * Float.BYTES + OUTPUT_BUFFER_BYTES;
+    }
+
+    private static void writeSilence(WavAudioSink sink, byte[] block, long bytes) throws AudioOutputException {
+        Arrays.fill(block, (byte) 0);
+        while (bytes > 0) {
+            int n = (int) Math.min(bytes, block.length);
+            sink.write(block, 0, n);
+            bytes -= n;
+        }
+    }
+
+    /**
+     * Exact number of PCM bytes {@link #renderSongs} produces for the given songs.
+     */
+    public long dataBytes(List<Song> songs) {
+        return dataBytes(synthFactory.get(), songs);
+    }
+
+    private long dataBytes(SoundSynth synth, List<Song> songs) {
+        long frames = 0;
+        boolean first = true;
+        for (Song s : songs) {
+            NoteView notes = notesOf(s);
+            if (notes.isEmpty()) continue;
+            if (!first) {
+                frames += synth.samplesFor(gapMs);
+            }
+            frames += synth.samplesFor(notes, s.getTempo());
+            first = false;
+        }
+        return frames * synth.getFormat().getFrameSize();
+    }
+
+    private static List<Song> resolvePlayable(Playlist p, LibraryManager libraryManager) throws EmptyJsonFileException {
+        List<Song> songs = new ArrayList<>();
+        for (int id : p.getSongIds()) {
+            Song s = libraryManager.getSongById(id);
+            if (s != null && s.isPlayable()) {
+                songs.add(s);
+            }
+        }
+        return songs;
+    }
+
+    private static NoteView notesOf(Song s) {
+        if (s == null || !s.isPlayable()) {
+            return NO_NOTES;
+        }
+        return s.getNotes();
+    }
+}
@@ -1,83 +1,194 @@
 package org.example.Business.Managers;
 
+import org.example.Business.Audio.AudioEngine;
+import org.example.Business.Audio.AudioMetrics;
+import org.example.Business.Audio.AudioSink;
+import org.example.Business.Audio.Effects.EffectChain;
+import org.example.Business.Audio.LineAudioSink;
+import org.example.Business.Audio.OutputFormat;
+import org.example.Business.Audio.RenderCache;
 import org.example.Business.Audio.SoundSynthSinus;
 import org.example.Business.Audio.SoundSynth;
-import org.example.Business.Model.Note;
 import org.example.Business.Model.Playlist;
 import org.example.Business.Model.Song;
+import org.example.CustomExceptions.EmptyJsonFileException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PlaybackManager {
 
+    // Pausa entre canciones de una playlist (se escribe como silencio, sin cerrar la línea)
+    public static final int DEFAULT_PLAYLIST_GAP_MS = 1000;
+
+    // Audio en cola entre el hilo de síntesis y el de salida, repartido en bloques
+    public static final int DEFAULT_LATENCY_MS = 200;
+    public static final int DEFAULT_BUFFER_DEPTH = 8;
+
     private final SoundSynth synth;
+    private final AudioEngine engine;
+    private final RenderCache renderCache;
+    private int playlistGapMs = DEFAULT_PLAYLIST_GAP_MS;
+
+    // Efectos de la sesión y, opcionalmente, propios de algunas canciones (leídos también por el hilo de prefetch)
+    private volatile EffectChain sessionEffects = EffectChain.DEFAULT;
+    private final Map<Integer, EffectChain> songEffects = new ConcurrentHashMap<>();
+
+    // Reproducción en segundo plano en curso (null si no hay ninguna)
+    private PlaybackSession session;
 
     public PlaybackManager() {
+        this(new LineAudioSink());
+    }
+
+    /**
+     * Permite elegir la salida de audio (tarjeta de sonido, fichero WAV o salida nula).
+     */
+    public PlaybackManager(AudioSink sink) {
+        this(sink, new RenderCache());
+    }
+
+    public PlaybackManager(AudioSink sink, RenderCache renderCache) {
+        this(sink, renderCache, OutputFormat.DEFAULT, DEFAULT_LATENCY_MS, DEFAULT_BUFFER_DEPTH);
+    }
+
+    /**
+     * @param format Formato deseado; si la salida no lo admite se usa el más parecido que sí admita.
+     * @param targetLatencyMs Audio encolado como máximo antes de llegar a la salida.
+     * @param bufferDepth Número de bloques en los que se reparte esa latencia.
+     */
+    public PlaybackManager(AudioSink sink, RenderCache renderCache, OutputFormat format,
+                           int targetLatencyMs, int bufferDepth) {
         // Inicializamos el sintetizador concreto (SinusSynth)
         this.synth = new SoundSynthSinus();
+        this.synth.setFormat(format);
+        this.engine = AudioEngine.withLatency(sink, synth, targetLatencyMs, bufferDepth);
+        this.renderCache = renderCache;
     }
 
     /**
-     * Reproduce una canción individual nota a nota.
-     [cite_start]* [cite: 108, 111, 112, 113]
+     * Caché de audio ya sintetizado. LibraryManager debe invalidarla al editar canciones.
      */
-    public void playSong(Song s) {
-        if (s == null) return;
+    public RenderCache getRenderCache() {
+        return renderCache;
+    }
 
-        System.out.println(">> Reproduciendo: " + s.getTitle() + " (" + s.getArtist() + ")");
+    /**
+     * Métricas de la salida de audio (tiempos de síntesis, llenado del buffer, underruns, latencias).
+     */
+    public AudioMetrics getMetrics() {
+        return engine.getMetrics();
+    }
 
-        if (!s.isPlayable()) {
-            System.out.println(">> [!] La canción no es reproducible (faltan datos de notas).");    // [cite: 39]
-            return;
+    /**
+     * Empieza a reproducir una canción en segundo plano y devuelve la sesión para controlarla.
+     * Si ya había una sesión sonando, se detiene antes.
+     */
+    public synchronized PlaybackSession startSong(Song s) throws InterruptedException {
+        if (s == null || !s.isPlayable() || !s.hasNotes()) {
+            throw new IllegalArgumentException("La canción no es reproducible.");
         }
+        return startSession(List.of(s));
+    }
 
-        List<Note> notes = s.getNotes();
-        if (notes == null || notes.isEmpty()) {
-            System.out.println(">> [!] No hay notas definidas para reproducir.");
-            return;
+    /**
+     * Empieza a reproducir una playlist en segundo plano; las canciones no reproducibles se saltan.
+     */
+    public synchronized PlaybackSession startPlaylist(Playlist p, LibraryManager libraryManager)
+            throws EmptyJsonFileException, InterruptedException {
+        List<Song> playable = new ArrayList<>();
+        for (int id : p.getSongIds()) {
+            Song s = libraryManager.getSongById(id);
+            if (s == null) {
+                System.out.println(">> [!] ID de canción no encontrado: " + id);
+            } else if (!s.isPlayable() || !s.hasNotes()) {
+                System.out.println(">> Saltando '" + s.getTitle() + "' (No reproducible).");
+            } else {
+                playable.add(s);
+            }
+        }
+        if (playable.isEmpty()) {
+            throw new IllegalArgumentException("La playlist no tiene canciones reproducibles.");
         }
+        return startSession(playable);
+    }
 
-        // Recorrer la secuencia de notas e invocar al sintetizador
-        for (Note n : notes) {
-            // Asumimos reproducción monofónica simple
-            synth.makeSound(n.getFrequency(), n.getDurationMs()); // [cite: 113, 119]
+    /**
+     * Sesión en segundo plano que está sonando, o null.
+     */
+    public synchronized PlaybackSession getActiveSession() {
+        return session != null && session.isActive() ? session : null;
+    }
+
+    /**
+     * Error con el que terminó la última sesión, o null si sigue sonando o terminó bien.
+     */
+    public synchronized Exception getLastError() {
+        return session != null && !session.isActive() ? session.getError() : null;
+    }
+
+    /**
+     * Detiene la sesión en segundo plano, si la hay, y espera a que libere la salida de audio.
+     */
+    public synchronized void stopSession() throws InterruptedException {
+        if (session != null) {
+            session.stop();
+            session.awaitTermination();
+            session = null;
         }
-        System.out.println(">> Fin de canción.");
+    }
+
+    private PlaybackSession startSession(List<Song> songs) throws InterruptedException {
+        stopSession();
+        engine.getMetrics().markRequest();
+        session = new PlaybackSession(engine, synth, renderCache, songs, this::getEffectsFor, playlistGapMs);
+        session.start();
+        return session;
     }
 
     /**
-     * Reproduce una playlist completa.
-     * Requiere LibraryManager para resolver los IDs de las canciones.
-     [cite_start]* [cite: 114, 115, 116]
+     * Pausa entre canciones de una playlist; 0 para reproducción continua (gapless).
      */
-    public void playPlaylist(Playlist p, LibraryManager libraryManager) throws Exception {
-        if (p == null) return;
+    public void setPlaylistGapMs(int playlistGapMs) {
+        if (playlistGapMs < 0) {
+            throw new IllegalArgumentException("La pausa no puede ser negativa: " + playlistGapMs);
+        }
+        this.playlistGapMs = playlistGapMs;
+    }
 
-        System.out.println("\n>> Iniciando Playlist: " + p.getName());
-        List<Integer> songIds = p.getSongIds();
+    public int getPlaylistGapMs() {
+        return playlistGapMs;
+    }
 
-        if (songIds.isEmpty()) {
-            System.out.println(">> La playlist está vacía.");
-            return;
+    /**
+     * Efectos (envolvente, filtros, ganancia/panorama, eco, reverberación) para todas las canciones
+     * de esta sesión que no tengan unos propios.
+     */
+    public void setSessionEffects(EffectChain effects) {
+        if (effects == null) {
+            throw new IllegalArgumentException("La cadena de efectos no puede ser null; usa EffectChain.NONE.");
         }
+        this.sessionEffects = effects;
+    }
 
-        for (int id : songIds) {
-            Song s = libraryManager.getSongById(id);
-            
-            if (s != null) {
-                // Solo reproduce aquellas que son PLAYABLE
-                if (s.isPlayable()) { // [cite: 117]
-                    playSong(s);
-                    
-                    // Pequeña pausa entre canciones para que no suene todo seguido
-                    try { Thread.sleep(1000); } catch (InterruptedException e) {}
-                } else {
-                    System.out.println(">> Saltando '" + s.getTitle() + "' (No reproducible).");
-                }
-            } else {
-                System.out.println(">> [!] ID de canción no encontrado: " + id);
-            }
+    public EffectChain getSessionEffects() {
+        return sessionEffects;
+    }
+
+    /**
+     * Efectos propios de una canción; con null vuelve a usar los de la sesión.
+     */
+    public void setSongEffects(int songId, EffectChain effects) {
+        if (effects == null) {
+            songEffects.remove(songId);
+        } else {
+            songEffects.put(songId, effects);
         }
-        System.out.println(">> Fin de Playlist.");
     }
-}
\ No newline at end of file
+
+    public EffectChain getEffectsFor(int songId) {
+        return songEffects.getOrDefault(songId, sessionEffects);
+    }
+}
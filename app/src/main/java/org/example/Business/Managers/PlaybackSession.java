@@ -0,0 +1,316 @@
+package org.example.Business.Managers;
+
+import org.example.Business.Audio.AudioEngine;
+import org.example.Business.Audio.Effects.EffectChain;
+import org.example.Business.Audio.NoteRenderer;
+import org.example.Business.Audio.RenderCache;
+import org.example.Business.Audio.SoundSynth;
+import org.example.Business.Audio.SoundSynthSinus;
+import org.example.Business.Audio.VoiceMixer;
+import org.example.Business.Model.NoteView;
+import org.example.Business.Model.Song;
+import org.example.Business.Model.TempoMap;
+import org.example.CustomExceptions.AudioOutputException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.IntFunction;
+
+/**
+ * Reproducción en segundo plano de una lista de canciones (una canción suelta o una playlist).
+ * Corre en su propio hilo virtual y atiende órdenes (pausa, seguir, parar, siguiente, anterior, saltar)
+ * entre bloque y bloque de audio, así que la consola sigue respondiendo mientras suena.
+ *
+ * Las canciones ya sintetizadas suenan desde la {@link RenderCache}; las demás se sintetizan mientras
+ * suenan y, si se escuchan enteras, se guardan en ella. Mientras suena una canción, la siguiente se
+ * sintetiza en otro hilo y se deja en la caché, de modo que el cambio de canción es exacto a nivel de muestra.
+ *
+ * Los métodos de control solo encolan la orden y vuelven al momento; se pueden llamar desde cualquier hilo.
+ */
+public class PlaybackSession {
+
+    public enum State { PLAYING, PAUSED, STOPPED }
+
+    // Con "anterior" pasados estos segundos se vuelve al principio de la canción actual, como en cualquier reproductor
+    private static final int RESTART_THRESHOLD_MS = 3000;
+
+    private enum Type { PAUSE, RESUME, STOP, NEXT, PREVIOUS, SEEK }
+
+    private static final class Command {
+        final Type type;
+        final long ms;
+
+        Command(Type type, long ms) {
+            this.type = type;
+            this.ms = ms;
+        }
+    }
+
+    // Qué hacer al terminar (o abandonar) la canción actual
+    private enum Outcome { NEXT, PREVIOUS, RESTART, STOP }
+
+    private final AudioEngine engine;
+    private final SoundSynth synth;
+    private final RenderCache renderCache;
+    private final List<Song> songs;
+    private final IntFunction<EffectChain> effects;
+    private final int gapMs;
+    private final BlockingQueue<Command> commands = new LinkedBlockingQueue<>();
+
+    private volatile State state = State.PLAYING;
+    private volatile Song currentSong;
+    private volatile long positionSamples;
+    private volatile long totalSamples;
+    private volatile Exception error;
+    private Thread thread;
+
+    // Síntesis anticipada de la siguiente canción (solo la usa el hilo de la sesión)
+    private ExecutorService prefetcher;
+    private SoundSynth prefetchSynth;
+    private NoteRenderer prefetchRenderer;
+    private Future<?> prefetched;
+    private int prefetchedIndex = -1;
+
+    /**
+     * @param songs Canciones reproducibles, en orden.
+     * @param effects Efectos de cada canción según su ID.
+     * @param gapMs Silencio entre canciones.
+     */
+    PlaybackSession(AudioEngine engine, SoundSynth synth, RenderCache renderCache, List<Song> songs,
+                    IntFunction<EffectChain> effects, int gapMs) {
+        this.engine = engine;
+        this.synth = synth;
+        this.renderCache = renderCache;
+        this.songs = new ArrayList<>(songs);
+        this.effects = effects;
+        this.gapMs = gapMs;
+    }
+
+    void start() {
+        thread = Thread.ofVirtual().name("playback-session").start(this::run);
+    }
+
+    // --- Órdenes ---
+
+    public void pause() { commands.add(new Command(Type.PAUSE, 0)); }
+    public void resume() { commands.add(new Command(Type.RESUME, 0)); }
+    public void stop() { commands.add(new Command(Type.STOP, 0)); }
+    public void next() { commands.add(new Command(Type.NEXT, 0)); }
+    public void previous() { commands.add(new Command(Type.PREVIOUS, 0)); }
+
+    /**
+     * Salta a un instante de la canción actual, en milisegundos desde su inicio.
+     */
+    public void seek(long positionMs) {
+        if (positionMs < 0) {
+            throw new IllegalArgumentException("La posición no puede ser negativa: " + positionMs);
+        }
+        commands.add(new Command(Type.SEEK, positionMs));
+    }
+
+    public void togglePause() {
+        if (state == State.PAUSED) resume();
+        else pause();
+    }
+
+    /**
+     * Espera a que la sesión termine (fin de la lista o {@link #stop()}).
+     */
+    public void awaitTermination() throws InterruptedException {
+        thread.join();
+    }
+
+    // --- Estado ---
+
+    public State getState() { return state; }
+    public boolean isActive() { return state != State.STOPPED; }
+    public Song getCurrentSong() { return currentSong; }
+
+    /**
+     * Error que terminó la sesión antes de tiempo, o null.
+     */
+    public Exception getError() { return error; }
+
+    /**
+     * Posición de la canción actual en milisegundos (lo ya sintetizado; lo que suena va unos ms por detrás).
+     */
+    public long getPositionMs() { return toMs(positionSamples); }
+    public long getDurationMs() { return toMs(totalSamples); }
+
+    // --- Hilo de la sesión ---
+
+    private void run() {
+        try {
+            engine.open();
+            int index = 0;
+            boolean first = true;
+            while (index >= 0 && index < songs.size()) {
+                if (!first && gapMs > 0) {
+                    engine.playSilence(gapMs);
+                }
+                first = false;
+
+                awaitPrefetch(index);
+                prefetch(index + 1);
+                Outcome outcome = playSong(songs.get(index));
+                if (outcome == Outcome.STOP) break;
+                if (outcome == Outcome.NEXT) index++;
+                else if (outcome == Outcome.PREVIOUS) index = Math.max(0, index - 1);
+                // RESTART: misma canción desde el principio
+            }
+            engine.close();
+        } catch (AudioOutputException e) {
+            error = e;
+            System.err.println("Error de Audio: " + e.getMessage());
+            closeQuietly();
+        } catch (RuntimeException e) {
+            // Notas que no se pueden sintetizar o que no se pudieron leer del disco
+            error = e;
+            System.err.println("Error reproduciendo " + (currentSong != null ? "'" + currentSong.getTitle() + "'" : "la lista")
+                    + ": " + e.getMessage());
+            closeQuietly();
+        } catch (InterruptedException e) {
+            closeQuietly();
+            Thread.currentThread().interrupt();
+        } finally {
+            if (prefetcher != null) {
+                prefetcher.shutdownNow();
+            }
+            currentSong = null;
+            state = State.STOPPED;
+        }
+    }
+
+    private Outcome playSong(Song s) throws AudioOutputException, InterruptedException {
+        currentSong = s;
+        synth.setEffects(effects.apply(s.getId()));
+        NoteView notes = s.getNotes();
+        TempoMap tempo = s.getTempo();
+        RenderCache.Key key = RenderCache.keyFor(notes, tempo, synth);
+        ByteBuffer cached = renderCache.get(s.getId(), key);
+        ByteBuffer capture = null;
+        if (cached != null) {
+            engine.startPcm(cached);
+        } else {
+            // Si se escucha entera sin saltos, se guarda para la próxima vez
+            long size = synth.samplesFor(notes, tempo) * synth.getFormat().getFrameSize();
+            capture = renderCache.fits(size) ? ByteBuffer.allocateDirect((int) size) : null;
+            engine.startNotes(notes, tempo, capture);
+        }
+        positionSamples = 0;
+        totalSamples = engine.getTotalSamples();
+        System.out.println(">> Reproduciendo: " + s.getTitle() + " (" + s.getArtist() + ")");
+
+        while (true) {
+            // En pausa no se sintetiza nada: el hilo espera a la siguiente orden
+            Command c = engine.isPaused() ? commands.take() : commands.poll();
+            if (c != null) {
+                if (c.type == Type.SEEK) {
+                    capture = null; // El audio capturado ya no es continuo
+                }
+                Outcome outcome = handle(c);
+                if (outcome != null) return outcome;
+                continue;
+            }
+            if (!engine.playNextBlock()) {
+                if (capture != null) {
+                    renderCache.put(s.getId(), key, capture.flip());
+                }
+                return Outcome.NEXT;
+            }
+            positionSamples = engine.getPosition();
+        }
+    }
+
+    /**
+     * Sintetiza en otro hilo la canción de la posición dada y la deja en la caché, si cabe y no está ya.
+     */
+    private void prefetch(int index) {
+        if (index >= songs.size() || index == prefetchedIndex) return;
+        if (prefetcher == null) {
+            prefetcher = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "playlist-prefetch");
+                t.setDaemon(true);
+                return t;
+            });
+            // Sintetizador propio con el mismo timbre y formato que el de reproducción
+            prefetchSynth = new SoundSynthSinus();
+            prefetchSynth.setWaveform(synth.getWaveform());
+            prefetchSynth.setFormat(engine.getFormat());
+            prefetchRenderer = new NoteRenderer(prefetchSynth, VoiceMixer.DEFAULT_MAX_VOICES, AudioEngine.DEFAULT_BLOCK_SAMPLES);
+            prefetchRenderer.setMetrics(engine.getMetrics());
+        }
+        Song s = songs.get(index);
+        prefetchedIndex = index;
+        prefetched = prefetcher.submit(() -> {
+            prefetchSynth.setEffects(effects.apply(s.getId()));
+            NoteView notes = s.getNotes();
+            TempoMap tempo = s.getTempo();
+            RenderCache.Key key = RenderCache.keyFor(notes, tempo, prefetchSynth);
+            long size = prefetchSynth.samplesFor(notes, tempo) * prefetchSynth.getFormat().getFrameSize();
+            if (renderCache.fits(size) && renderCache.get(s.getId(), key) == null) {
+                renderCache.put(s.getId(), key, prefetchRenderer.renderAll(notes, tempo));
+            }
+        });
+    }
+
+    // Si la canción que va a sonar se está sintetizando aún, espera a que termine para sonar desde la caché
+    private void awaitPrefetch(int index) throws InterruptedException {
+        if (index != prefetchedIndex || prefetched == null) return;
+        try {
+            prefetched.get();
+        } catch (ExecutionException e) {
+            System.err.println(">> Error preparando la siguiente canción: " + e.getCause().getMessage());
+        }
+        prefetched = null;
+        prefetchedIndex = -1;
+    }
+
+    // Devuelve null si la canción actual sigue sonando
+    private Outcome handle(Command c) throws AudioOutputException {
+        switch (c.type) {
+            case PAUSE:
+                engine.pause();
+                state = State.PAUSED;
+                return null;
+            case RESUME:
+                engine.resume();
+                state = State.PLAYING;
+                return null;
+            case SEEK:
+                engine.flush();
+                engine.seek(synth.samplesFor((int) Math.min(Integer.MAX_VALUE, c.ms)));
+                positionSamples = engine.getPosition();
+                return null;
+            case NEXT:
+                engine.flush();
+                return Outcome.NEXT;
+            case PREVIOUS:
+                engine.flush();
+                return getPositionMs() > RESTART_THRESHOLD_MS ? Outcome.RESTART : Outcome.PREVIOUS;
+            case STOP:
+            default:
+                engine.flush();
+                return Outcome.STOP;
+        }
+    }
+
+    private long toMs(long samples) {
+        return (long) (samples * 1000.0 / engine.getFormat().getSampleRate());
+    }
+
+    private void closeQuietly() {
+        try {
+            engine.close();
+        } catch (AudioOutputException e) {
+            System.err.println("Error de Audio: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.Business.Managers;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out a fixed number of CPU slots to render sessions, one quantum of audio at a time.
+ * Waiters are served in arrival order, so a session that has just rendered goes to the back of
+ * the queue (round robin). Real-time sessions are served before batch ones: batch work only
+ * uses slots no real-time session is waiting for.
+ */
+final class RenderScheduler {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition realTimeTurn = lock.newCondition();
+    private final Condition batchTurn = lock.newCondition();
+    private final int slots;
+    private int free;
+    private int realTimeWaiting;
+
+    RenderScheduler(int slots) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("At least one CPU slot is required: " + slots);
+        }
+        this.slots = slots;
+        this.free = slots;
+    }
+
+    int getSlots() {
+        return slots;
+    }
+
+    void acquire(boolean realTime) throws InterruptedException {
+        lock.lock();
+        try {
+            if (realTime) {
+                realTimeWaiting++;
+                try {
+                    while (free == 0) realTimeTurn.await();
+                } finally {
+                    realTimeWaiting--;
+                    if (realTimeWaiting == 0) batchTurn.signal(); // Batch waiters re-check; harmless if nothing is free
+                }
+            } else {
+                while (free == 0 || realTimeWaiting > 0) batchTurn.await();
+            }
+            free--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            free++;
+            if (realTimeWaiting > 0) realTimeTurn.signal();
+            else batchTurn.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
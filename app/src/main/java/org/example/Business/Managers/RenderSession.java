@@ -0,0 +1,176 @@
+package org.example.Business.Managers;
+
+import org.example.Business.Audio.AudioSink;
+import org.example.Business.Audio.NoteRenderer;
+import org.example.Business.Audio.OutputFormat;
+import org.example.Business.Audio.SoundSynth;
+import org.example.Business.Audio.VoiceMixer;
+import org.example.Business.Model.Song;
+import org.example.CustomExceptions.AudioOutputException;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Una sesión de render gestionada por {@link SessionManager}: sintetiza una lista de canciones,
+ * con una pausa opcional entre ellas, hacia su propia salida (fichero, stream o salida nula) en un hilo virtual.
+ * Las canciones se comparten sin copiar con las demás sesiones; el sintetizador, los osciladores
+ * y el buffer son propios de la sesión.
+ */
+public class RenderSession {
+
+    public enum Mode {
+        /** Al ritmo de reproducción, como un oyente: nunca más de unos ms por delante del reloj. */
+        REAL_TIME,
+        /** Tan rápido como permita la CPU que dejen libre las sesiones en tiempo real. */
+        BATCH
+    }
+
+    public enum State { RUNNING, FINISHED, CANCELLED, FAILED }
+
+    // Audio sintetizado por turno de CPU, y cuánto puede adelantarse al reloj una sesión en tiempo real
+    static final int QUANTUM_SAMPLES = 4096;
+    static final int REAL_TIME_LEAD_MS = 250;
+
+    private final long id;
+    private final List<Song> songs;
+    private final int gapMs;
+    private final AudioSink sink;
+    private final Mode mode;
+    private final SoundSynth synth;
+    private final SessionManager manager;
+    private final double demand; // Núcleos reservados al admitirla (0 en BATCH)
+
+    private volatile State state = State.RUNNING;
+    private volatile boolean cancelled;
+    private volatile long renderedSamples;
+    private volatile long underruns;
+    private volatile Exception error;
+    private final Thread thread;
+
+    RenderSession(long id, List<Song> songs, int gapMs, AudioSink sink, Mode mode, SoundSynth synth,
+                  SessionManager manager, double demand) {
+        this.id = id;
+        this.songs = songs;
+        this.gapMs = gapMs;
+        this.sink = sink;
+        this.mode = mode;
+        this.synth = synth;
+        this.manager = manager;
+        this.demand = demand;
+        this.thread = Thread.ofVirtual().name("render-session-" + id).unstarted(this::run);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    public long getId() { return id; }
+    public Mode getMode() { return mode; }
+    public State getState() { return state; }
+    public OutputFormat getFormat() { return synth.getFormat(); }
+
+    /**
+     * Muestras ya entregadas a la salida, sumando todas las canciones.
+     */
+    public long getRenderedSamples() { return renderedSamples; }
+
+    /**
+     * Veces que una sesión en tiempo real llegó tarde: la salida se habría quedado sin audio.
+     */
+    public long getUnderruns() { return underruns; }
+
+    /**
+     * Error que terminó la sesión (estado FAILED), o null.
+     */
+    public Exception getError() { return error; }
+
+    double getDemand() { return demand; }
+
+    /**
+     * Pide a la sesión que termine tras el turno en curso.
+     */
+    public void cancel() {
+        cancelled = true;
+        thread.interrupt();
+    }
+
+    public void await() throws InterruptedException {
+        thread.join();
+    }
+
+    private void run() {
+        boolean realTime = mode == Mode.REAL_TIME;
+        RenderScheduler scheduler = manager.getScheduler();
+        OutputFormat format = synth.getFormat();
+        NoteRenderer renderer = new NoteRenderer(synth, VoiceMixer.DEFAULT_MAX_VOICES, QUANTUM_SAMPLES);
+        byte[] block = new byte[QUANTUM_SAMPLES * format.getFrameSize()];
+        double nanosPerSample = 1e9 / format.getSampleRate();
+        long leadNanos = REAL_TIME_LEAD_MS * 1_000_000L;
+
+        try {
+            sink.open(format.toAudioFormat());
+            long startNanos = System.nanoTime();
+            long samples = 0;
+            for (int i = 0; i < songs.size(); i++) {
+                // Silencio entre canciones: no gasta CPU, así que no pide turno
+                long gapSamples = i == 0 ? 0 : synth.samplesFor(gapMs);
+                renderer.start(songs.get(i).getNotes(), songs.get(i).getTempo());
+                while (gapSamples > 0 || !renderer.isDone()) {
+                    if (cancelled) throw new InterruptedException();
+
+                    if (realTime) {
+                        // El reloj marca lo que ya debería estar sonando; se va unos ms por delante, no más
+                        long playhead = startNanos + (long) (samples * nanosPerSample);
+                        long now = System.nanoTime();
+                        if (now > playhead && samples > 0) {
+                            underruns++;
+                            startNanos += now - playhead; // El oyente oiría un corte; se sigue desde ahora
+                        } else if (playhead - now > leadNanos) {
+                            Thread.sleep((playhead - now - leadNanos) / 1_000_000);
+                        }
+                    }
+
+                    int n;
+                    if (gapSamples > 0) {
+                        n = (int) Math.min(gapSamples, QUANTUM_SAMPLES) * format.getFrameSize();
+                        Arrays.fill(block, 0, n, (byte) 0);
+                        gapSamples -= n / format.getFrameSize();
+                    } else {
+                        scheduler.acquire(realTime);
+                        long t0 = System.nanoTime();
+                        try {
+                            n = renderer.render(block, 0, block.length);
+                        } finally {
+                            scheduler.release();
+                        }
+                        manager.recordCost(System.nanoTime() - t0, n / format.getFrameSize());
+                    }
+
+                    sink.write(block, 0, n);
+                    samples += n / format.getFrameSize();
+                    renderedSamples = samples;
+                }
+            }
+            sink.drain();
+            state = State.FINISHED;
+        } catch (InterruptedException e) {
+            state = State.CANCELLED;
+        } catch (AudioOutputException | RuntimeException e) {
+            // Cancelada mientras esperaba a la salida (p. ej. un stream sin oyentes): no es un fallo
+            if (cancelled) {
+                state = State.CANCELLED;
+            } else {
+                error = e;
+                state = State.FAILED;
+            }
+        } finally {
+            try {
+                sink.close();
+            } catch (AudioOutputException e) {
+                if (error == null) error = e;
+            }
+            manager.sessionEnded(this);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.Business.Managers;
+
+import org.example.Business.Audio.AudioSink;
+import org.example.Business.Audio.SoundSynth;
+import org.example.Business.Audio.SoundSynthSinus;
+import org.example.Business.Model.Song;
+import org.example.CustomExceptions.SessionRejectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta muchas sesiones de render a la vez (miles), cada una en su hilo virtual y con su propia salida.
+ *
+ * El tiempo de CPU se reparte por turnos entre las sesiones ({@link RenderScheduler}), dando prioridad a las
+ * que van en tiempo real. Para que éstas no se queden sin audio, una nueva sesión en tiempo real solo se admite
+ * si la demanda total (muestras por segundo x coste medido por muestra) cabe en la CPU disponible;
+ * si no, se rechaza con {@link SessionRejectedException}. Las sesiones BATCH siempre se admiten y usan lo que sobra.
+ */
+public class SessionManager {
+
+    // Fracción de la CPU que pueden comprometer las sesiones en tiempo real; el resto absorbe picos y GC
+    public static final double DEFAULT_TARGET_LOAD = 0.75;
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+
+    // Coste supuesto hasta tener medidas (ns por muestra); se ajusta con una media móvil
+    private static final double INITIAL_COST_NANOS = 200;
+    private static final double COST_SMOOTHING = 0.02;
+
+    private final RenderScheduler scheduler;
+    private final double capacity; // Núcleos que pueden reservar las sesiones en tiempo real
+    private final int maxSessions;
+    private final Supplier<SoundSynth> synthFactory;
+
+    private final Map<Long, RenderSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong costBits = new AtomicLong(Double.doubleToLongBits(INITIAL_COST_NANOS));
+    private double committed; // Núcleos reservados por las sesiones en tiempo real activas; protegido por 'this'
+    private long rejected;
+
+    public SessionManager() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_TARGET_LOAD, DEFAULT_MAX_SESSIONS, SoundSynthSinus::new);
+    }
+
+    /**
+     * @param cpuSlots Sesiones que pueden estar sintetizando a la vez (normalmente, los núcleos).
+     * @param targetLoad Fracción de esos núcleos reservable por sesiones en tiempo real.
+     * @param synthFactory Crea el sintetizador (timbre, formato, efectos) de cada sesión.
+     */
+    public SessionManager(int cpuSlots, double targetLoad, int maxSessions, Supplier<SoundSynth> synthFactory) {
+        if (!(targetLoad > 0 && targetLoad <= 1)) {
+            throw new IllegalArgumentException("La carga objetivo debe estar entre 0 y 1: " + targetLoad);
+        }
+        this.scheduler = new RenderScheduler(cpuSlots);
+        this.capacity = cpuSlots * targetLoad;
+        this.maxSessions = maxSessions;
+        this.synthFactory = synthFactory;
+    }
+
+    /**
+     * Arranca una sesión que sintetiza las canciones, en orden, hacia la salida dada.
+     *
+     * @throws SessionRejectedException Si se alcanzó el máximo de sesiones o, en tiempo real,
+     *                                  si la CPU no da para una sesión más sin cortes.
+     */
+    public RenderSession submit(List<Song> songs, AudioSink sink, RenderSession.Mode mode) throws SessionRejectedException {
+        return submit(songs, 0, sink, mode);
+    }
+
+    /**
+     * Como {@link #submit(List, AudioSink, RenderSession.Mode)}, con {@code gapMs} de silencio entre canciones.
+     */
+    public RenderSession submit(List<Song> songs, int gapMs, AudioSink sink, RenderSession.Mode mode)
+            throws SessionRejectedException {
+        if (gapMs < 0) {
+            throw new IllegalArgumentException("La pausa no puede ser negativa: " + gapMs);
+        }
+        List<Song> playable = new ArrayList<>();
+        for (Song s : songs) {
+            if (s != null && s.isPlayable() && s.hasNotes()) {
+                playable.add(s);
+            }
+        }
+
+        SoundSynth synth = synthFactory.get();
+        synth.setFormat(sink.negotiate(synth.getFormat()));
+        double demand = mode == RenderSession.Mode.REAL_TIME
+                ? synth.getFormat().getSampleRate() * getCostNanosPerSample() / 1e9
+                : 0;
+
+        RenderSession session;
+        synchronized (this) {
+            if (sessions.size() >= maxSessions) {
+                rejected++;
+                throw new SessionRejectedException("Máximo de sesiones alcanzado: " + maxSessions);
+            }
+            if (committed + demand > capacity) {
+                rejected++;
+                throw new SessionRejectedException(String.format(
+                        "CPU insuficiente para otra sesión en tiempo real (%.2f de %.2f núcleos comprometidos)",
+                        committed, capacity));
+            }
+            committed += demand;
+            session = new RenderSession(nextId.getAndIncrement(), playable, gapMs, sink, mode, synth, this, demand);
+            sessions.put(session.getId(), session);
+            // Se arranca antes de soltar el cerrojo: shutdown() solo ve sesiones ya en marcha,
+            // y ninguna puede terminar (sessionEnded necesita el cerrojo) antes de estar registrada
+            session.start();
+        }
+        return session;
+    }
+
+    public int getActiveSessions() { return sessions.size(); }
+
+    public synchronized long getRejectedSessions() { return rejected; }
+
+    /**
+     * Fracción de la capacidad en tiempo real ya comprometida (1 = no se admiten más sesiones en tiempo real).
+     */
+    public synchronized double getRealTimeLoad() {
+        return committed / capacity;
+    }
+
+    /**
+     * Coste medio medido de sintetizar una muestra, en nanosegundos.
+     */
+    public double getCostNanosPerSample() {
+        return Double.longBitsToDouble(costBits.get());
+    }
+
+    /**
+     * Cancela todas las sesiones y espera a que terminen.
+     */
+    public void shutdown() throws InterruptedException {
+        List<RenderSession> running = new ArrayList<>(sessions.values());
+        for (RenderSession s : running) s.cancel();
+        for (RenderSession s : running) s.await();
+    }
+
+    RenderScheduler getScheduler() {
+        return scheduler;
+    }
+
+    void recordCost(long nanos, int samples) {
+        if (samples <= 0) return;
+        double measured = (double) nanos / samples;
+        long prev;
+        long next;
+        do {
+            prev = costBits.get();
+            double cost = Double.longBitsToDouble(prev);
+            next = Double.doubleToLongBits(cost + COST_SMOOTHING * (measured - cost));
+        } while (!costBits.compareAndSet(prev, next));
+    }
+
+    void sessionEnded(RenderSession session) {
+        synchronized (this) {
+            sessions.remove(session.getId());
+            committed = Math.max(0, committed - session.getDemand());
+        }
+    }
+}
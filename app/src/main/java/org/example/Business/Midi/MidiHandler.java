@@ -0,0 +1,38 @@
+package org.example.Business.Midi;
+
+/**
+ * Receives the events of a Standard MIDI File as {@link MidiReader} parses them, one at a time,
+ * so a file is never held in memory as a whole. Ticks are absolute within the current track.
+ * Every method does nothing by default; implement only the events you need.
+ */
+public interface MidiHandler {
+
+    /**
+     * @param division Ticks per quarter note if positive; SMPTE timing (-frames per second in the high byte,
+     *                 ticks per frame in the low byte) if negative.
+     */
+    default void header(int format, int trackCount, int division) {}
+
+    default void startTrack(int track) {}
+
+    default void noteOn(long tick, int channel, int key, int velocity) {}
+
+    /**
+     * Note-off, or note-on with velocity 0.
+     */
+    default void noteOff(long tick, int channel, int key) {}
+
+    /**
+     * @param value Bend from -8192 to 8191; 0 is no bend.
+     */
+    default void pitchBend(long tick, int channel, int value) {}
+
+    default void tempo(long tick, int microsPerQuarter) {}
+
+    default void trackName(long tick, String name) {}
+
+    /**
+     * @param tick Where the track ends: its End of Track event, or its last event if that is missing.
+     */
+    default void endTrack(long tick) {}
+}
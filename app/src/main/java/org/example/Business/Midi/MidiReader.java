@@ -0,0 +1,227 @@
+package org.example.Business.Midi;
+
+import org.example.Business.Model.Song;
+import org.example.CustomExceptions.MidiFormatException;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streaming parser for Standard MIDI Files (formats 0 and 1; format 2 tracks are read one after another).
+ * Events go straight to a {@link MidiHandler} as they are decoded, so memory does not depend on the
+ * number of events in the file. Chunks other than MTrk, system exclusive messages and meta events
+ * without a handler method are skipped.
+ */
+public final class MidiReader {
+
+    private static final int HEADER_ID = 0x4d546864; // "MThd"
+    private static final int TRACK_ID = 0x4d54726b;  // "MTrk"
+    private static final int MAX_NAME_BYTES = 256;
+
+    private MidiReader() {}
+
+    /**
+     * Reads a MIDI file into a new song with the given ID, titled after its first track name
+     * or, if it has none, the file name.
+     */
+    public static Song readSong(Path file, int id) throws IOException, MidiFormatException {
+        MidiSongBuilder builder = new MidiSongBuilder();
+        try (InputStream in = Files.newInputStream(file)) {
+            read(in, builder);
+        }
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return builder.toSong(id, dot > 0 ? name.substring(0, dot) : name);
+    }
+
+    /**
+     * Parses a MIDI stream, calling {@code handler} for every event in file order.
+     * The stream is not closed.
+     */
+    public static void read(InputStream in, MidiHandler handler) throws IOException, MidiFormatException {
+        Input input = new Input(in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+        try {
+            if (input.readInt() != HEADER_ID) {
+                throw new MidiFormatException("Not a MIDI file: missing MThd header");
+            }
+            long headerLength = input.readUnsignedInt();
+            if (headerLength < 6) {
+                throw new MidiFormatException("MIDI header too short: " + headerLength);
+            }
+            int format = input.readShort();
+            int trackCount = input.readShort();
+            int division = (short) input.readShort();
+            input.skip(headerLength - 6);
+            if (division == 0) {
+                throw new MidiFormatException("Invalid MIDI time division: 0");
+            }
+            handler.header(format, trackCount, division);
+
+            int track = 0;
+            while (track < trackCount) {
+                int id = input.readIntOrEof();
+                if (id == -1) break; // Fewer tracks than declared: keep what was read
+                long length = input.readUnsignedInt();
+                if (id != TRACK_ID) {
+                    input.skip(length);
+                    continue;
+                }
+                handler.startTrack(track);
+                input.limit = length;
+                readTrack(input, handler);
+                input.skip(input.limit); // Bytes after End of Track
+                input.limit = Long.MAX_VALUE;
+                track++;
+            }
+        } catch (EOFException e) {
+            throw new MidiFormatException("Truncated MIDI file", e);
+        }
+    }
+
+    private static void readTrack(Input in, MidiHandler handler) throws IOException, MidiFormatException {
+        long tick = 0;
+        int status = 0; // Running status: the last channel message status, reused when a data byte comes first
+        while (in.limit > 0) {
+            tick += in.readVariable();
+            int b = in.read();
+            if (b >= 0x80) {
+                if (b < 0xf0) {
+                    status = b;
+                    b = in.read();
+                } else {
+                    status = 0; // System and meta events cancel running status
+                    if (b == 0xff) {
+                        if (readMeta(in, handler, tick)) {
+                            handler.endTrack(tick);
+                            return;
+                        }
+                    } else if (b == 0xf0 || b == 0xf7) {
+                        in.skip(in.readVariable());
+                    } else {
+                        throw new MidiFormatException("Unexpected status byte in track: 0x" + Integer.toHexString(b));
+                    }
+                    continue;
+                }
+            } else if (status == 0) {
+                throw new MidiFormatException("Data byte without a status byte at tick " + tick);
+            }
+            int channel = status & 0x0f;
+            switch (status & 0xf0) {
+                case 0x80 -> {
+                    in.read();
+                    handler.noteOff(tick, channel, b);
+                }
+                case 0x90 -> {
+                    int velocity = in.read();
+                    if (velocity == 0) {
+                        handler.noteOff(tick, channel, b);
+                    } else {
+                        handler.noteOn(tick, channel, b, velocity);
+                    }
+                }
+                case 0xa0, 0xb0 -> in.read();
+                case 0xc0, 0xd0 -> { } // One data byte, already read
+                case 0xe0 -> handler.pitchBend(tick, channel, ((in.read() << 7) | b) - 8192);
+                default -> throw new AssertionError(status);
+            }
+        }
+        handler.endTrack(tick);
+    }
+
+    // Returns true at End of Track
+    private static boolean readMeta(Input in, MidiHandler handler, long tick) throws IOException, MidiFormatException {
+        int type = in.read();
+        long length = in.readVariable();
+        switch (type) {
+            case 0x2f -> {
+                in.skip(length);
+                return true;
+            }
+            case 0x51 -> {
+                if (length < 3) throw new MidiFormatException("Tempo event too short at tick " + tick);
+                int micros = (in.read() << 16) | (in.read() << 8) | in.read();
+                in.skip(length - 3);
+                if (micros > 0) handler.tempo(tick, micros);
+            }
+            case 0x03 -> {
+                byte[] name = new byte[(int) Math.min(length, MAX_NAME_BYTES)];
+                for (int i = 0; i < name.length; i++) name[i] = (byte) in.read();
+                in.skip(length - name.length);
+                handler.trackName(tick, new String(name, StandardCharsets.ISO_8859_1).trim());
+            }
+            default -> in.skip(length);
+        }
+        return false;
+    }
+
+    /**
+     * Big-endian reads that count down the bytes left in the current chunk.
+     */
+    private static final class Input {
+        private final InputStream in;
+        long limit = Long.MAX_VALUE;
+
+        Input(InputStream in) {
+            this.in = in;
+        }
+
+        int read() throws IOException, MidiFormatException {
+            if (limit <= 0) {
+                throw new MidiFormatException("Event runs past the end of its track");
+            }
+            int b = in.read();
+            if (b < 0) throw new EOFException();
+            limit--;
+            return b;
+        }
+
+        int readShort() throws IOException, MidiFormatException {
+            return (read() << 8) | read();
+        }
+
+        int readInt() throws IOException, MidiFormatException {
+            return (readShort() << 16) | readShort();
+        }
+
+        long readUnsignedInt() throws IOException, MidiFormatException {
+            return readInt() & 0xffffffffL;
+        }
+
+        // Chunk IDs are read outside any track, where a clean end of file is allowed
+        int readIntOrEof() throws IOException, MidiFormatException {
+            int first = in.read();
+            if (first < 0) return -1;
+            return (first << 24) | (read() << 16) | readShort();
+        }
+
+        long readVariable() throws IOException, MidiFormatException {
+            long value = 0;
+            for (int i = 0; i < 4; i++) {
+                int b = read();
+                value = (value << 7) | (b & 0x7f);
+                if (b < 0x80) return value;
+            }
+            throw new MidiFormatException("Variable-length quantity longer than 4 bytes");
+        }
+
+        void skip(long n) throws IOException, MidiFormatException {
+            if (n > limit) {
+                throw new MidiFormatException("Event runs past the end of its track");
+            }
+            limit -= n;
+            while (n > 0) {
+                long skipped = in.skip(n);
+                if (skipped <= 0) {
+                    if (in.read() < 0) throw new EOFException();
+                    skipped = 1;
+                }
+                n -= skipped;
+            }
+        }
+    }
+}
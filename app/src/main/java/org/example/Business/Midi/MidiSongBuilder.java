@@ -0,0 +1,228 @@
+package org.example.Business.Midi;
+
+import org.example.Business.Model.Mood;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.Song;
+import org.example.Business.Model.TempoMap;
+
+import java.util.Arrays;
+
+/**
+ * Turns MIDI events into a song's note sequence.
+ *
+ * A song track plays its notes one after another, while a MIDI track can hold any number of
+ * overlapping notes, so every MIDI track is split into as many song tracks ("lanes") as it has
+ * notes sounding at once. A note goes to the first free lane of its MIDI track, after a rest
+ * covering any gap since that lane's previous note.
+ *
+ * Notes keep the file's own ticks and the song gets the file's tempo map, so nothing is rounded
+ * on import: notes on the tempo grid stay on it and playback follows every tempo change exactly.
+ * Tempo changes may appear in any track; they are collected and applied to the whole song.
+ * Pitch bend (default range of two semitones) is folded into the frequency of the notes it
+ * applies to. Channel 10 is percussion, which has no pitch, and is skipped.
+ */
+public class MidiSongBuilder implements MidiHandler {
+
+    private static final int PERCUSSION_CHANNEL = 9;
+    private static final double BEND_SEMITONES = 2;
+    private static final int DEFAULT_MICROS_PER_QUARTER = 500_000; // 120 BPM
+
+    private final NoteSequence notes = new NoteSequence();
+    private String title;
+    private int currentTrack;
+
+    private int ticksPerQuarter = 480;
+    private boolean smpte;           // SMPTE timing: fixed ticks per second, tempo events do not apply
+    private long[] tempoTicks = new long[4];
+    private int[] tempoMicros = new int[4];
+    private int tempos;
+
+    // Lanes of the current MIDI track; song track of lane i is trackBase + i
+    private int trackBase;
+    private long[] laneEnds = new long[4];
+    private boolean[] laneBusy = new boolean[4];
+    private int lanes;
+
+    // Notes waiting for their note-off, by channel * 128 + key
+    private final int[] pendingLane = new int[16 * 128];
+    private final long[] pendingStart = new long[16 * 128];
+    private final double[] pendingFrequency = new double[16 * 128];
+    private final int[] bend = new int[16];
+
+    public MidiSongBuilder() {
+        Arrays.fill(pendingLane, -1);
+    }
+
+    @Override
+    public void header(int format, int trackCount, int division) {
+        if (division > 0) {
+            ticksPerQuarter = division;
+        } else {
+            // Frames per second * ticks per frame, as a "quarter note" lasting one second
+            int framesPerSecond = -(division >> 8);
+            ticksPerQuarter = Math.max(1, Math.min(TempoMap.MAX_TICKS_PER_QUARTER, framesPerSecond * (division & 0xff)));
+            smpte = true;
+        }
+    }
+
+    @Override
+    public void startTrack(int track) {
+        currentTrack = track;
+        trackBase += lanes;
+        lanes = 0;
+        Arrays.fill(pendingLane, -1);
+        Arrays.fill(bend, 0);
+    }
+
+    @Override
+    public void trackName(long tick, String name) {
+        if (title == null && currentTrack == 0 && !name.isEmpty()) {
+            title = name;
+        }
+    }
+
+    @Override
+    public void tempo(long tick, int microsPerQuarter) {
+        if (smpte || microsPerQuarter <= 0) return;
+        if (tempos == tempoTicks.length) {
+            tempoTicks = Arrays.copyOf(tempoTicks, tempos * 2);
+            tempoMicros = Arrays.copyOf(tempoMicros, tempos * 2);
+        }
+        tempoTicks[tempos] = tick;
+        tempoMicros[tempos] = microsPerQuarter;
+        tempos++;
+    }
+
+    @Override
+    public void pitchBend(long tick, int channel, int value) {
+        bend[channel] = value;
+    }
+
+    @Override
+    public void noteOn(long tick, int channel, int key, int velocity) {
+        if (channel == PERCUSSION_CHANNEL) return;
+        int slot = channel * 128 + key;
+        if (pendingLane[slot] >= 0) {
+            noteOff(tick, channel, key); // Retriggered before its note-off: the old note ends here
+        }
+        int lane = freeLane(tick);
+        laneBusy[lane] = true;
+        pendingLane[slot] = lane;
+        pendingStart[slot] = tick;
+        pendingFrequency[slot] = 440 * Math.pow(2, (key - 69 + bend[channel] * BEND_SEMITONES / 8192) / 12);
+    }
+
+    @Override
+    public void noteOff(long tick, int channel, int key) {
+        if (channel == PERCUSSION_CHANNEL) return;
+        int slot = channel * 128 + key;
+        int lane = pendingLane[slot];
+        if (lane < 0) return; // Note-off without a note-on
+        pendingLane[slot] = -1;
+        laneBusy[lane] = false;
+
+        long start = pendingStart[slot];
+        if (tick <= start) return; // Zero-length note
+        restUntil(lane, start);
+        notes.add(pendingFrequency[slot], toInt(tick - start), trackBase + lane);
+        laneEnds[lane] = tick;
+    }
+
+    @Override
+    public void endTrack(long tick) {
+        for (int slot = 0; slot < pendingLane.length; slot++) {
+            if (pendingLane[slot] >= 0) {
+                noteOff(tick, slot / 128, slot % 128);
+            }
+        }
+        // Keep the silence at the end of the track, so the song lasts as long as the file
+        if (lanes > 0) {
+            long latest = 0;
+            for (int i = 0; i < lanes; i++) latest = Math.max(latest, laneEnds[i]);
+            if (tick > latest) restUntil(0, tick);
+        }
+    }
+
+    private int freeLane(long start) {
+        for (int i = 0; i < lanes; i++) {
+            if (!laneBusy[i] && laneEnds[i] <= start) return i;
+        }
+        if (lanes == laneEnds.length) {
+            laneEnds = Arrays.copyOf(laneEnds, lanes * 2);
+            laneBusy = Arrays.copyOf(laneBusy, lanes * 2);
+        }
+        laneEnds[lanes] = 0;
+        laneBusy[lanes] = false;
+        return lanes++;
+    }
+
+    private void restUntil(int lane, long tick) {
+        if (tick > laneEnds[lane]) {
+            notes.add(0, toInt(tick - laneEnds[lane]), trackBase + lane);
+            laneEnds[lane] = tick;
+        }
+    }
+
+    private static int toInt(long ticks) {
+        if (ticks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Note longer than " + Integer.MAX_VALUE + " ticks");
+        }
+        return (int) ticks;
+    }
+
+    /**
+     * The notes read so far, in ticks of {@link #getTempo()}.
+     */
+    public NoteSequence getNotes() {
+        return notes;
+    }
+
+    /**
+     * The file's tempo map. Several tempos on one tick: the last one read wins.
+     */
+    public TempoMap getTempo() {
+        if (smpte) {
+            return new TempoMap(ticksPerQuarter, 1_000_000);
+        }
+        // Stable sort by tick, so the order the changes were read in decides ties
+        Integer[] order = new Integer[tempos];
+        for (int i = 0; i < tempos; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(tempoTicks[a], tempoTicks[b]));
+
+        long[] ticks = new long[tempos + 1];
+        int[] micros = new int[tempos + 1];
+        micros[0] = DEFAULT_MICROS_PER_QUARTER; // Until the first change
+        int n = 1;
+        for (int i : order) {
+            if (tempoTicks[i] != ticks[n - 1]) n++;
+            ticks[n - 1] = tempoTicks[i];
+            micros[n - 1] = tempoMicros[i];
+        }
+        return new TempoMap(ticksPerQuarter, Arrays.copyOf(ticks, n), Arrays.copyOf(micros, n));
+    }
+
+    /**
+     * Builds the song. It is playable if the file had any pitched notes.
+     */
+    public Song toSong(int id, String fallbackTitle) {
+        long totalTicks = 0;
+        long[] trackEnds = new long[trackBase + lanes];
+        for (int i = 0; i < notes.size(); i++) {
+            int t = notes.getTrack(i);
+            trackEnds[t] += notes.getDurationTicks(i);
+            totalTicks = Math.max(totalTicks, trackEnds[t]);
+        }
+        notes.trimToSize();
+        boolean playable = false;
+        for (int i = 0; i < notes.size() && !playable; i++) {
+            playable = notes.getFrequency(i) > 0;
+        }
+        TempoMap tempo = getTempo();
+        long totalMicros = tempo.microsAt(totalTicks);
+        Song song = new Song(id, title != null ? title : fallbackTitle, "MIDI", (int) ((totalMicros + 999_999) / 1_000_000),
+                "MIDI", playable, Mood.RELAX);
+        song.setNotes(notes);
+        song.setTempo(tempo);
+        return song;
+    }
+}
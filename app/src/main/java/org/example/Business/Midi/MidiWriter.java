@@ -0,0 +1,189 @@
+package org.example.Business.Midi;
+
+import org.example.Business.Model.NoteView;
+import org.example.Business.Model.Song;
+import org.example.Business.Model.TempoMap;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+/**
+ * Writes songs as format 1 Standard MIDI Files: a conductor track with the title and tempo,
+ * then one MIDI track (and channel) per song track.
+ *
+ * The file uses the song's own tempo map (ticks per quarter note and every tempo change), so note
+ * lengths are written as they are, without rounding; songs without a tempo get 1000 ticks per quarter
+ * note at 60 BPM, one tick per millisecond. Frequencies between semitones are written as the
+ * nearest key plus a pitch bend, which {@link MidiSongBuilder} reads back to within a fraction of a cent.
+ * Track lengths are computed in a first pass over the notes, so nothing is buffered in memory.
+ */
+public final class MidiWriter {
+
+    private static final int VELOCITY = 100;
+    private static final double BEND_SEMITONES = 2;
+
+    private MidiWriter() {}
+
+    public static void write(Song song, Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(song, out);
+        }
+    }
+
+    /**
+     * Writes the song as a complete MIDI file. The stream is flushed but not closed.
+     */
+    public static void write(Song song, OutputStream out) throws IOException {
+        NoteView notes = song.getNotes();
+        TempoMap tempo = song.getTempo();
+        BitSet tracks = new BitSet();
+        for (int i = 0; i < notes.size(); i++) {
+            tracks.set(Math.max(0, notes.getTrack(i))); // Negative tracks play on track 0, as in NoteSchedule
+        }
+
+        writeInt(out, 0x4d546864); // "MThd"
+        writeInt(out, 6);
+        writeShort(out, 1);
+        writeShort(out, 1 + tracks.cardinality());
+        writeShort(out, tempo.getTicksPerQuarter());
+
+        byte[] title = (song.getTitle() == null ? "" : song.getTitle()).getBytes(StandardCharsets.ISO_8859_1);
+        Events counter = new Events(OutputStream.nullOutputStream());
+        writeConductor(title, tempo, counter);
+        Events conductor = new Events(out);
+        conductor.chunk(counter.bytes);
+        writeConductor(title, tempo, conductor);
+
+        int index = 0;
+        for (int t = tracks.nextSetBit(0); t >= 0; t = tracks.nextSetBit(t + 1)) {
+            int channel = index % 15;
+            if (channel >= 9) channel++; // Channel 10 is percussion
+            counter = new Events(OutputStream.nullOutputStream());
+            writeTrack(notes, t, channel, counter);
+            Events events = new Events(out);
+            events.chunk(counter.bytes);
+            writeTrack(notes, t, channel, events);
+            index++;
+        }
+        out.flush();
+    }
+
+    private static void writeConductor(byte[] title, TempoMap tempo, Events events) throws IOException {
+        events.meta(0, 0x03, title);
+        long previous = 0;
+        for (int i = 0; i < tempo.size(); i++) {
+            int micros = Math.min(tempo.getMicrosPerQuarter(i), 0xffffff); // A tempo event holds 24 bits
+            events.meta(tempo.getTick(i) - previous, 0x51, new byte[]{
+                    (byte) (micros >> 16), (byte) (micros >> 8), (byte) micros});
+            previous = tempo.getTick(i);
+        }
+        events.meta(0, 0x2f, new byte[0]);
+    }
+
+    private static void writeTrack(NoteView notes, int track, int channel, Events events) throws IOException {
+        long delta = 0;
+        int currentBend = 0;
+        for (int i = 0; i < notes.size(); i++) {
+            if (Math.max(0, notes.getTrack(i)) != track) continue;
+            int duration = Math.max(0, notes.getDurationTicks(i));
+            double frequency = notes.getFrequency(i);
+            if (frequency <= 0 || duration == 0) {
+                delta += duration; // Rest
+                continue;
+            }
+            double pitch = 69 + 12 * Math.log(frequency / 440) / Math.log(2);
+            int key = (int) Math.max(0, Math.min(127, Math.round(pitch)));
+            int bend = (int) Math.max(-8192, Math.min(8191, Math.round((pitch - key) / BEND_SEMITONES * 8192)));
+            if (bend != currentBend) {
+                events.channel(delta, 0xe0 | channel, (bend + 8192) & 0x7f, (bend + 8192) >> 7);
+                delta = 0;
+                currentBend = bend;
+            }
+            events.channel(delta, 0x90 | channel, key, VELOCITY);
+            events.channel(duration, 0x80 | channel, key, 0);
+            delta = 0;
+        }
+        events.meta(delta, 0x2f, new byte[0]); // Trailing rests end the track, keeping the song's length
+    }
+
+    private static void writeInt(OutputStream out, int v) throws IOException {
+        out.write(v >>> 24);
+        out.write(v >>> 16);
+        out.write(v >>> 8);
+        out.write(v);
+    }
+
+    private static void writeShort(OutputStream out, int v) throws IOException {
+        out.write(v >>> 8);
+        out.write(v);
+    }
+
+    private static int variableLength(long value) {
+        int n = 1;
+        while ((value >>>= 7) != 0) n++;
+        return n;
+    }
+
+    /**
+     * Track events, counting the bytes written so the same code can size a track before writing it.
+     */
+    private static final class Events {
+        private final OutputStream out;
+        long bytes;
+
+        Events(OutputStream out) {
+            this.out = out;
+        }
+
+        void chunk(long length) throws IOException {
+            writeInt(out, 0x4d54726b); // "MTrk"
+            writeInt(out, (int) length);
+        }
+
+        void channel(long delta, int status, int data1, int data2) throws IOException {
+            variable(delta);
+            write(status);
+            write(data1);
+            write(data2);
+        }
+
+        void meta(long delta, int type, byte[] data) throws IOException {
+            variable(delta);
+            write(0xff);
+            write(type);
+            variable(data.length);
+            out.write(data);
+            bytes += data.length;
+        }
+
+        // Deltas longer than the 28 bits a variable-length quantity holds are split with empty events
+        private void variable(long value) throws IOException {
+            while (value > 0x0fffffff) {
+                writeVariable(0x0fffffff);
+                write(0xff);
+                write(0x01); // Empty text event
+                write(0);
+                value -= 0x0fffffff;
+            }
+            writeVariable(value);
+        }
+
+        private void writeVariable(long value) throws IOException {
+            int shift = 7 * (variableLength(value) - 1);
+            for (; shift > 0; shift -= 7) {
+                write((int) ((value >>> shift) & 0x7f) | 0x80);
+            }
+            write((int) (value & 0x7f));
+        }
+
+        private void write(int b) throws IOException {
+            out.write(b);
+            bytes++;
+        }
+    }
+}
@@ -3,10 +3,18 @@ package org.example.Business.Model;
 /**
  * Representa una nota musical individual con su frecuencia y duración.
  * [cite_start]Utilizado para la secuencia de reproducción en las canciones[cite: 33, 34].
+ *
+ * Las notas de una misma pista ({@code track}) suenan una detrás de otra; pistas distintas
+ * suenan a la vez, lo que permite expresar acordes y voces superpuestas.
+ * Una frecuencia <= 0 es un silencio que ocupa su duración en la pista.
+ *
+ * La duración está en ticks del {@link TempoMap} de la canción; si la canción no define tempo,
+ * un tick es un milisegundo (de ahí el nombre del campo, que se mantiene por compatibilidad con el JSON).
  */
 public class Note {
     private double frequency;
     private int durationMs;
+    private int track; // 0 = pista principal (canciones monofónicas)
 
     public Note() {
     }
@@ -16,6 +24,12 @@ public class Note {
         this.durationMs = durationMs;
     }
 
+    public Note(double frequency, int durationMs, int track) {
+        this.frequency = frequency;
+        this.durationMs = durationMs;
+        this.track = track;
+    }
+
     public double getFrequency() {
         return frequency;
     }
@@ -31,4 +45,12 @@ public class Note {
     public void setDurationMs(int durationMs) {
         this.durationMs = durationMs;
     }
+
+    public int getTrack() {
+        return track;
+    }
+
+    public void setTrack(int track) {
+        this.track = track;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package org.example.Business.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Secuencia de notas guardada en arrays primitivos paralelos en lugar de una lista de objetos {@link Note}.
+ * Cada nota ocupa 12 bytes (16 si la canción usa varias pistas) frente a los ~36 de un {@code Note}
+ * con su cabecera y su hueco en la lista, y recorrerla no salta de puntero en puntero.
+ *
+ * Se construye añadiendo notas al final; el resto del programa la lee a través de {@link NoteView}.
+ */
+public final class NoteSequence implements NoteView {
+
+    private static final double[] NO_FREQUENCIES = {};
+    private static final int[] NO_INTS = {};
+
+    private double[] frequencies;
+    private int[] durations;
+    private int[] tracks; // null mientras todas las notas sean de la pista 0 (canciones monofónicas)
+    private int size;
+
+    public NoteSequence() {
+        this.frequencies = NO_FREQUENCIES;
+        this.durations = NO_INTS;
+    }
+
+    public NoteSequence(int capacity) {
+        this.frequencies = capacity == 0 ? NO_FREQUENCIES : new double[capacity];
+        this.durations = capacity == 0 ? NO_INTS : new int[capacity];
+    }
+
+    /**
+     * Copia independiente, con los arrays ajustados al número de notas.
+     */
+    public NoteSequence copy() {
+        NoteSequence copy = new NoteSequence();
+        copy.frequencies = size == 0 ? NO_FREQUENCIES : Arrays.copyOf(frequencies, size);
+        copy.durations = size == 0 ? NO_INTS : Arrays.copyOf(durations, size);
+        copy.tracks = tracks == null ? null : Arrays.copyOf(tracks, size);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Copia una lista de notas (por ejemplo, la forma antigua de {@code Song.notes}).
+     */
+    public static NoteSequence of(List<Note> notes) {
+        NoteSequence seq = new NoteSequence(notes.size());
+        for (Note n : notes) {
+            seq.add(n);
+        }
+        return seq;
+    }
+
+    public void add(Note note) {
+        add(note.getFrequency(), note.getDurationMs(), note.getTrack());
+    }
+
+    public void add(double frequency, int durationTicks, int track) {
+        if (size == frequencies.length) {
+            grow();
+        }
+        if (track != 0 && tracks == null) {
+            tracks = new int[frequencies.length];
+        }
+        frequencies[size] = frequency;
+        durations[size] = durationTicks;
+        if (tracks != null) {
+            tracks[size] = track;
+        }
+        size++;
+    }
+
+    private void grow() {
+        int capacity = Math.max(8, frequencies.length + (frequencies.length >> 1));
+        frequencies = Arrays.copyOf(frequencies, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        if (tracks != null) {
+            tracks = Arrays.copyOf(tracks, capacity);
+        }
+    }
+
+    /**
+     * Ajusta los arrays al número de notas, para canciones que ya no van a crecer (p. ej. tras cargarlas).
+     */
+    public void trimToSize() {
+        if (size < frequencies.length) {
+            frequencies = size == 0 ? NO_FREQUENCIES : Arrays.copyOf(frequencies, size);
+            durations = size == 0 ? NO_INTS : Arrays.copyOf(durations, size);
+            if (tracks != null) {
+                tracks = Arrays.copyOf(tracks, size);
+            }
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        tracks = null;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public double getFrequency(int i) {
+        checkIndex(i);
+        return frequencies[i];
+    }
+
+    @Override
+    public int getDurationTicks(int i) {
+        checkIndex(i);
+        return durations[i];
+    }
+
+    @Override
+    public int getTrack(int i) {
+        checkIndex(i);
+        return tracks == null ? 0 : tracks[i];
+    }
+
+    private void checkIndex(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + size);
+        }
+    }
+
+    /**
+     * Copia las notas a objetos {@link Note}, para código que necesite editarlas una a una.
+     */
+    public List<Note> toList() {
+        List<Note> notes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            notes.add(new Note(frequencies[i], durations[i], getTrack(i)));
+        }
+        return notes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NoteSequence other) || other.size != size) return false;
+        for (int i = 0; i < size; i++) {
+            if (Double.doubleToLongBits(frequencies[i]) != Double.doubleToLongBits(other.frequencies[i])
+                    || durations[i] != other.durations[i] || getTrack(i) != other.getTrack(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = size;
+        for (int i = 0; i < size; i++) {
+            h = 31 * h + Double.hashCode(frequencies[i]);
+            h = 31 * h + durations[i];
+            h = 31 * h + getTrack(i);
+        }
+        return h;
+    }
+}
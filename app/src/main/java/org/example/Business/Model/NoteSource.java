@@ -0,0 +1,19 @@
+package org.example.Business.Model;
+
+/**
+ * Origen de las notas de una canción que aún no se han leído (por ejemplo, un trozo de songs.json).
+ * La canción las pide la primera vez que alguien llama a {@link Song#getNotes()}.
+ */
+public interface NoteSource {
+
+    /**
+     * Lee las notas. Los errores de lectura se lanzan como {@link java.io.UncheckedIOException}.
+     */
+    NoteSequence load();
+
+    /**
+     * Si no hay ninguna nota, sin leerlas. Los orígenes que no lo saben de antemano se crean solo
+     * para listas con notas, así que por defecto es false.
+     */
+    default boolean isEmpty() { return false; }
+}
@@ -0,0 +1,22 @@
+package org.example.Business.Model;
+
+/**
+ * Vista de solo lectura de una secuencia de notas, recorrida por índice.
+ * Los sintetizadores y renderizadores la usan para leer las notas sin crear objetos {@link Note}.
+ */
+public interface NoteView {
+
+    int size();
+
+    default boolean isEmpty() { return size() == 0; }
+
+    double getFrequency(int i);
+
+    /**
+     * Duración de la nota en ticks de la base de tiempos de su canción ({@link Song#getTempo()});
+     * con la base por defecto, en milisegundos.
+     */
+    int getDurationTicks(int i);
+
+    int getTrack(int i);
+}
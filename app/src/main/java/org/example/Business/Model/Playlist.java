@@ -1,7 +1,10 @@
 package org.example.Business.Model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
 
 public class Playlist {
     
@@ -70,14 +73,24 @@ public class Playlist {
      * Useful after loading from JSON or if a Song's details were edited.
      */
     public void recalculateStats(List<Song> library) {
+        // Index the library once instead of scanning it for every ID
+        Map<Integer, Song> byId = new HashMap<>();
+        for (Song s : library) {
+            byId.putIfAbsent(s.getId(), s);
+        }
+        recalculateStats(byId::get);
+    }
+
+    /**
+     * Same as {@link #recalculateStats(List)}, looking songs up by ID (null if missing).
+     */
+    public void recalculateStats(IntFunction<Song> library) {
         this.totalDuration = 0;
         this.playableCount = 0;
+        if (songIds == null) return;
 
         for (Integer id : songIds) {
-            Song s = library.stream()
-                    .filter(song -> song.getId() == id)
-                    .findFirst()
-                    .orElse(null);
+            Song s = library.apply(id);
             
             if (s != null) {
                 this.totalDuration += s.getDurationSeconds();
@@ -88,6 +101,18 @@ public class Playlist {
         }
     }
 
+    /**
+     * Copy with its own list of song IDs, to edit without touching the stored playlist
+     * (which may be being saved in the background) and then pass to the update call.
+     */
+    public Playlist copy() {
+        Playlist copy = new Playlist(id, name, description);
+        if (songIds != null) copy.songIds.addAll(songIds);
+        copy.totalDuration = totalDuration;
+        copy.playableCount = playableCount;
+        return copy;
+    }
+
     // --- GETTERS & SETTERS ---
 
     public int getId() { return id; }
@@ -1,6 +1,5 @@
 package org.example.Business.Model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,13 +15,16 @@ public class Song {
     private String style;           
     private Mood mood;              
     private boolean playable;       
-    private List<Note> notes;
+    private NoteSequence notes;
+    private TempoMap tempo; // null: duraciones en milisegundos (no se escribe en el JSON)
+    private transient NoteSource noteSource; // Notas aún sin leer; notes es null mientras tanto
+    private transient boolean notesShared; // notes es también de otra canción (ver copy()): se copia antes de cambiarla
 
     /**
      * Constructor vacío requerido para la deserialización de JSON (Gson).
      */
     public Song() {
-        this.notes = new ArrayList<>();
+        this.notes = new NoteSequence();
     }
 
     /**
@@ -36,7 +38,7 @@ public class Song {
         this.style = style;
         this.playable = playable;
         this.mood = mood;
-        this.notes = new ArrayList<>();
+        this.notes = new NoteSequence();
     }
 
     public int getId() { return id; }
@@ -64,15 +66,114 @@ public class Song {
     public boolean isPlayable() { return playable; }
     public void setPlayable(boolean playable) { this.playable = playable; }
 
-    public List<Note> getNotes() { return notes; }
-    public void setNotes(List<Note> notes) { this.notes = notes; }
+    /**
+     * Notas de la canción, de solo lectura. Nunca es null.
+     * Si las notas se cargan bajo demanda, se leen aquí la primera vez.
+     */
+    public synchronized NoteView getNotes() {
+        if (notes == null) {
+            NoteSource source = noteSource;
+            notes = source != null ? source.load() : new NoteSequence(); // El JSON puede traer "notes": null
+            noteSource = null;
+            notesShared = false; // Cada canción lee su propia secuencia
+        }
+        return notes;
+    }
+
+    /**
+     * Si la canción tiene alguna nota. No lee las notas pendientes en disco: sirve para decidir qué se
+     * puede reproducir sin cargar de golpe las notas de toda la biblioteca.
+     */
+    public synchronized boolean hasNotes() {
+        if (notes != null) return !notes.isEmpty();
+        return noteSource != null && !noteSource.isEmpty();
+    }
+
+    /**
+     * Las duraciones se leen en ticks de {@link #getTempo()}, que no cambia con las notas.
+     */
+    public synchronized void setNotes(NoteSequence notes) {
+        this.notes = notes;
+        this.noteSource = null;
+        this.notesShared = false;
+    }
+    public synchronized void setNotes(List<Note> notes) {
+        setNotes(NoteSequence.of(notes));
+    }
+
+    /**
+     * Deja las notas sin leer hasta que se pidan. Solo tiene efecto si aún no hay notas cargadas.
+     */
+    public synchronized void setNoteSource(NoteSource source) {
+        if (notes == null) {
+            this.noteSource = source;
+        }
+    }
+
+    /**
+     * Origen de las notas mientras no se hayan leído; null si ya están en memoria.
+     */
+    public synchronized NoteSource getNoteSource() {
+        return notes == null ? noteSource : null;
+    }
+
+    /**
+     * Cambia el origen de las notas sin leerlas, si sigue siendo {@code expected} (p. ej. al reescribir el fichero).
+     */
+    public synchronized boolean replaceNoteSource(NoteSource expected, NoteSource source) {
+        if (notes != null || noteSource != expected) return false;
+        noteSource = source;
+        return true;
+    }
+
+    /**
+     * Base de tiempos de las duraciones de las notas; milisegundos si la canción no define tempo.
+     */
+    public TempoMap getTempo() { return tempo == null ? TempoMap.MILLISECONDS : tempo; }
+
+    public void setTempo(TempoMap tempo) {
+        this.tempo = tempo == null || tempo.equals(TempoMap.MILLISECONDS) ? null : tempo;
+    }
+
+    /**
+     * Copia para editar sin tocar la canción guardada, que puede estar escribiéndose o sonando
+     * en segundo plano; se guarda con {@code LibraryManager.updateSong}. Comparte las notas (sin leerlas
+     * si aún no se han leído) hasta que una de las dos las cambie con {@link #addNote}, que copia antes.
+     */
+    public synchronized Song copy() {
+        Song copy = new Song(id, title, artist, durationSeconds, style, playable, mood);
+        copy.notes = notes;
+        copy.tempo = tempo;
+        copy.noteSource = noteSource;
+        if (notes != null) {
+            notesShared = true;
+            copy.notesShared = true;
+        }
+        return copy;
+    }
+
+    /**
+     * Si las dos canciones tienen las mismas notas sin haberlas copiado, p. ej. una es {@link #copy()}
+     * de la otra y desde entonces ninguna ha cambiado ni leído sus notas.
+     */
+    public boolean sharesNotesWith(Song other) {
+        Object[] mine = noteState();
+        Object[] theirs = other.noteState();
+        return mine[0] == theirs[0] && mine[1] == theirs[1];
+    }
+
+    private synchronized Object[] noteState() {
+        return new Object[] {notes, noteSource};
+    }
 
     /**
      * Método helper para añadir una nota individualmente.
      */
-    public void addNote(Note note) {
-        if (this.notes == null) {
-            this.notes = new ArrayList<>();
+    public synchronized void addNote(Note note) {
+        getNotes(); // Carga las pendientes antes de añadir
+        if (notesShared) {
+            notes = notes.copy();
+            notesShared = false;
         }
         this.notes.add(note);
     }
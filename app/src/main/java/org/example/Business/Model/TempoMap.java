@@ -0,0 +1,162 @@
+package org.example.Business.Model;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Base de tiempos de una canción: cuántos ticks tiene una negra y cuánto dura una negra a partir de cada tick.
+ * Las duraciones de las notas se expresan en ticks de este mapa, así que pueden ser de menos de un
+ * milisegundo o caer exactamente en la rejilla del tempo (tresillos, semicorcheas...).
+ *
+ * {@link #MILLISECONDS} es la base por defecto: un tick es un milisegundo, como en las canciones
+ * que no definen tempo.
+ *
+ * Las conversiones a muestras son aritmética entera exacta sobre la posición absoluta del tick,
+ * nunca sumas de duraciones ya redondeadas, así que no acumulan error por largo que sea el tema.
+ */
+public final class TempoMap {
+
+    public static final int MAX_TICKS_PER_QUARTER = 0x7fff; // Límite de un fichero MIDI
+
+    /**
+     * 1000 ticks por negra a 60 BPM: un tick es un milisegundo.
+     */
+    public static final TempoMap MILLISECONDS = new TempoMap(1000, 1_000_000);
+
+    private int ticksPerQuarter;
+    private long[] ticks;            // Tick donde empieza cada tempo; el primero es 0
+    private int[] microsPerQuarter;  // Duración de una negra desde ticks[i]
+
+    // Posición de ticks[i] en microsegundos * ticksPerQuarter, exacta. Se calcula al usarla (Gson no llama al constructor)
+    private transient long[] scaledMicros;
+
+    /**
+     * Tempo constante.
+     */
+    public TempoMap(int ticksPerQuarter, int microsPerQuarter) {
+        this(ticksPerQuarter, new long[]{0}, new int[]{microsPerQuarter});
+    }
+
+    /**
+     * @param ticks Tick donde empieza cada tempo, en orden creciente y empezando en 0.
+     * @param microsPerQuarter Duración de una negra, en microsegundos, a partir de cada tick.
+     */
+    public TempoMap(int ticksPerQuarter, long[] ticks, int[] microsPerQuarter) {
+        if (ticksPerQuarter <= 0 || ticksPerQuarter > MAX_TICKS_PER_QUARTER) {
+            throw new IllegalArgumentException("Ticks per quarter must be between 1 and " + MAX_TICKS_PER_QUARTER + ": " + ticksPerQuarter);
+        }
+        if (ticks.length == 0 || ticks.length != microsPerQuarter.length || ticks[0] != 0) {
+            throw new IllegalArgumentException("A tempo map needs one tempo per change, the first at tick 0");
+        }
+        for (int i = 0; i < ticks.length; i++) {
+            if (microsPerQuarter[i] <= 0) {
+                throw new IllegalArgumentException("Tempo must be positive: " + microsPerQuarter[i]);
+            }
+            if (i > 0 && ticks[i] <= ticks[i - 1]) {
+                throw new IllegalArgumentException("Tempo changes must be in increasing tick order");
+            }
+        }
+        this.ticksPerQuarter = ticksPerQuarter;
+        this.ticks = ticks.clone();
+        this.microsPerQuarter = microsPerQuarter.clone();
+    }
+
+    /**
+     * Tempo constante en pulsaciones por minuto.
+     */
+    public static TempoMap ofBpm(int ticksPerQuarter, double bpm) {
+        return new TempoMap(ticksPerQuarter, (int) Math.round(60_000_000 / bpm));
+    }
+
+    /**
+     * Copia de este mapa con un cambio de tempo en {@code tick} (sustituye al que hubiera en ese tick).
+     */
+    public TempoMap withTempo(long tick, int micros) {
+        int i = Arrays.binarySearch(ticks, tick);
+        if (i >= 0) {
+            int[] mpq = microsPerQuarter.clone();
+            mpq[i] = micros;
+            return new TempoMap(ticksPerQuarter, ticks, mpq);
+        }
+        int at = -i - 1;
+        long[] t = new long[ticks.length + 1];
+        int[] mpq = new int[ticks.length + 1];
+        System.arraycopy(ticks, 0, t, 0, at);
+        System.arraycopy(microsPerQuarter, 0, mpq, 0, at);
+        t[at] = tick;
+        mpq[at] = micros;
+        System.arraycopy(ticks, at, t, at + 1, ticks.length - at);
+        System.arraycopy(microsPerQuarter, at, mpq, at + 1, ticks.length - at);
+        return new TempoMap(ticksPerQuarter, t, mpq);
+    }
+
+    public int getTicksPerQuarter() { return ticksPerQuarter; }
+
+    /**
+     * Número de tempos (1 si el tempo es constante).
+     */
+    public int size() { return ticks.length; }
+
+    public long getTick(int i) { return ticks[i]; }
+
+    public int getMicrosPerQuarter(int i) { return microsPerQuarter[i]; }
+
+    /**
+     * Muestra en la que cae {@code tick}, redondeando hacia abajo: floor(segundos(tick) * sampleRate).
+     */
+    public long samplesAt(long tick, long sampleRate) {
+        long[] scaled = scaledMicros();
+        int i = Arrays.binarySearch(ticks, tick);
+        if (i < 0) i = -i - 2;
+        if (i < 0) i = 0; // Ticks negativos: se extrapola el primer tempo
+        long position = scaled[i] + (tick - ticks[i]) * microsPerQuarter[i];
+        long denominator = ticksPerQuarter * 1_000_000L;
+        try {
+            return Math.floorDiv(Math.multiplyExact(position, sampleRate), denominator);
+        } catch (ArithmeticException e) {
+            // Más de ~50 horas a 96 kHz: se sigue calculando exacto, solo que más despacio
+            return BigInteger.valueOf(position).multiply(BigInteger.valueOf(sampleRate))
+                    .divide(BigInteger.valueOf(denominator)).longValueExact();
+        }
+    }
+
+    /**
+     * Microsegundos desde el principio hasta {@code tick}, redondeando hacia abajo.
+     */
+    public long microsAt(long tick) {
+        return samplesAt(tick, 1_000_000);
+    }
+
+    private long[] scaledMicros() {
+        long[] scaled = scaledMicros;
+        if (scaled == null) {
+            scaled = new long[ticks.length];
+            for (int i = 1; i < ticks.length; i++) {
+                scaled[i] = scaled[i - 1] + (ticks[i] - ticks[i - 1]) * microsPerQuarter[i - 1];
+            }
+            scaledMicros = scaled;
+        }
+        return scaled;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TempoMap other)) return false;
+        return ticksPerQuarter == other.ticksPerQuarter
+                && Arrays.equals(ticks, other.ticks)
+                && Arrays.equals(microsPerQuarter, other.microsPerQuarter);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * ticksPerQuarter + Arrays.hashCode(ticks)) + Arrays.hashCode(microsPerQuarter);
+    }
+
+    @Override
+    public String toString() {
+        if (equals(MILLISECONDS)) return "ms";
+        return String.format("%d ppq, %.2f BPM%s", ticksPerQuarter, 60_000_000.0 / microsPerQuarter[0],
+                ticks.length > 1 ? " (" + (ticks.length - 1) + " cambios)" : "");
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.CustomExceptions;
+
+public class AudioOutputException extends Exception {
+
+    public AudioOutputException(String message) {
+        super(message);
+    }
+
+    public AudioOutputException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
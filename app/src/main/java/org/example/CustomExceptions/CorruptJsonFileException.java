@@ -0,0 +1,13 @@
+package org.example.CustomExceptions;
+
+/**
+ * The JSON file exists but cannot be parsed (e.g. it was cut short). It is not treated as an
+ * empty library, so the next save cannot overwrite the data that is still in it.
+ */
+public class CorruptJsonFileException extends EmptyJsonFileException {
+
+    public CorruptJsonFileException(String file, Throwable cause) {
+        super("The file " + file + " is damaged and cannot be read: " + cause.getMessage(), cause);
+    }
+
+}
@@ -0,0 +1,13 @@
+package org.example.CustomExceptions;
+
+/**
+ * The binary snapshot exists but cannot be read (not a snapshot, a newer format version, or cut short).
+ * Like a damaged JSON file, it is not treated as an empty library.
+ */
+public class CorruptSnapshotException extends CorruptJsonFileException {
+
+    public CorruptSnapshotException(String file, Throwable cause) {
+        super(file, cause);
+    }
+
+}
@@ -5,4 +5,8 @@ public class EmptyJsonFileException extends Exception {
         super(message);
     }
 
+    public EmptyJsonFileException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
 }
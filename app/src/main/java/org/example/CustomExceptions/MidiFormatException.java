@@ -0,0 +1,13 @@
+package org.example.CustomExceptions;
+
+public class MidiFormatException extends Exception {
+
+    public MidiFormatException(String message) {
+        super(message);
+    }
+
+    public MidiFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,9 @@
+package org.example.CustomExceptions;
+
+public class SessionRejectedException extends Exception {
+
+    public SessionRejectedException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,199 @@
+package org.example.Persistence;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A JSON file that is always replaced whole: every write goes to a temporary file next to it,
+ * is flushed to disk with fsync and then renamed over the old one, so after a crash the file holds
+ * either the previous snapshot or the new one, never a mix or a truncated copy.
+ *
+ * Writes use group commit. While one write is in progress, later {@link #write} calls only leave
+ * their value; when it finishes, one of them writes the newest value for all of them, with a single
+ * fsync. A burst of saves therefore costs one or two disk flushes instead of one per save.
+ */
+final class AtomicJsonFile {
+
+    public static final long DEFAULT_GROUP_WINDOW_MS = 2;
+
+    private final Path file;
+    private final Path temp;
+    private final Gson gson;
+    private final long groupWindowMs;
+    private final Content content;
+
+    private final Object lock = new Object();
+    private Object pending;     // Newest value not yet being written
+    private long requested;     // Number of write calls so far
+    private long written;       // Write calls covered by the last finished write
+    private long failedUpTo;    // Write calls covered by the last failed write
+    private IOException failure;
+    private boolean writing;
+
+    /**
+     * Turns the value into the bytes of the file, for files that are not a plain {@code gson.toJson}
+     * (they need not be JSON at all; {@code gson} may then be null).
+     * Only one write runs at a time, so implementations may keep state from {@link #write} to {@link #committed}.
+     */
+    interface Content {
+        void write(Object value, OutputStream out) throws IOException;
+
+        /**
+         * Called after the file written by the last {@link #write} has replaced the old one.
+         */
+        default void committed() {}
+    }
+
+    /**
+     * @param groupWindowMs How long a write waits for others to join it before starting.
+     */
+    AtomicJsonFile(Path file, Gson gson, long groupWindowMs) {
+        this(file, gson, groupWindowMs, null);
+    }
+
+    /**
+     * @param content How values are written; null writes them with {@code gson}.
+     */
+    AtomicJsonFile(Path file, Gson gson, long groupWindowMs, Content content) {
+        this.file = file;
+        this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+        this.gson = gson;
+        this.groupWindowMs = groupWindowMs;
+        this.content = content;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Reads the file; null if it is missing or empty.
+     * @throws JsonParseException if it is not valid JSON for {@code type}.
+     */
+    <T> T read(Type type) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, type);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the file with {@code value}. Returns once a write that started after this call has
+     * reached the disk; if that write fails, every call it covered gets the exception.
+     */
+    void write(Object value) throws IOException {
+        long ticket;
+        synchronized (lock) {
+            pending = value;
+            ticket = ++requested;
+            while (true) {
+                if (written >= ticket) {
+                    return; // Written by a group that started after this call
+                }
+                if (failedUpTo >= ticket) {
+                    throw new IOException("Error writing " + file, failure);
+                }
+                if (!writing) break;
+                waitUninterruptibly();
+            }
+            writing = true;
+        }
+
+        // This call leads the next group
+        if (groupWindowMs > 0) {
+            try {
+                Thread.sleep(groupWindowMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Object newest;
+        long upTo;
+        synchronized (lock) {
+            newest = pending;
+            upTo = requested;
+            pending = null;
+        }
+        IOException error = null;
+        try {
+            replace(newest);
+        } catch (IOException | RuntimeException e) {
+            error = e instanceof IOException io ? io : new IOException(e);
+        }
+        synchronized (lock) {
+            if (error == null) {
+                written = upTo;
+            } else {
+                failedUpTo = upTo;
+                failure = error;
+            }
+            writing = false;
+            lock.notifyAll();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void waitUninterruptibly() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void replace(Object value) throws IOException {
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            if (content != null) {
+                content.write(value, out);
+            } else {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                gson.toJson(value, writer);
+                writer.flush();
+            }
+            out.flush();
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory();
+        if (content != null) {
+            content.committed();
+        }
+    }
+
+    // Makes the rename itself durable; not every platform can open a directory, so it is best effort
+    private void syncDirectory() {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null) return;
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Windows: directories cannot be opened; the rename is already durable there
+        }
+    }
+}
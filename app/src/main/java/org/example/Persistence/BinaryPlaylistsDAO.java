@@ -0,0 +1,168 @@
+package org.example.Persistence;
+
+import org.example.Business.Model.Playlist;
+import org.example.CustomExceptions.CorruptSnapshotException;
+import org.example.CustomExceptions.EmptyJsonFileException;
+import org.example.CustomExceptions.NoPlaylistsException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Playlists in a binary snapshot, files/playlists.bin, with the layout of {@link SnapshotFile}:
+ * the song IDs of all playlists one after another (int), then the columns first song ID index
+ * (long, one more than the rows), id (int), name and description (heap offsets).
+ * The cached stats are not stored; the library recalculates them on load.
+ * POSIX systems only, like {@link BinarySongsDAO}.
+ */
+public class BinaryPlaylistsDAO implements PlaylistsDAO {
+
+    public static final String DEFAULT_PATH = "files/playlists.bin";
+
+    private static final int SONG_IDS = 0;
+    private static final int ID_START = 1;
+    private static final int ID = 2;
+    private static final int NAME = 3;
+    private static final int DESCRIPTION = 4;
+    private static final int HEAP = 5;
+    private static final int END = 6;
+    private static final int SECTIONS = 7;
+
+    private final Path path;
+    private final AtomicJsonFile file;
+
+    public BinaryPlaylistsDAO() throws IOException {
+        this(Path.of(DEFAULT_PATH));
+    }
+
+    public BinaryPlaylistsDAO(Path path) throws IOException {
+        SnapshotFile.requirePosix(path);
+        this.path = path;
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        this.file = new AtomicJsonFile(path, null, AtomicJsonFile.DEFAULT_GROUP_WINDOW_MS,
+                (value, out) -> write(castList(value), out));
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public List<Playlist> loadAll() throws EmptyJsonFileException {
+        try {
+            if (!Files.exists(path) || Files.size(path) == 0) return new ArrayList<>();
+            return read();
+        } catch (SnapshotFile.FormatException | IndexOutOfBoundsException e) {
+            throw new CorruptSnapshotException(path.toString(), e);
+        } catch (IOException e) {
+            throw new NoPlaylistsException();
+        }
+    }
+
+    /**
+     * Replaces the snapshot atomically (temporary file, fsync, rename); concurrent saves share one write.
+     */
+    @Override
+    public void saveAll(List<Playlist> playlists) throws IOException {
+        try {
+            file.write(playlists);
+        } catch (IOException e) {
+            throw new IOException("Error saving playlists to " + path + ".", e);
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the playlists of a JSON file, e.g. files/playlists.json on the first start.
+     */
+    public void importJson(Path json) throws IOException, EmptyJsonFileException {
+        saveAll(new JsonPlaylistsDAO(json, false).loadAll());
+    }
+
+    /**
+     * Writes the snapshot's playlists as a JSON file that {@link JsonPlaylistsDAO} can load.
+     */
+    public void exportJson(Path json, boolean pretty) throws IOException, EmptyJsonFileException {
+        new JsonPlaylistsDAO(json, pretty).saveAll(loadAll());
+    }
+
+    private List<Playlist> read() throws IOException {
+        try (SnapshotFile snapshot = SnapshotFile.open(path, SnapshotFile.KIND_PLAYLISTS, SECTIONS)) {
+            int rows = snapshot.rows();
+            long base = snapshot.section(SONG_IDS);
+            ByteBuffer data = snapshot.map(base, snapshot.section(END));
+            int songIds = (int) (snapshot.section(SONG_IDS) - base);
+            int idStart = (int) (snapshot.section(ID_START) - base);
+            int ids = (int) (snapshot.section(ID) - base);
+            int names = (int) (snapshot.section(NAME) - base);
+            int descriptions = (int) (snapshot.section(DESCRIPTION) - base);
+            int heap = (int) (snapshot.section(HEAP) - base);
+
+            List<Playlist> playlists = new ArrayList<>(rows);
+            for (int row = 0; row < rows; row++) {
+                Playlist p = new Playlist();
+                p.setId(data.getInt(ids + 4 * row));
+                p.setName(string(data, heap, data.getInt(names + 4 * row)));
+                p.setDescription(string(data, heap, data.getInt(descriptions + 4 * row)));
+                long first = data.getLong(idStart + 8 * row);
+                long last = data.getLong(idStart + 8 * (row + 1));
+                List<Integer> songs = p.getSongIds();
+                for (long i = first; i < last; i++) {
+                    songs.add(data.getInt(songIds + (int) (4 * i)));
+                }
+                playlists.add(p);
+            }
+            return playlists;
+        }
+    }
+
+    private static String string(ByteBuffer data, int heap, int offset) {
+        return offset < 0 ? null : SnapshotFile.readString(data, heap, offset);
+    }
+
+    private static void write(List<Playlist> playlists, OutputStream stream) throws IOException {
+        int rows = playlists.size();
+        long[] sections = new long[SECTIONS];
+        SnapshotFile.Writer out = new SnapshotFile.Writer(stream);
+        out.header(SnapshotFile.KIND_PLAYLISTS);
+
+        sections[SONG_IDS] = out.position();
+        long[] starts = new long[rows + 1];
+        for (int row = 0; row < rows; row++) {
+            List<Integer> songIds = playlists.get(row).getSongIds();
+            int n = 0;
+            if (songIds != null) {
+                for (Integer id : songIds) {
+                    if (id == null) continue;
+                    out.putInt(id);
+                    n++;
+                }
+            }
+            starts[row + 1] = starts[row] + n;
+        }
+        out.align(8);
+        SnapshotFile.Heap heap = new SnapshotFile.Heap();
+        sections[ID_START] = out.position();
+        for (long start : starts) out.putLong(start);
+        sections[ID] = out.position();
+        for (Playlist p : playlists) out.putInt(p.getId());
+        sections[NAME] = out.position();
+        for (Playlist p : playlists) out.putInt(heap.add(p.getName()));
+        sections[DESCRIPTION] = out.position();
+        for (Playlist p : playlists) out.putInt(heap.add(p.getDescription()));
+        sections[HEAP] = out.position();
+        heap.writeTo(out);
+        sections[END] = out.position();
+        out.finish(rows, sections);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Playlist> castList(Object value) {
+        return (List<Playlist>) value;
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.Persistence;
+
+import org.example.Business.Model.NoteSource;
+import org.example.Business.Model.Song;
+import org.example.CustomExceptions.CorruptSnapshotException;
+import org.example.CustomExceptions.EmptyJsonFileException;
+import org.example.CustomExceptions.NoSongsException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Songs in a memory-mapped binary snapshot, files/songs.bin (see {@link SongSnapshot}).
+ * Loading maps the file and builds the songs from its columns without parsing anything; notes stay
+ * in the mapping until played. Saving writes a new snapshot with the same atomic replace as the JSON files.
+ * POSIX systems only: on Windows the constructor fails (see {@link SongSnapshot}).
+ */
+public class BinarySongsDAO implements SongsDAO {
+
+    public static final String DEFAULT_PATH = "files/songs.bin";
+
+    private final Path path;
+    private final AtomicJsonFile file;
+    private final List<Song> relocated = new ArrayList<>();       // Songs with unread notes in the last write,
+    private final List<NoteSource> sources = new ArrayList<>();   // their sources and rows in it
+
+    public BinarySongsDAO() throws IOException {
+        this(Path.of(DEFAULT_PATH));
+    }
+
+    public BinarySongsDAO(Path path) throws IOException {
+        SnapshotFile.requirePosix(path);
+        this.path = path;
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        this.file = new AtomicJsonFile(path, null, AtomicJsonFile.DEFAULT_GROUP_WINDOW_MS, new Content());
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Maps the snapshot for random access by row, without building any songs.
+     */
+    public SongSnapshot open() throws IOException {
+        return SongSnapshot.open(path);
+    }
+
+    @Override
+    public List<Song> loadAll() throws EmptyJsonFileException {
+        try {
+            if (!Files.exists(path) || Files.size(path) == 0) return new ArrayList<>();
+            return open().toSongs();
+        } catch (SnapshotFile.FormatException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new CorruptSnapshotException(path.toString(), e);
+        } catch (IOException e) {
+            throw new NoSongsException();
+        }
+    }
+
+    /**
+     * Replaces the snapshot atomically (temporary file, fsync, rename); concurrent saves share one write.
+     */
+    @Override
+    public void saveAll(List<Song> songs) throws IOException {
+        try {
+            file.write(songs);
+        } catch (IOException e) {
+            throw new IOException("Error saving songs to " + path + ".", e);
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the songs of a JSON file, e.g. files/songs.json on the first start.
+     */
+    public void importJson(Path json) throws IOException, EmptyJsonFileException {
+        saveAll(new JsonSongsDAO(json).loadAll());
+    }
+
+    /**
+     * Writes the snapshot's songs as a JSON file that {@link JsonSongsDAO} can load.
+     */
+    public void exportJson(Path json, boolean pretty) throws IOException, EmptyJsonFileException {
+        new JsonSongsDAO(json, pretty).saveAll(loadAll());
+    }
+
+    private final class Content implements AtomicJsonFile.Content {
+        @Override
+        public void write(Object value, OutputStream out) throws IOException {
+            @SuppressWarnings("unchecked")
+            List<Song> songs = (List<Song>) value;
+            relocated.clear();
+            sources.clear();
+            for (Song song : songs) {
+                NoteSource source = song.getNoteSource();
+                relocated.add(source != null ? song : null);
+                sources.add(source);
+            }
+            SongSnapshot.write(songs, out);
+        }
+
+        @Override
+        public void committed() {
+            // Songs whose notes were not read now read them from the new snapshot
+            try {
+                SongSnapshot snapshot = SongSnapshot.open(path);
+                for (int row = 0; row < relocated.size(); row++) {
+                    Song song = relocated.get(row);
+                    if (song != null) {
+                        song.replaceNoteSource(sources.get(row), new SongSnapshot.SnapshotNotes(snapshot, row));
+                    }
+                }
+            } catch (IOException e) {
+                // They keep reading the old snapshot, still mapped
+            } finally {
+                relocated.clear();
+                sources.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.Persistence;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Hash map from int keys to non-null values, without boxing the keys.
+ * Open addressing with linear probing over two parallel arrays; removal shifts the following
+ * entries back instead of leaving tombstones, so lookups stay short however many removals there are.
+ * Not thread-safe.
+ */
+public final class IntObjectMap<V> {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private Object[] values; // null marks a free slot
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, (int) (expectedSize / LOAD_FACTOR) + 1) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = slot(key);
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) return (V) v;
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return The previous value for the key, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("IntObjectMap does not store null values");
+        }
+        int i = slot(key);
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > resizeAt) {
+            allocateAndRehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * @return The value already stored for the key, or null if {@code value} was added.
+     */
+    public V putIfAbsent(int key, V value) {
+        V current = get(key);
+        if (current != null) return current;
+        put(key, value);
+        return null;
+    }
+
+    /**
+     * @return The removed value, or null if the key was not there.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = slot(key);
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                shiftBack(i);
+                size--;
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Object v : values) {
+            if (v != null) action.accept((V) v);
+        }
+    }
+
+    // Moves later entries of the probe run into the freed slot when their home slot allows it
+    private void shiftBack(int free) {
+        int i = free;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == null) break;
+            int home = slot(keys[i]);
+            // The entry can move to 'free' unless its home lies cyclically in (free, i]
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+                keys[free] = keys[i];
+                values[free] = values[i];
+                free = i;
+            }
+        }
+        values[free] = null;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9e3779b9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void allocateAndRehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == null) continue;
+            int i = slot(oldKeys[j]);
+            while (values[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
@@ -1,47 +1,62 @@
 package org.example.Persistence;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 import org.example.Business.Model.Playlist;
+import org.example.CustomExceptions.CorruptJsonFileException;
 import org.example.CustomExceptions.EmptyJsonFileException;
 import org.example.CustomExceptions.NoPlaylistsException;
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Playlists in files/playlists.json, written compact unless {@code pretty} is set.
+ */
 public class JsonPlaylistsDAO implements PlaylistsDAO {
 
-    private final String FILE_PATH = "files/playlists.json"; // 
+    public static final String DEFAULT_PATH = "files/playlists.json";
+    private static final Type LIST_TYPE = new TypeToken<ArrayList<Playlist>>() {}.getType();
+
+    private final String FILE_PATH;
     private final Gson gson;
+    private final AtomicJsonFile jsonFile;
 
     public JsonPlaylistsDAO() throws IOException {
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
-        File file = new File(FILE_PATH);
+        this(Path.of(DEFAULT_PATH), false);
+    }
+
+    public JsonPlaylistsDAO(Path path, boolean pretty) throws IOException {
+        this.FILE_PATH = path.toString();
+        this.gson = LibraryJson.get(pretty);
+        File file = path.toFile();
         file.createNewFile();
+        this.jsonFile = new AtomicJsonFile(path, gson, AtomicJsonFile.DEFAULT_GROUP_WINDOW_MS);
     }
 
     @Override
-    public List<Playlist> loadAll() {
-        File file = new File(FILE_PATH);
-        if (!file.exists()) {
-            return new ArrayList<>();
-        }
-
-        try (Reader reader = new FileReader(file)) {
-            Type listType = new TypeToken<ArrayList<Playlist>>() {}.getType();
-            List<Playlist> playlists = gson.fromJson(reader, listType);
+    public List<Playlist> loadAll() throws EmptyJsonFileException {
+        try {
+            List<Playlist> playlists = jsonFile.read(LIST_TYPE);
             return playlists != null ? playlists : new ArrayList<>();
+        } catch (JsonParseException e) {
+            // A damaged file is not an empty list: saving over it would lose the playlists
+            throw new CorruptJsonFileException(FILE_PATH, e);
         } catch (IOException e) {
-            return new ArrayList<>();
+            throw new NoPlaylistsException();
         }
     }
 
+    /**
+     * Replaces the file atomically (temporary file, fsync, rename); concurrent saves share one write.
+     */
     @Override
     public void saveAll(List<Playlist> playlists) throws IOException {
-        try (Writer writer = new FileWriter(FILE_PATH)) {
-            gson.newBuilder().setPrettyPrinting().create().toJson(playlists, writer);
+        try {
+            jsonFile.write(playlists);
         } catch (IOException e) {
             throw new IOException("Error saving playlists to JSON file.", e);
         }
@@ -1,46 +1,66 @@
 package org.example.Persistence;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParseException;
 import org.example.Business.Model.Song;
+import org.example.CustomExceptions.CorruptJsonFileException;
 import org.example.CustomExceptions.EmptyJsonFileException;
 import org.example.CustomExceptions.NoSongsException;
 
 import java.io.*;
-import java.lang.reflect.Type;
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.List;
 
+/**
+ * Songs in files/songs.json. Only the metadata is read at startup; each song's notes stay in the file
+ * until it is played or rendered (see {@link LazySongsFile}). Written compact unless {@code pretty} is set.
+ */
 public class JsonSongsDAO implements SongsDAO {
 
-    private final String FILE_PATH = "files/songs.json";
+    public static final String DEFAULT_PATH = "files/songs.json";
+
+    private final String FILE_PATH;
     private final Gson gson;
+    private final LazySongsFile songsFile;
+    private final AtomicJsonFile jsonFile;
 
     public JsonSongsDAO() throws IOException {
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
-        File file = new File(FILE_PATH);
+        this(Path.of(DEFAULT_PATH));
+    }
+
+    public JsonSongsDAO(Path path) throws IOException {
+        this(path, false);
+    }
+
+    public JsonSongsDAO(Path path, boolean pretty) throws IOException {
+        this.FILE_PATH = path.toString();
+        this.gson = LibraryJson.get(pretty);
+        File file = path.toFile();
         file.createNewFile();
+        this.songsFile = new LazySongsFile(path, gson);
+        this.jsonFile = new AtomicJsonFile(path, gson, AtomicJsonFile.DEFAULT_GROUP_WINDOW_MS, songsFile);
     }
 
 
     @Override
     public List<Song> loadAll() throws EmptyJsonFileException {
-        File file = new File(FILE_PATH);
-
-        try (Reader reader = new FileReader(file)) {
-            Type listType = new TypeToken<ArrayList<Song>>() {}.getType();
-            List<Song> songs = gson.fromJson(reader, listType);
-            return songs != null ? songs : new ArrayList<>();
+        try {
+            return songsFile.read();
+        } catch (JsonParseException e) {
+            // A damaged file is not an empty library: saving over it would lose the songs
+            throw new CorruptJsonFileException(FILE_PATH, e);
         } catch (IOException e) {
             throw new NoSongsException();
         }
     }
 
+    /**
+     * Replaces the file atomically (temporary file, fsync, rename); concurrent saves share one write.
+     */
     @Override
     public void saveAll(List<Song> songs) throws IOException{
-        try (Writer writer = new FileWriter(FILE_PATH)) {
-            gson.toJson(songs, writer);
+        try {
+            jsonFile.write(songs);
         } catch (IOException e) {
             throw new IOException("Error saving songs to JSON file.", e);
         }
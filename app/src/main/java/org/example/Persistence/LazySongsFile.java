@@ -0,0 +1,447 @@
+package org.example.Persistence;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.NoteSource;
+import org.example.Business.Model.Song;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * songs.json read without its notes. Loading scans the file byte by byte, binds each song's metadata
+ * with Gson and only remembers where its {@code "notes"} array starts and how long it is; the notes
+ * are parsed from that range the first time the song's {@link Song#getNotes()} is called. Startup
+ * time and heap then depend on the metadata, not on the number of notes.
+ *
+ * Saving copies the bytes of notes that were never read straight from the old file into the new
+ * one, and once the new file is in place those songs are pointed at it. The old file stays open
+ * until no song refers to it any more; the channel is then closed when it is garbage collected.
+ */
+final class LazySongsFile implements AtomicJsonFile.Content {
+
+    private static final NoteSequenceTypeAdapter NOTES_ADAPTER = new NoteSequenceTypeAdapter();
+    private static final byte[] NOTES_KEY = "\"notes\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path file;
+    private final Gson gson;
+    private final List<Relocation> relocations = new ArrayList<>(); // Unread notes copied by the last write
+
+    LazySongsFile(Path file, Gson gson) {
+        this.file = file;
+        this.gson = gson;
+    }
+
+    /**
+     * Reads the songs' metadata; a missing or empty file is an empty library.
+     * @throws JsonParseException if the file is not a JSON array of songs.
+     */
+    List<Song> read() throws IOException {
+        NotesFile notesFile;
+        try {
+            notesFile = new NotesFile(FileChannel.open(file, StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            return new ArrayList<>();
+        }
+        boolean keepOpen = false;
+        try {
+            List<Song> songs = new ArrayList<>();
+            keepOpen = new Scanner(notesFile).readSongs(songs);
+            return songs;
+        } finally {
+            if (!keepOpen) notesFile.channel.close();
+        }
+    }
+
+    // --- Writing ---
+
+    @Override
+    public void write(Object value, OutputStream out) throws IOException {
+        relocations.clear();
+        @SuppressWarnings("unchecked")
+        List<Song> songs = (List<Song>) value;
+        CountingOutputStream counter = new CountingOutputStream(out);
+        JsonWriter json = gson.newJsonWriter(new OutputStreamWriter(counter, StandardCharsets.UTF_8));
+        json.beginArray();
+        for (Song song : songs) {
+            NoteSource pending = song.getNoteSource();
+            if (pending == null) {
+                gson.toJson(song, Song.class, json);
+                continue;
+            }
+            if (!(pending instanceof FileNotes source)) {
+                // Notes kept elsewhere (e.g. a binary snapshot): read for the copy, not kept in the song
+                json.beginObject();
+                LibraryJson.songAdapter().writeMetadata(json, song);
+                json.name("notes");
+                NOTES_ADAPTER.writeNotes(json, pending.load());
+                json.endObject();
+                continue;
+            }
+            String notes = new String(source.readRaw(), StandardCharsets.UTF_8);
+            json.beginObject();
+            LibraryJson.songAdapter().writeMetadata(json, song);
+            json.name("notes").jsonValue(notes);
+            json.flush();
+            long length = notes.getBytes(StandardCharsets.UTF_8).length;
+            relocations.add(new Relocation(song, source, counter.count - length, length));
+            json.endObject();
+        }
+        json.endArray();
+        json.flush();
+    }
+
+    @Override
+    public void committed() {
+        if (relocations.isEmpty()) return;
+        NotesFile notesFile;
+        try {
+            notesFile = new NotesFile(FileChannel.open(file, StandardOpenOption.READ));
+        } catch (IOException e) {
+            // The songs keep reading the old file, which stays readable while it is open
+            relocations.clear();
+            return;
+        }
+        for (Relocation r : relocations) {
+            r.song.replaceNoteSource(r.source, new FileNotes(notesFile, r.start, r.length));
+        }
+        relocations.clear();
+    }
+
+    private record Relocation(Song song, FileNotes source, long start, long length) {}
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+            // The writer flushes to learn the offsets; the buffer below is flushed once at the end
+        }
+    }
+
+    // --- Notes left in the file ---
+
+    /** An open songs.json shared by the notes of every song read from it. */
+    private record NotesFile(FileChannel channel) {
+
+        byte[] read(long start, long length) throws IOException {
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Notes array too large: " + length + " bytes");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new EOFException("songs.json ends before the notes at byte " + start);
+                }
+            }
+            return buffer.array();
+        }
+    }
+
+    private record FileNotes(NotesFile file, long start, long length) implements NoteSource {
+
+        byte[] readRaw() throws IOException {
+            return file.read(start, length);
+        }
+
+        @Override
+        public NoteSequence load() {
+            try {
+                JsonReader reader = new JsonReader(new InputStreamReader(
+                        new ByteArrayInputStream(readRaw()), StandardCharsets.UTF_8));
+                NoteSequence notes = NOTES_ADAPTER.read(reader);
+                return notes != null ? notes : new NoteSequence();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading notes from songs.json", e);
+            }
+        }
+    }
+
+    // --- Reading ---
+
+    /**
+     * Walks the top-level array of songs. Values other than "notes" are only copied, not checked:
+     * Gson checks them when it binds the metadata, and the notes when they are read.
+     */
+    private final class Scanner {
+
+        private final NotesFile notesFile;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private final byte[] bytes = buffer.array();
+        private int pos;
+        private int limit;
+        private long base; // File offset of bytes[0]
+
+        private final ByteArrayOutputStream metadata = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream key = new ByteArrayOutputStream();
+
+        Scanner(NotesFile notesFile) {
+            this.notesFile = notesFile;
+            this.channel = notesFile.channel;
+        }
+
+        /**
+         * @return Whether any song was left with its notes in the file.
+         */
+        boolean readSongs(List<Song> songs) throws IOException {
+            boolean lazy = false;
+            int c = skipWhitespace();
+            if (c < 0) return false; // Empty file
+            if (c == 'n') {
+                literal(null);
+                expectEnd();
+                return false;
+            }
+            expect('[');
+            if (skipWhitespace() == ']') {
+                pos++;
+            } else {
+                while (true) {
+                    lazy |= readSong(songs);
+                    c = skipWhitespace();
+                    pos++;
+                    if (c == ']') break;
+                    if (c != ',') throw error("',' or ']' expected");
+                    skipWhitespace();
+                }
+            }
+            expectEnd();
+            return lazy;
+        }
+
+        // Copies the song object to 'metadata' with "notes": null and binds it
+        private boolean readSong(List<Song> songs) throws IOException {
+            expect('{');
+            metadata.reset();
+            metadata.write('{');
+            long notesStart = -1;
+            long notesLength = 0;
+            if (skipWhitespace() == '}') {
+                pos++;
+            } else {
+                boolean first = true;
+                while (true) {
+                    if (peek() != '"') throw error("member name expected");
+                    key.reset();
+                    string(key);
+                    if (!first) metadata.write(',');
+                    first = false;
+                    key.writeTo(metadata);
+                    if (skipWhitespace() != ':') throw error("':' expected");
+                    pos++;
+                    metadata.write(':');
+                    int start = skipWhitespace();
+                    if (isNotesKey()) {
+                        long offset = offset();
+                        boolean any = false;
+                        if (start == '[') {
+                            any = array();
+                        } else {
+                            value(null);
+                        }
+                        notesStart = any ? offset : -1; // An empty array needs no source: the song has no notes
+                        notesLength = offset() - offset;
+                        if (start != '[' && start != 'n') throw error("\"notes\" must be an array");
+                        metadata.write(NULL);
+                    } else {
+                        value(metadata);
+                    }
+                    int c = skipWhitespace();
+                    pos++;
+                    if (c == '}') break;
+                    if (c != ',') throw error("',' or '}' expected");
+                    skipWhitespace();
+                }
+            }
+            metadata.write('}');
+
+            Song song = gson.fromJson(new JsonReader(new StringReader(metadata.toString(StandardCharsets.UTF_8))), Song.class);
+            if (song == null) throw error("song expected");
+            songs.add(song);
+            if (notesStart < 0) return false;
+            song.setNoteSource(new FileNotes(notesFile, notesStart, notesLength));
+            return true;
+        }
+
+        private boolean isNotesKey() {
+            if (key.size() != NOTES_KEY.length) return false;
+            byte[] k = key.toByteArray();
+            for (int i = 0; i < k.length; i++) {
+                if (k[i] != NOTES_KEY[i]) return false;
+            }
+            return true;
+        }
+
+        // Copies (out != null) or skips one value
+        private void value(ByteArrayOutputStream out) throws IOException {
+            int c = peek();
+            if (c == '"') {
+                string(out);
+            } else if (c == '{' || c == '[') {
+                nested(out, 0);
+            } else {
+                literal(out);
+            }
+        }
+
+        // Skips an array, telling whether it has any element
+        private boolean array() throws IOException {
+            pos++; // Opening bracket
+            if (skipWhitespace() == ']') {
+                pos++;
+                return false;
+            }
+            nested(null, 1);
+            return true;
+        }
+
+        private void string(ByteArrayOutputStream out) throws IOException {
+            boolean escaped = false;
+            pos++; // Opening quote
+            if (out != null) out.write('"');
+            while (true) {
+                if (pos == limit && !fill()) throw error("unterminated string");
+                int from = pos;
+                for (; pos < limit; pos++) {
+                    byte b = bytes[pos];
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        pos++;
+                        if (out != null) out.write(bytes, from, pos - from);
+                        return;
+                    }
+                }
+                if (out != null) out.write(bytes, from, pos - from);
+            }
+        }
+
+        // An object or array, up to its matching closing bracket; 'depth' brackets are already open
+        private void nested(ByteArrayOutputStream out, int depth) throws IOException {
+            boolean inString = false;
+            boolean escaped = false;
+            while (true) {
+                if (pos == limit && !fill()) throw error("unterminated array or object");
+                int from = pos;
+                for (; pos < limit; pos++) {
+                    byte b = bytes[pos];
+                    if (inString) {
+                        if (escaped) {
+                            escaped = false;
+                        } else if (b == '\\') {
+                            escaped = true;
+                        } else if (b == '"') {
+                            inString = false;
+                        }
+                    } else if (b == '"') {
+                        inString = true;
+                    } else if (b == '{' || b == '[') {
+                        depth++;
+                    } else if ((b == '}' || b == ']') && --depth == 0) {
+                        pos++;
+                        if (out != null) out.write(bytes, from, pos - from);
+                        return;
+                    }
+                }
+                if (out != null) out.write(bytes, from, pos - from);
+            }
+        }
+
+        // Number, true, false or null
+        private void literal(ByteArrayOutputStream out) throws IOException {
+            long start = offset();
+            int c;
+            while ((c = peek()) >= 0 && c != ',' && c != '}' && c != ']' && !isWhitespace(c)) {
+                if (out != null) out.write(c);
+                pos++;
+            }
+            if (offset() == start) throw error("value expected");
+        }
+
+        private int skipWhitespace() throws IOException {
+            int c;
+            while (isWhitespace(c = peek())) pos++;
+            return c;
+        }
+
+        private void expect(int c) throws IOException {
+            if (skipWhitespace() != c) throw error("'" + (char) c + "' expected");
+            pos++;
+        }
+
+        private void expectEnd() throws IOException {
+            if (skipWhitespace() >= 0) throw error("data after the end of the song list");
+        }
+
+        private int peek() throws IOException {
+            if (pos == limit && !fill()) return -1;
+            return bytes[pos] & 0xff;
+        }
+
+        private boolean fill() throws IOException {
+            base += limit;
+            pos = 0;
+            limit = 0;
+            buffer.clear();
+            int n;
+            do {
+                n = channel.read(buffer);
+            } while (n == 0);
+            if (n < 0) return false;
+            limit = n;
+            return true;
+        }
+
+        private long offset() {
+            return base + pos;
+        }
+
+        private JsonSyntaxException error(String message) {
+            return new JsonSyntaxException(message + " at byte " + offset());
+        }
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+}
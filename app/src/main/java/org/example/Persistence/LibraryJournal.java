@@ -0,0 +1,309 @@
+package org.example.Persistence;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import org.example.Business.Model.NoteSource;
+import org.example.Business.Model.Playlist;
+import org.example.Business.Model.Song;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of library changes made since the last JSON snapshot.
+ *
+ * Each change is one line: the CRC-32 of the record in hex, a space, and the record as compact JSON,
+ * e.g. {@code 1a2b3c4d {"op":"deleteSong","id":7}}. A change costs one short append instead of
+ * rewriting a whole JSON file. Records are "put" or "delete" by ID, so replaying them over a snapshot
+ * that already contains some of them gives the same library. A song whose notes did not change gets
+ * an "update" record with its metadata only; replay takes the notes from the song it replaces.
+ *
+ * On {@link #replay} a record cut short (a crash in the middle of an append) or failing its
+ * checksum ends the log: it and anything after it are dropped and the file is truncated there.
+ * Not thread-safe; {@link LibraryRepository} calls it under its own locks.
+ */
+public final class LibraryJournal implements Closeable {
+
+    public static final String DEFAULT_PATH = "files/library.journal";
+
+    private static final NoteSequenceTypeAdapter NOTES_ADAPTER = new NoteSequenceTypeAdapter();
+
+    private final Path file;
+    private final Gson gson;
+    private final FileChannel channel;
+
+    public LibraryJournal() throws IOException {
+        this(Path.of(DEFAULT_PATH));
+    }
+
+    public LibraryJournal(Path file) throws IOException {
+        this.file = file;
+        this.gson = LibraryJson.compact();
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * The changes found in the log, last one per ID; a null value means the song or playlist was deleted.
+     * {@link #songUpdates} holds metadata for songs only found in the snapshot, to apply with
+     * {@link #withMetadata}.
+     */
+    public static final class Changes {
+        public final Map<Integer, Song> songs = new LinkedHashMap<>();
+        public final Map<Integer, Song> songUpdates = new LinkedHashMap<>();
+        public final Map<Integer, Playlist> playlists = new LinkedHashMap<>();
+        public int records;
+        public boolean truncated;
+    }
+
+    /**
+     * Reads the whole log. A damaged or incomplete tail is cut off the file so new records follow
+     * the last good one.
+     */
+    public Changes replay() throws IOException {
+        Changes changes = new Changes();
+        long good = 0;
+        channel.position(0);
+        InputStream in = Channels.newInputStream(channel);
+        byte[] buffer = new byte[64 * 1024];
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        long offset = 0;
+        int n;
+        outer:
+        while ((n = in.read(buffer)) > 0) {
+            int from = 0;
+            for (int i = 0; i < n; i++) {
+                if (buffer[i] != '\n') continue;
+                line.write(buffer, from, i - from);
+                from = i + 1;
+                long end = offset + i + 1;
+                if (!apply(line.toByteArray(), changes)) break outer;
+                good = end;
+                line.reset();
+            }
+            line.write(buffer, from, n - from);
+            offset += n;
+        }
+        if (channel.size() > good) {
+            changes.truncated = true;
+            channel.truncate(good);
+        }
+        channel.position(good);
+        return changes;
+    }
+
+    private boolean apply(byte[] line, Changes changes) {
+        int space = indexOf(line, (byte) ' ');
+        if (space != 8) return false;
+        String json = new String(line, space + 1, line.length - space - 1, StandardCharsets.UTF_8);
+        long crc;
+        try {
+            crc = Long.parseLong(new String(line, 0, space, StandardCharsets.US_ASCII), 16);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (crc != checksum(json)) return false;
+        try {
+            JsonObject record = JsonParser.parseString(json).getAsJsonObject();
+            switch (record.get("op").getAsString()) {
+                case "putSong" -> {
+                    Song s = gson.fromJson(record.get("song"), Song.class);
+                    changes.songs.put(s.getId(), s);
+                    changes.songUpdates.remove(s.getId());
+                }
+                case "updateSong" -> {
+                    Song s = gson.fromJson(record.get("song"), Song.class);
+                    if (changes.songs.get(s.getId()) != null) {
+                        changes.songs.put(s.getId(), withMetadata(changes.songs.get(s.getId()), s));
+                    } else if (!changes.songs.containsKey(s.getId())) {
+                        changes.songUpdates.put(s.getId(), s);
+                    } // Else deleted earlier in the log: nothing left to update
+                }
+                case "deleteSong" -> {
+                    int id = record.get("id").getAsInt();
+                    changes.songs.put(id, null);
+                    changes.songUpdates.remove(id);
+                }
+                case "putPlaylist" -> {
+                    Playlist p = gson.fromJson(record.get("playlist"), Playlist.class);
+                    changes.playlists.put(p.getId(), p);
+                }
+                case "deletePlaylist" -> changes.playlists.put(record.get("id").getAsInt(), null);
+                default -> {
+                    return false;
+                }
+            }
+        } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+            return false;
+        }
+        changes.records++;
+        return true;
+    }
+
+    /**
+     * {@code base} with the metadata of an "update" record, keeping its notes unread if they still are.
+     */
+    public static Song withMetadata(Song base, Song metadata) {
+        Song song = base.copy();
+        song.setTitle(metadata.getTitle());
+        song.setArtist(metadata.getArtist());
+        song.setDurationSeconds(metadata.getDurationSeconds());
+        song.setStyle(metadata.getStyle());
+        song.setMood(metadata.getMood());
+        song.setPlayable(metadata.isPlayable());
+        song.setTempo(metadata.getTempo());
+        return song;
+    }
+
+    // --- Records, encoded when the change is made so later edits to the objects do not leak in ---
+
+    /**
+     * The whole song. Notes still on disk are read for the record but not kept in the song.
+     */
+    public String putSong(Song song) {
+        return song("putSong", song, true);
+    }
+
+    /**
+     * The song without its notes, for a change that kept them (e.g. a rename).
+     */
+    public String updateSong(Song song) {
+        return song("updateSong", song, false);
+    }
+
+    public String deleteSong(int id) {
+        return delete("deleteSong", id);
+    }
+
+    public String putPlaylist(Playlist playlist) {
+        return put("putPlaylist", "playlist", playlist, Playlist.class);
+    }
+
+    public String deletePlaylist(int id) {
+        return delete("deletePlaylist", id);
+    }
+
+    private String song(String op, Song song, boolean withNotes) {
+        StringWriter json = new StringWriter();
+        try (JsonWriter out = gson.newJsonWriter(json)) {
+            out.beginObject();
+            out.name("op").value(op);
+            out.name("song").beginObject();
+            LibraryJson.songAdapter().writeMetadata(out, song);
+            if (withNotes) {
+                NoteSource pending = song.getNoteSource();
+                out.name("notes");
+                NOTES_ADAPTER.writeNotes(out, pending != null ? pending.load() : song.getNotes());
+            }
+            out.endObject();
+            out.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // A StringWriter does not fail
+        }
+        return encode(json.toString());
+    }
+
+    // Written straight to text: no JsonObject tree for a song with thousands of notes
+    private <T> String put(String op, String name, T value, Class<T> type) {
+        StringWriter json = new StringWriter();
+        try (JsonWriter out = gson.newJsonWriter(json)) {
+            out.beginObject();
+            out.name("op").value(op);
+            out.name(name);
+            gson.toJson(value, type, out);
+            out.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // A StringWriter does not fail
+        }
+        return encode(json.toString());
+    }
+
+    private static String delete(String op, int id) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", op);
+        record.addProperty("id", id);
+        return encode(record.toString());
+    }
+
+    private static String encode(String json) {
+        return String.format("%08x", checksum(json)) + ' ' + json + '\n';
+    }
+
+    /**
+     * Appends records made by the methods above, in one write and one fsync.
+     */
+    public void append(List<String> records) throws IOException {
+        if (records.isEmpty()) return;
+        StringBuilder sb = new StringBuilder();
+        for (String r : records) sb.append(r);
+        ByteBuffer bytes = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        long start = channel.position();
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            channel.truncate(start); // Leave no half-written record behind the good ones
+            channel.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Size of the log in bytes.
+     */
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Empties the log, once its changes are in a snapshot.
+     */
+    public void reset() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static long checksum(String json) {
+        CRC32 crc = new CRC32();
+        crc.update(json.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static int indexOf(byte[] bytes, byte b) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == b) return i;
+        }
+        return -1;
+    }
+}
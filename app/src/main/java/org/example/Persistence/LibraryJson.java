@@ -0,0 +1,56 @@
+package org.example.Persistence;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.example.Business.Model.Mood;
+import org.example.Business.Model.Note;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.Playlist;
+import org.example.Business.Model.Song;
+import org.example.Business.Model.TempoMap;
+
+/**
+ * Instancias de Gson compartidas por los DAO y el journal, creadas una sola vez con los adaptadores
+ * de la biblioteca registrados, de modo que canciones, notas y playlists se leen y escriben sin reflexión.
+ * La salida es compacta por defecto; {@link #pretty()} la indenta para leerla a mano.
+ * Gson es seguro entre hilos, así que todos pueden usar las mismas instancias.
+ */
+public final class LibraryJson {
+
+    private static final StringPool STRINGS = new StringPool();
+    private static final SongTypeAdapter SONG_ADAPTER = new SongTypeAdapter(STRINGS);
+    private static final Gson COMPACT = builder().create();
+    private static final Gson PRETTY = builder().setPrettyPrinting().create();
+
+    private LibraryJson() {
+    }
+
+    public static Gson compact() {
+        return COMPACT;
+    }
+
+    public static Gson pretty() {
+        return PRETTY;
+    }
+
+    public static Gson get(boolean pretty) {
+        return pretty ? PRETTY : COMPACT;
+    }
+
+    /**
+     * Adaptador de canciones registrado en las instancias compartidas.
+     */
+    static SongTypeAdapter songAdapter() {
+        return SONG_ADAPTER;
+    }
+
+    private static GsonBuilder builder() {
+        return new GsonBuilder()
+                .registerTypeAdapter(Song.class, SONG_ADAPTER)
+                .registerTypeAdapter(Playlist.class, new PlaylistTypeAdapter())
+                .registerTypeAdapter(Note.class, new NoteTypeAdapter())
+                .registerTypeAdapter(NoteSequence.class, new NoteSequenceTypeAdapter())
+                .registerTypeAdapter(TempoMap.class, new TempoMapTypeAdapter())
+                .registerTypeAdapter(Mood.class, new MoodTypeAdapter());
+    }
+}
@@ -0,0 +1,540 @@
+package org.example.Persistence;
+
+import org.example.Business.Model.Playlist;
+import org.example.Business.Model.Song;
+import org.example.CustomExceptions.EmptyJsonFileException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Authoritative in-memory copy of the library, loaded once from the DAOs.
+ *
+ * Reads never touch the disk. Songs and playlists are indexed by ID, and a reverse index maps each
+ * song to the playlists that contain it, so lookups and "is this song in use" checks are O(1). Writes change memory immediately and mark the songs or playlists
+ * as dirty; a background thread saves them through the DAOs every {@code flushIntervalMs}, or as soon
+ * as {@code flushThreshold} changes are pending, so a burst of edits costs one file write.
+ * {@link #close()} stops the thread and saves whatever is still pending.
+ *
+ * With a {@link LibraryJournal} the saves append one record per change to the journal instead of
+ * rewriting the JSON files. The journal is replayed over the JSON snapshot on startup, and once it
+ * grows past {@code journalMaxBytes} the background thread folds it into a new snapshot.
+ *
+ * All methods are thread-safe. Lists returned are snapshots; the songs and playlists in them are the
+ * stored objects, which the background thread serializes without holding the lock. They are never
+ * changed in place: to change one, edit a copy ({@link Song#copy()}, {@link Playlist#copy()}) and pass
+ * it to the matching update call.
+ */
+public final class LibraryRepository implements AutoCloseable {
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 2000;
+    public static final int DEFAULT_FLUSH_THRESHOLD = 64;
+    public static final long DEFAULT_JOURNAL_MAX_BYTES = 4L * 1024 * 1024;
+
+    private final SongsDAO songsDAO;
+    private final PlaylistsDAO playlistsDAO;
+    private final int flushThreshold;
+    private final ScheduledExecutorService flusher;
+    private final LibraryJournal journal; // null: every save rewrites the JSON files
+    private final long journalMaxBytes;
+
+    // Library order, plus an index by ID (the first song or playlist with an ID wins, as in a linear search)
+    // and that item's position in the list, so replacing it takes no scan. Removals shift the list and rebuild the positions
+    private final List<Song> songs;
+    private final IntObjectMap<Song> songsById;
+    private final IntObjectMap<Integer> songPositions;
+    private final List<Playlist> playlists;
+    private final IntObjectMap<Playlist> playlistsById;
+    private final IntObjectMap<Integer> playlistPositions;
+
+    // Song ID -> IDs of the playlists containing it, once per occurrence
+    private final IntObjectMap<PlaylistRefs> playlistsBySong = new IntObjectMap<>();
+    // Song IDs each playlist had when it was last indexed, in case a caller edits getSongIds() in place before updating
+    private final Map<Playlist, int[]> indexedSongIds = new IdentityHashMap<>();
+
+    private List<String> journalPending = new ArrayList<>();
+    private boolean songsDirty;
+    private boolean playlistsDirty;
+    private int pendingChanges;
+    private long changeCount;   // Changes made so far
+    private long savedCount;    // Changes known to be on disk; only read and written under saveLock
+    private boolean journalClosed; // Under saveLock
+    private boolean flushQueued;
+    private boolean closed;
+
+    // Held while saving, so an older snapshot never overwrites a newer one
+    private final Object saveLock = new Object();
+
+    public LibraryRepository(SongsDAO songsDAO, PlaylistsDAO playlistsDAO) throws EmptyJsonFileException {
+        this(songsDAO, playlistsDAO, DEFAULT_FLUSH_INTERVAL_MS, DEFAULT_FLUSH_THRESHOLD);
+    }
+
+    /**
+     * @param flushIntervalMs Longest time a change stays only in memory.
+     * @param flushThreshold Pending changes that trigger a save before the interval ends.
+     */
+    public LibraryRepository(SongsDAO songsDAO, PlaylistsDAO playlistsDAO, long flushIntervalMs, int flushThreshold)
+            throws EmptyJsonFileException {
+        this(songsDAO, playlistsDAO, flushIntervalMs, flushThreshold, null, DEFAULT_JOURNAL_MAX_BYTES);
+    }
+
+    /**
+     * @param journal Journal of the changes since the JSON snapshot, or null to rewrite the files on every save.
+     * @param journalMaxBytes Journal size that triggers folding it into a new snapshot.
+     */
+    public LibraryRepository(SongsDAO songsDAO, PlaylistsDAO playlistsDAO, long flushIntervalMs, int flushThreshold,
+                             LibraryJournal journal, long journalMaxBytes) throws EmptyJsonFileException {
+        if (flushIntervalMs <= 0 || flushThreshold <= 0 || journalMaxBytes <= 0) {
+            throw new IllegalArgumentException("Flush interval, threshold and journal size must be positive");
+        }
+        this.songsDAO = songsDAO;
+        this.playlistsDAO = playlistsDAO;
+        this.flushThreshold = flushThreshold;
+        this.journal = journal;
+        this.journalMaxBytes = journalMaxBytes;
+
+        this.songs = new ArrayList<>(songsDAO.loadAll());
+        this.playlists = new ArrayList<>(playlistsDAO.loadAll());
+        if (journal != null) {
+            replay(journal);
+        }
+
+        this.songsById = new IntObjectMap<>(songs.size());
+        for (Song s : songs) {
+            songsById.putIfAbsent(s.getId(), s);
+        }
+        this.songPositions = positions(songs, Song::getId);
+        this.playlistsById = new IntObjectMap<>(playlists.size());
+        for (Playlist p : playlists) {
+            playlistsById.putIfAbsent(p.getId(), p);
+            index(p);
+            p.recalculateStats(songsById::get); // The stored totals may predate edits to the songs
+        }
+        this.playlistPositions = positions(playlists, Playlist::getId);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "library-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void replay(LibraryJournal journal) {
+        LibraryJournal.Changes changes;
+        try {
+            changes = journal.replay();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading the library journal " + journal.getFile(), e);
+        }
+        if (changes.truncated) {
+            System.err.println("Library journal " + journal.getFile() + " ended in a damaged record; "
+                    + changes.records + " changes recovered");
+        }
+        applyChanges(songs, changes.songs, Song::getId);
+        applyChanges(playlists, changes.playlists, Playlist::getId);
+        for (ListIterator<Song> it = songs.listIterator(); it.hasNext() && !changes.songUpdates.isEmpty(); ) {
+            Song s = it.next();
+            Song metadata = changes.songUpdates.remove(s.getId()); // Only the first song with the ID, as updateSong
+            if (metadata != null) it.set(LibraryJournal.withMetadata(s, metadata));
+        }
+    }
+
+    // The first item with a changed ID is replaced or removed in place; songs and playlists the snapshot lacks go last
+    private static <T> void applyChanges(List<T> items, Map<Integer, T> changes, ToIntFunction<T> id) {
+        if (changes.isEmpty()) return;
+        Set<Integer> seen = new HashSet<>();
+        for (ListIterator<T> it = items.listIterator(); it.hasNext(); ) {
+            int key = id.applyAsInt(it.next());
+            if (!changes.containsKey(key) || !seen.add(key)) continue;
+            T changed = changes.get(key);
+            if (changed == null) {
+                it.remove();
+                seen.remove(key); // Every copy of a deleted ID goes
+            } else {
+                it.set(changed);
+            }
+        }
+        changes.forEach((key, item) -> {
+            if (item != null && !seen.contains(key)) items.add(item);
+        });
+    }
+
+    // Position of the first item with each ID
+    private static <T> IntObjectMap<Integer> positions(List<T> items, ToIntFunction<T> id) {
+        IntObjectMap<Integer> positions = new IntObjectMap<>(items.size());
+        rebuildPositions(positions, items, id);
+        return positions;
+    }
+
+    private static <T> void rebuildPositions(IntObjectMap<Integer> positions, List<T> items, ToIntFunction<T> id) {
+        positions.clear();
+        for (int i = 0; i < items.size(); i++) {
+            positions.putIfAbsent(id.applyAsInt(items.get(i)), i);
+        }
+    }
+
+    // --- Songs ---
+
+    public synchronized List<Song> getSongs() {
+        return new ArrayList<>(songs);
+    }
+
+    public synchronized Song getSong(int id) {
+        return songsById.get(id);
+    }
+
+    public synchronized void addSong(Song song) {
+        songs.add(song);
+        songsById.putIfAbsent(song.getId(), song);
+        songPositions.putIfAbsent(song.getId(), songs.size() - 1);
+        if (journal != null) journalPending.add(journal.putSong(song));
+        changed(true, 1);
+    }
+
+    public synchronized void addSongs(List<Song> added) {
+        for (Song s : added) {
+            songs.add(s);
+            songsById.putIfAbsent(s.getId(), s);
+            songPositions.putIfAbsent(s.getId(), songs.size() - 1);
+            if (journal != null) journalPending.add(journal.putSong(s));
+        }
+        changed(true, added.size());
+    }
+
+    /**
+     * Replaces the first song with the same ID.
+     * @return false if there is no such song.
+     */
+    public synchronized boolean updateSong(Song song) {
+        Integer position = songPositions.get(song.getId());
+        if (position == null) return false;
+        Song old = songs.set(position, song);
+        songsById.put(song.getId(), song);
+        if (journal != null) {
+            // Edits that kept the notes (a copy of the stored song) journal the metadata alone
+            journalPending.add(song.sharesNotesWith(old) ? journal.updateSong(song) : journal.putSong(song));
+        }
+        changed(true, 1);
+        refreshPlaylistStats(song.getId());
+        return true;
+    }
+
+    /**
+     * Removes every song with the ID.
+     * @return false if there was none.
+     */
+    public synchronized boolean removeSong(int id) {
+        if (!songsById.containsKey(id)) return false;
+        songs.removeIf(s -> s.getId() == id);
+        songsById.remove(id);
+        rebuildPositions(songPositions, songs, Song::getId);
+        if (journal != null) journalPending.add(journal.deleteSong(id));
+        changed(true, 1);
+        refreshPlaylistStats(id);
+        return true;
+    }
+
+    // Playlists keep their total duration and playable count; only those containing the song change.
+    // The new totals go into copies, as a flush may be serializing the stored playlists
+    private void refreshPlaylistStats(int songId) {
+        PlaylistRefs refs = playlistsBySong.get(songId);
+        if (refs == null) return;
+        for (int id : Arrays.stream(refs.ids, 0, refs.size).distinct().toArray()) {
+            Playlist p = playlistsById.get(id);
+            if (p == null) continue;
+            Playlist refreshed = p.copy();
+            refreshed.recalculateStats(songsById::get);
+            playlists.set(playlistPositions.get(id), refreshed);
+            playlistsById.put(id, refreshed);
+            indexedSongIds.put(refreshed, indexedSongIds.remove(p));
+        }
+        changed(false, 1);
+    }
+
+    // --- Playlists ---
+
+    public synchronized List<Playlist> getPlaylists() {
+        return new ArrayList<>(playlists);
+    }
+
+    public synchronized Playlist getPlaylist(int id) {
+        return playlistsById.get(id);
+    }
+
+    /**
+     * Whether any playlist contains the song.
+     */
+    public synchronized boolean isSongInAnyPlaylist(int songId) {
+        return playlistsBySong.containsKey(songId);
+    }
+
+    /**
+     * IDs of the playlists containing the song, in no particular order.
+     */
+    public synchronized int[] getPlaylistIdsContaining(int songId) {
+        PlaylistRefs refs = playlistsBySong.get(songId);
+        return refs == null ? new int[0] : Arrays.stream(refs.ids, 0, refs.size).distinct().toArray();
+    }
+
+    public synchronized void addPlaylist(Playlist playlist) {
+        playlists.add(playlist);
+        playlistsById.putIfAbsent(playlist.getId(), playlist);
+        playlistPositions.putIfAbsent(playlist.getId(), playlists.size() - 1);
+        index(playlist);
+        if (journal != null) journalPending.add(journal.putPlaylist(playlist));
+        changed(false, 1);
+    }
+
+    /**
+     * Replaces the first playlist with the same ID.
+     * @return false if there is no such playlist.
+     */
+    public synchronized boolean updatePlaylist(Playlist playlist) {
+        Integer position = playlistPositions.get(playlist.getId());
+        if (position == null) return false;
+        unindex(playlists.set(position, playlist));
+        playlistsById.put(playlist.getId(), playlist);
+        index(playlist);
+        if (journal != null) journalPending.add(journal.putPlaylist(playlist));
+        changed(false, 1);
+        return true;
+    }
+
+    /**
+     * Removes every playlist with the ID.
+     * @return false if there was none.
+     */
+    public synchronized boolean removePlaylist(int id) {
+        if (!playlistsById.containsKey(id)) return false;
+        playlists.removeIf(p -> {
+            if (p.getId() != id) return false;
+            unindex(p);
+            return true;
+        });
+        playlistsById.remove(id);
+        rebuildPositions(playlistPositions, playlists, Playlist::getId);
+        if (journal != null) journalPending.add(journal.deletePlaylist(id));
+        changed(false, 1);
+        return true;
+    }
+
+    private void index(Playlist p) {
+        List<Integer> ids = p.getSongIds();
+        int[] songIds = new int[ids == null ? 0 : ids.size()];
+        for (int i = 0; i < songIds.length; i++) {
+            int songId = ids.get(i);
+            songIds[i] = songId;
+            PlaylistRefs refs = playlistsBySong.get(songId);
+            if (refs == null) {
+                refs = new PlaylistRefs();
+                playlistsBySong.put(songId, refs);
+            }
+            refs.add(p.getId());
+        }
+        indexedSongIds.put(p, songIds);
+    }
+
+    private void unindex(Playlist p) {
+        int[] songIds = indexedSongIds.remove(p);
+        if (songIds == null) return;
+        for (int songId : songIds) {
+            PlaylistRefs refs = playlistsBySong.get(songId);
+            if (refs != null && refs.remove(p.getId()) && refs.size == 0) {
+                playlistsBySong.remove(songId);
+            }
+        }
+    }
+
+    // --- Write-behind ---
+
+    public synchronized int getPendingChanges() {
+        return pendingChanges;
+    }
+
+    private void changed(boolean songChange, int count) {
+        if (songChange) {
+            songsDirty = true;
+        } else {
+            playlistsDirty = true;
+        }
+        pendingChanges += count;
+        changeCount++;
+        if (pendingChanges >= flushThreshold && !flushQueued && !closed) {
+            flushQueued = true;
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Saves the pending changes now, on the calling thread, and returns once they are on disk.
+     * If a save fails its changes stay pending and are retried on the next flush.
+     *
+     * Flushes group-commit: threads that call this while another flush is writing wait for it, and
+     * return straight away if a flush that started after their changes has already saved them.
+     */
+    public void flush() throws IOException {
+        long target;
+        synchronized (this) {
+            target = changeCount;
+        }
+        synchronized (saveLock) {
+            if (journalClosed) return;
+            if (savedCount >= target && (journal == null || journal.size() <= journalMaxBytes)) {
+                return;
+            }
+            long saving;
+            synchronized (this) {
+                saving = changeCount;
+            }
+            if (journal != null) {
+                flushJournal();
+            } else {
+                flushSnapshots();
+            }
+            savedCount = saving;
+        }
+    }
+
+    private void flushSnapshots() throws IOException {
+        List<Song> songSnapshot = null;
+        List<Playlist> playlistSnapshot = null;
+        synchronized (this) {
+            if (songsDirty) {
+                songSnapshot = new ArrayList<>(songs);
+                songsDirty = false;
+            }
+            if (playlistsDirty) {
+                playlistSnapshot = new ArrayList<>(playlists);
+                playlistsDirty = false;
+            }
+            pendingChanges = 0;
+            flushQueued = false;
+        }
+        if (songSnapshot != null) {
+            try {
+                songsDAO.saveAll(songSnapshot);
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    songsDirty = true;
+                    playlistsDirty |= playlistSnapshot != null;
+                }
+                throw e;
+            }
+        }
+        if (playlistSnapshot != null) {
+            try {
+                playlistsDAO.saveAll(playlistSnapshot);
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    playlistsDirty = true;
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Appends the pending records, or writes a new snapshot and empties the journal once it is too big
+    private void flushJournal() throws IOException {
+        List<String> records;
+        List<Song> songSnapshot = null;
+        List<Playlist> playlistSnapshot = null;
+        synchronized (this) {
+            records = journalPending;
+            journalPending = new ArrayList<>();
+            long bytes = journal.size();
+            for (String r : records) bytes += r.length();
+            if (bytes > journalMaxBytes) {
+                // Taken together with the records, so the snapshot holds exactly the changes dropped from the journal
+                songSnapshot = new ArrayList<>(songs);
+                playlistSnapshot = new ArrayList<>(playlists);
+            }
+            songsDirty = false;
+            playlistsDirty = false;
+            pendingChanges = 0;
+            flushQueued = false;
+        }
+        try {
+            if (songSnapshot != null) {
+                songsDAO.saveAll(songSnapshot);
+                playlistsDAO.saveAll(playlistSnapshot);
+                journal.reset();
+            } else {
+                journal.append(records);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The journal still holds everything before these records; they go out with the next flush
+            synchronized (this) {
+                records.addAll(journalPending);
+                journalPending = records;
+            }
+            throw e;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error saving the library (will retry): " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the background saves and writes whatever is pending. Changes made after closing are
+     * not saved; closing again does nothing.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (journal != null) {
+            synchronized (saveLock) {
+                journalClosed = true;
+                journal.close();
+            }
+        }
+    }
+
+    // Small multiset of playlist IDs; most songs are in a handful of playlists
+    private static final class PlaylistRefs {
+        int[] ids = new int[2];
+        int size;
+
+        void add(int playlistId) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = playlistId;
+        }
+
+        boolean remove(int playlistId) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == playlistId) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.Persistence;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.Business.Model.Mood;
+
+import java.io.IOException;
+
+/**
+ * Escribe un {@link Mood} por su nombre ({@code "HAPPY"}). Un nombre desconocido se lee como null,
+ * igual que con el adaptador de enums de Gson.
+ */
+public class MoodTypeAdapter extends TypeAdapter<Mood> {
+
+    private static final Mood[] MOODS = Mood.values();
+
+    @Override
+    public void write(JsonWriter out, Mood mood) throws IOException {
+        if (mood == null) {
+            out.nullValue();
+        } else {
+            out.value(mood.name());
+        }
+    }
+
+    @Override
+    public Mood read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String name = in.nextString();
+        for (Mood mood : MOODS) {
+            if (mood.name().equals(name)) return mood;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.Persistence;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.NoteView;
+
+import java.io.IOException;
+
+/**
+ * Lee y escribe una {@link NoteSequence} con la misma forma JSON que la antigua {@code List<Note>}:
+ * un array de objetos {@code {"frequency": ..., "durationMs": ..., "track": ...}}.
+ * Los campos que falten valen 0 y los desconocidos se ignoran, igual que con la deserialización por reflexión.
+ */
+public class NoteSequenceTypeAdapter extends TypeAdapter<NoteSequence> {
+
+    @Override
+    public void write(JsonWriter out, NoteSequence notes) throws IOException {
+        writeNotes(out, notes);
+    }
+
+    /**
+     * Escribe cualquier vista de notas, p. ej. la que devuelve {@link org.example.Business.Model.Song#getNotes()}.
+     */
+    public void writeNotes(JsonWriter out, NoteView notes) throws IOException {
+        if (notes == null) {
+            out.nullValue();
+            return;
+        }
+        // Cada nota se escribe de una vez como texto ya formado: los nombres son fijos y no hace falta escaparlos.
+        // Los escritores que no producen texto (p. ej. toJsonTree) no admiten JSON ya formado
+        boolean text = out.getClass() == JsonWriter.class;
+        StringBuilder note = new StringBuilder(64);
+        out.beginArray();
+        for (int i = 0; i < notes.size(); i++) {
+            double frequency = notes.getFrequency(i);
+            if (!Double.isFinite(frequency) || !text) {
+                out.beginObject();
+                out.name("frequency").value(frequency); // Con NaN o infinitos, JsonWriter decide si los admite, como antes
+                out.name("durationMs").value(notes.getDurationTicks(i));
+                out.name("track").value(notes.getTrack(i));
+                out.endObject();
+                continue;
+            }
+            note.setLength(0);
+            note.append("{\"frequency\":").append(frequency)
+                    .append(",\"durationMs\":").append(notes.getDurationTicks(i))
+                    .append(",\"track\":").append(notes.getTrack(i))
+                    .append('}');
+            out.jsonValue(note.toString());
+        }
+        out.endArray();
+    }
+
+    @Override
+    public NoteSequence read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        NoteSequence notes = new NoteSequence();
+        in.beginArray();
+        while (in.hasNext()) {
+            double frequency = 0;
+            int durationMs = 0;
+            int track = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "frequency" -> frequency = in.nextDouble();
+                    case "durationMs" -> durationMs = in.nextInt();
+                    case "track" -> track = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            notes.add(frequency, durationMs, track);
+        }
+        in.endArray();
+        notes.trimToSize(); // Las canciones cargadas no suelen crecer
+        return notes;
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.Persistence;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.Business.Model.Note;
+
+import java.io.IOException;
+
+/**
+ * Lee y escribe una {@link Note} suelta como {@code {"frequency": ..., "durationMs": ..., "track": ...}},
+ * la misma forma que cada elemento del array de {@link NoteSequenceTypeAdapter}.
+ */
+public class NoteTypeAdapter extends TypeAdapter<Note> {
+
+    @Override
+    public void write(JsonWriter out, Note note) throws IOException {
+        if (note == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("frequency").value(note.getFrequency());
+        out.name("durationMs").value(note.getDurationMs());
+        out.name("track").value(note.getTrack());
+        out.endObject();
+    }
+
+    @Override
+    public Note read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Note note = new Note();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "frequency" -> note.setFrequency(in.nextDouble());
+                case "durationMs" -> note.setDurationMs(in.nextInt());
+                case "track" -> note.setTrack(in.nextInt());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return note;
+    }
+}
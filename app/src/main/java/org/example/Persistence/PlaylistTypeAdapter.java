@@ -0,0 +1,77 @@
+package org.example.Persistence;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.Business.Model.Playlist;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Lee y escribe una {@link Playlist} sin reflexión, con los nombres de campo que usaba Gson.
+ * {@code totalDuration} y {@code playableCount} se siguen escribiendo, pero no se leen:
+ * son una caché que se recalcula al cargar la biblioteca.
+ */
+public class PlaylistTypeAdapter extends TypeAdapter<Playlist> {
+
+    @Override
+    public void write(JsonWriter out, Playlist playlist) throws IOException {
+        if (playlist == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(playlist.getId());
+        if (playlist.getName() != null) out.name("name").value(playlist.getName());
+        if (playlist.getDescription() != null) out.name("description").value(playlist.getDescription());
+        if (playlist.getSongIds() != null) {
+            out.name("songIds").beginArray();
+            for (Integer id : playlist.getSongIds()) {
+                if (id == null) {
+                    out.nullValue();
+                } else {
+                    out.value(id.intValue());
+                }
+            }
+            out.endArray();
+        }
+        out.name("totalDuration").value(playlist.getTotalDuration());
+        out.name("playableCount").value(playlist.getPlayableCount());
+        out.endObject();
+    }
+
+    @Override
+    public Playlist read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Playlist playlist = new Playlist();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull(); // "songIds": null se queda en lista vacía
+                continue;
+            }
+            switch (name) {
+                case "id" -> playlist.setId(in.nextInt());
+                case "name" -> playlist.setName(in.nextString());
+                case "description" -> playlist.setDescription(in.nextString());
+                case "songIds" -> {
+                    List<Integer> ids = playlist.getSongIds();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        ids.add(in.nextInt());
+                    }
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return playlist;
+    }
+}
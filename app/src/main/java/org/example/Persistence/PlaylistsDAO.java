@@ -11,7 +11,7 @@ import java.util.List;
  */
 public interface PlaylistsDAO {
 
-    List<Playlist> loadAll();
+    List<Playlist> loadAll() throws EmptyJsonFileException;
 
     void saveAll(List<Playlist> playlists) throws IOException;
 }
\ No newline at end of file
@@ -0,0 +1,262 @@
+package org.example.Persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Layout shared by the binary snapshots (songs.bin, playlists.bin), all little-endian:
+ * <pre>
+ *   header   magic "SPLB", format version, kind                      16 bytes
+ *   sections one after another, each starting on an 8-byte boundary
+ *   trailer  row count, section count, start offset of each section
+ *   footer   trailer offset, magic, format version                   16 bytes
+ * </pre>
+ * The trailer goes last so the file can be written in one pass: the note data comes first and its
+ * size is only known once it is written. Readers start at the footer, check magic and version, and
+ * map only the sections they need.
+ *
+ * Strings and other variable-length values live in a heap section and columns hold their offset in
+ * it (-1 for null); each heap entry is its length followed by its bytes, and equal strings are stored once.
+ */
+final class SnapshotFile implements AutoCloseable {
+
+    static final int MAGIC = 0x424c5053; // "SPLB" in little-endian
+    static final int VERSION = 1;
+    static final int KIND_SONGS = 1;
+    static final int KIND_PLAYLISTS = 2;
+
+    private static final int HEADER_BYTES = 16;
+    private static final int FOOTER_BYTES = 16;
+
+    /**
+     * The file is not a snapshot this version can read.
+     */
+    static final class FormatException extends IOException {
+        FormatException(String message) {
+            super(message);
+        }
+    }
+
+    private final FileChannel channel;
+    private final int rows;
+    private final long[] sections; // Start of each section; the last entry is the end of the data
+
+    private SnapshotFile(FileChannel channel, int rows, long[] sections) {
+        this.channel = channel;
+        this.rows = rows;
+        this.sections = sections;
+    }
+
+    /**
+     * Fails on Windows. Snapshots stay mapped until they are garbage collected and every save renames a
+     * new file over the old one, which Windows refuses while the old one is mapped.
+     */
+    static void requirePosix(Path path) throws IOException {
+        if (System.getProperty("os.name", "").startsWith("Windows")) {
+            throw new IOException("Binary storage (" + path + ") is not supported on Windows; use the JSON files.");
+        }
+    }
+
+    /**
+     * Opens a snapshot and checks its footer and trailer. Reads a few bytes at each end of the file only.
+     */
+    static SnapshotFile open(Path path, int kind, int sectionCount) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES + FOOTER_BYTES) throw new FormatException("too short to be a snapshot");
+            ByteBuffer header = read(channel, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC) throw new FormatException("not a snapshot");
+            if (header.getInt(4) != VERSION) throw new FormatException("unsupported format version " + header.getInt(4));
+            if (header.getInt(8) != kind) throw new FormatException("snapshot of another kind (" + header.getInt(8) + ")");
+            ByteBuffer footer = read(channel, size - FOOTER_BYTES, FOOTER_BYTES);
+            long trailerStart = footer.getLong(0);
+            if (footer.getInt(8) != MAGIC || footer.getInt(12) != VERSION) throw new FormatException("damaged footer");
+            int trailerBytes = 8 + 8 * sectionCount;
+            if (trailerStart < HEADER_BYTES || trailerStart + trailerBytes != size - FOOTER_BYTES) {
+                throw new FormatException("damaged trailer");
+            }
+            ByteBuffer trailer = read(channel, trailerStart, trailerBytes);
+            int rows = trailer.getInt(0);
+            if (rows < 0 || trailer.getInt(4) != sectionCount) throw new FormatException("damaged trailer");
+            long[] sections = new long[sectionCount];
+            long previous = HEADER_BYTES;
+            for (int i = 0; i < sectionCount; i++) {
+                sections[i] = trailer.getLong(8 + 8 * i);
+                if (sections[i] < previous || sections[i] > trailerStart) throw new FormatException("damaged trailer");
+                previous = sections[i];
+            }
+            return new SnapshotFile(channel, rows, sections);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    long section(int i) {
+        return sections[i];
+    }
+
+    /**
+     * Maps [from, to) read-only. The mapping stays valid after {@link #close()}.
+     */
+    ByteBuffer map(long from, long to) throws IOException {
+        if (to - from > Integer.MAX_VALUE) throw new FormatException("section too large to map: " + (to - from) + " bytes");
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new FormatException("cut short");
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads the heap entry at {@code offset} of a heap that starts at {@code heapStart} in {@code buffer}.
+     */
+    static String readString(ByteBuffer buffer, int heapStart, int offset) {
+        int length = buffer.getInt(heapStart + offset);
+        byte[] bytes = new byte[length];
+        buffer.get(heapStart + offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // --- Writing ---
+
+    /**
+     * Sequential little-endian writer that knows its offset in the file.
+     */
+    static final class Writer {
+        private final OutputStream out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        private long written;
+
+        Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        long position() {
+            return written + buffer.position();
+        }
+
+        void header(int kind) throws IOException {
+            putInt(MAGIC);
+            putInt(VERSION);
+            putInt(kind);
+            putInt(0);
+        }
+
+        /**
+         * Writes the trailer and footer; {@code sections} ends with the end of the data.
+         */
+        void finish(int rows, long[] sections) throws IOException {
+            align(8);
+            long trailerStart = position();
+            putInt(rows);
+            putInt(sections.length);
+            for (long s : sections) putLong(s);
+            putLong(trailerStart);
+            putInt(MAGIC);
+            putInt(VERSION);
+            drain();
+        }
+
+        void align(int bytes) throws IOException {
+            while (position() % bytes != 0) putByte(0);
+        }
+
+        void putByte(int b) throws IOException {
+            room(1);
+            buffer.put((byte) b);
+        }
+
+        void putInt(int v) throws IOException {
+            room(4);
+            buffer.putInt(v);
+        }
+
+        void putLong(long v) throws IOException {
+            room(8);
+            buffer.putLong(v);
+        }
+
+        void putDouble(double v) throws IOException {
+            room(8);
+            buffer.putDouble(v);
+        }
+
+        void put(byte[] bytes, int offset, int length) throws IOException {
+            drain();
+            out.write(bytes, offset, length);
+            written += length;
+        }
+
+        private void room(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) drain();
+        }
+
+        private void drain() throws IOException {
+            out.write(buffer.array(), 0, buffer.position());
+            written += buffer.position();
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Heap being built: strings are stored once however many rows use them.
+     */
+    static final class Heap {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        int add(String s) {
+            if (s == null) return -1;
+            Integer offset = strings.get(s);
+            if (offset == null) {
+                offset = add(s.getBytes(StandardCharsets.UTF_8));
+                strings.put(s, offset);
+            }
+            return offset;
+        }
+
+        int add(byte[] entry) {
+            int offset = bytes.size();
+            if ((long) offset + 4 + entry.length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Snapshot heap over 2 GB");
+            }
+            bytes.write(entry.length);
+            bytes.write(entry.length >>> 8);
+            bytes.write(entry.length >>> 16);
+            bytes.write(entry.length >>> 24);
+            bytes.write(entry, 0, entry.length);
+            return offset;
+        }
+
+        void writeTo(Writer out) throws IOException {
+            byte[] data = bytes.toByteArray();
+            out.put(data, 0, data.length);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package org.example.Persistence;
+
+import org.example.Business.Model.Mood;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.NoteSource;
+import org.example.Business.Model.NoteView;
+import org.example.Business.Model.Song;
+import org.example.Business.Model.TempoMap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A songs.bin snapshot mapped into memory (format in {@link SnapshotFile}). Each song field is a
+ * fixed-width column indexed by row, so opening the file reads only its footer and any field of any
+ * row is one lookup that touches only the page holding it. Notes sit in their own region as 16-byte
+ * records (frequency, duration, track) and are read when a song is played.
+ *
+ * Columns: note start (long, one more than the rows), id, duration, title, artist, style and tempo
+ * (int; the last four are heap offsets), mood ordinal and playable flag (byte). Mood -1 and heap
+ * offset -1 are null; a null tempo is the default, milliseconds.
+ *
+ * The mappings are released when the snapshot is garbage collected. A replaced file stays readable
+ * through them, as on POSIX systems a rename does not affect a file that is already open. Windows
+ * refuses to replace a mapped file, so the binary DAOs do not open there.
+ */
+public final class SongSnapshot {
+
+    private static final int NOTES = 0;
+    private static final int NOTE_START = 1;
+    private static final int ID = 2;
+    private static final int DURATION = 3;
+    private static final int TITLE = 4;
+    private static final int ARTIST = 5;
+    private static final int STYLE = 6;
+    private static final int TEMPO = 7;
+    private static final int MOOD = 8;
+    private static final int PLAYABLE = 9;
+    private static final int HEAP = 10;
+    private static final int END = 11;
+    private static final int SECTIONS = 12;
+
+    private static final int NOTE_BYTES = 16;
+    private static final int CHUNK_SHIFT = 30; // 1 GB mappings; a multiple of NOTE_BYTES, so no note spans two
+    private static final Mood[] MOODS = Mood.values();
+
+    private final int rows;
+    private final ByteBuffer columns; // From the note start column to the end of the heap
+    private final int[] starts = new int[SECTIONS]; // Section starts within 'columns'
+    private final ByteBuffer[] noteChunks;
+    private final IntObjectMap<String> shared = new IntObjectMap<>(); // Heap offset -> artist or style, decoded once
+
+    private SongSnapshot(SnapshotFile file) throws IOException {
+        this.rows = file.rows();
+        long base = file.section(NOTE_START);
+        this.columns = file.map(base, file.section(END));
+        for (int s = NOTE_START; s < SECTIONS; s++) {
+            starts[s] = (int) (file.section(s) - base);
+        }
+        long notesStart = file.section(NOTES);
+        long notesBytes = base - notesStart;
+        int chunks = (int) ((notesBytes + (1L << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT);
+        this.noteChunks = new ByteBuffer[chunks];
+        for (int c = 0; c < chunks; c++) {
+            long from = notesStart + ((long) c << CHUNK_SHIFT);
+            noteChunks[c] = file.map(from, Math.min(from + (1L << CHUNK_SHIFT), base));
+        }
+        if (starts[PLAYABLE] + rows > starts[HEAP] || noteStart(rows) * NOTE_BYTES > notesBytes) {
+            throw new SnapshotFile.FormatException("columns do not match the row count");
+        }
+    }
+
+    /**
+     * Maps the snapshot; only its footer and trailer are read here.
+     */
+    public static SongSnapshot open(Path path) throws IOException {
+        try (SnapshotFile file = SnapshotFile.open(path, SnapshotFile.KIND_SONGS, SECTIONS)) {
+            return new SongSnapshot(file);
+        }
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public int getId(int row) {
+        return columns.getInt(starts[ID] + 4 * row);
+    }
+
+    public int getDurationSeconds(int row) {
+        return columns.getInt(starts[DURATION] + 4 * row);
+    }
+
+    public String getTitle(int row) {
+        int offset = columns.getInt(starts[TITLE] + 4 * row);
+        return offset < 0 ? null : SnapshotFile.readString(columns, starts[HEAP], offset);
+    }
+
+    public String getArtist(int row) {
+        return sharedString(ARTIST, row);
+    }
+
+    public String getStyle(int row) {
+        return sharedString(STYLE, row);
+    }
+
+    public Mood getMood(int row) {
+        int ordinal = columns.get(starts[MOOD] + row);
+        return ordinal >= 0 && ordinal < MOODS.length ? MOODS[ordinal] : null;
+    }
+
+    public boolean isPlayable(int row) {
+        return columns.get(starts[PLAYABLE] + row) != 0;
+    }
+
+    /**
+     * Tempo of the song; null for the default, milliseconds.
+     */
+    public TempoMap getTempo(int row) {
+        int offset = columns.getInt(starts[TEMPO] + 4 * row);
+        if (offset < 0) return null;
+        int at = starts[HEAP] + offset + 4; // Past the entry length
+        int ticksPerQuarter = columns.getInt(at);
+        int changes = columns.getInt(at + 4);
+        long[] ticks = new long[changes];
+        int[] micros = new int[changes];
+        for (int i = 0; i < changes; i++) {
+            ticks[i] = columns.getLong(at + 8 + 12 * i);
+            micros[i] = columns.getInt(at + 16 + 12 * i);
+        }
+        return new TempoMap(ticksPerQuarter, ticks, micros);
+    }
+
+    public int getNoteCount(int row) {
+        return (int) (noteStart(row + 1) - noteStart(row));
+    }
+
+    /**
+     * Reads the notes of a row from the mapped note region.
+     */
+    public NoteSequence loadNotes(int row) {
+        long first = noteStart(row);
+        int count = getNoteCount(row);
+        NoteSequence notes = new NoteSequence(count);
+        for (long n = first; n < first + count; n++) {
+            long at = n * NOTE_BYTES;
+            ByteBuffer chunk = noteChunks[(int) (at >>> CHUNK_SHIFT)];
+            int i = (int) (at & ((1L << CHUNK_SHIFT) - 1));
+            notes.add(chunk.getDouble(i), chunk.getInt(i + 8), chunk.getInt(i + 12));
+        }
+        return notes;
+    }
+
+    /**
+     * The song in a row, with its notes left in the snapshot until they are played.
+     */
+    public Song toSong(int row) {
+        Song song = new Song(getId(row), getTitle(row), getArtist(row), getDurationSeconds(row),
+                getStyle(row), isPlayable(row), getMood(row));
+        song.setNotes((NoteSequence) null);
+        song.setTempo(getTempo(row));
+        if (getNoteCount(row) > 0) {
+            song.setNoteSource(new SnapshotNotes(this, row));
+        }
+        return song;
+    }
+
+    public List<Song> toSongs() {
+        List<Song> songs = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            songs.add(toSong(row));
+        }
+        return songs;
+    }
+
+    /**
+     * Notes of a row, read from the snapshot on first use.
+     */
+    record SnapshotNotes(SongSnapshot snapshot, int row) implements NoteSource {
+        @Override
+        public NoteSequence load() {
+            return snapshot.loadNotes(row);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return snapshot.getNoteCount(row) == 0;
+        }
+    }
+
+    private long noteStart(int row) {
+        return columns.getLong(starts[NOTE_START] + 8 * row);
+    }
+
+    // Artists and styles repeat across songs and are stored once in the heap: the songs share one String too
+    private String sharedString(int column, int row) {
+        int offset = columns.getInt(starts[column] + 4 * row);
+        if (offset < 0) return null;
+        synchronized (shared) {
+            String s = shared.get(offset);
+            if (s == null) {
+                s = SnapshotFile.readString(columns, starts[HEAP], offset);
+                shared.put(offset, s);
+            }
+            return s;
+        }
+    }
+
+    // --- Writing ---
+
+    /**
+     * Writes {@code songs} as a snapshot. Notes not read yet are read from their source for the copy
+     * but not kept in the songs.
+     */
+    static void write(List<Song> songs, OutputStream stream) throws IOException {
+        int rows = songs.size();
+        long[] sections = new long[SECTIONS];
+        SnapshotFile.Writer out = new SnapshotFile.Writer(stream);
+        out.header(SnapshotFile.KIND_SONGS);
+
+        sections[NOTES] = out.position();
+        long[] noteStarts = new long[rows + 1];
+        for (int row = 0; row < rows; row++) {
+            Song song = songs.get(row);
+            NoteSource source = song.getNoteSource();
+            NoteView notes = source != null ? source.load() : song.getNotes();
+            for (int i = 0; i < notes.size(); i++) {
+                out.putDouble(notes.getFrequency(i));
+                out.putInt(notes.getDurationTicks(i));
+                out.putInt(notes.getTrack(i));
+            }
+            noteStarts[row + 1] = noteStarts[row] + notes.size();
+        }
+
+        SnapshotFile.Heap heap = new SnapshotFile.Heap();
+        sections[NOTE_START] = out.position();
+        for (long start : noteStarts) out.putLong(start);
+        sections[ID] = out.position();
+        for (Song s : songs) out.putInt(s.getId());
+        sections[DURATION] = out.position();
+        for (Song s : songs) out.putInt(s.getDurationSeconds());
+        sections[TITLE] = out.position();
+        for (Song s : songs) out.putInt(heap.add(s.getTitle()));
+        sections[ARTIST] = out.position();
+        for (Song s : songs) out.putInt(heap.add(s.getArtist()));
+        sections[STYLE] = out.position();
+        for (Song s : songs) out.putInt(heap.add(s.getStyle()));
+        sections[TEMPO] = out.position();
+        for (Song s : songs) out.putInt(s.getTempo().equals(TempoMap.MILLISECONDS) ? -1 : heap.add(encode(s.getTempo())));
+        sections[MOOD] = out.position();
+        for (Song s : songs) out.putByte(s.getMood() == null ? -1 : s.getMood().ordinal());
+        sections[PLAYABLE] = out.position();
+        for (Song s : songs) out.putByte(s.isPlayable() ? 1 : 0);
+        out.align(8);
+        sections[HEAP] = out.position();
+        heap.writeTo(out);
+        sections[END] = out.position();
+        out.finish(rows, sections);
+    }
+
+    private static byte[] encode(TempoMap tempo) {
+        ByteBuffer entry = ByteBuffer.allocate(8 + 12 * tempo.size()).order(ByteOrder.LITTLE_ENDIAN);
+        entry.putInt(tempo.getTicksPerQuarter()).putInt(tempo.size());
+        for (int i = 0; i < tempo.size(); i++) {
+            entry.putLong(tempo.getTick(i)).putInt(tempo.getMicrosPerQuarter(i));
+        }
+        return entry.array();
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.Persistence;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.Song;
+import org.example.Business.Model.TempoMap;
+
+import java.io.IOException;
+
+/**
+ * Lee y escribe una {@link Song} campo a campo, sin reflexión, con los mismos nombres que usaba Gson:
+ * {@code id, title, artist, durationSeconds, style, mood, playable, tempo, notes}.
+ * Los campos null no se escriben y un tempo en milisegundos tampoco; las notas van al final.
+ * Artista y estilo pasan por un {@link StringPool}, ya que se repiten en muchas canciones.
+ */
+public class SongTypeAdapter extends TypeAdapter<Song> {
+
+    private final StringPool strings;
+    private final MoodTypeAdapter moodAdapter = new MoodTypeAdapter();
+    private final TempoMapTypeAdapter tempoAdapter = new TempoMapTypeAdapter();
+    private final NoteSequenceTypeAdapter notesAdapter = new NoteSequenceTypeAdapter();
+
+    public SongTypeAdapter() {
+        this(new StringPool());
+    }
+
+    public SongTypeAdapter(StringPool strings) {
+        this.strings = strings;
+    }
+
+    @Override
+    public void write(JsonWriter out, Song song) throws IOException {
+        if (song == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeMetadata(out, song);
+        out.name("notes");
+        notesAdapter.writeNotes(out, song.getNotes());
+        out.endObject();
+    }
+
+    /**
+     * Escribe todos los campos menos {@code notes} dentro de un objeto ya abierto, sin leer las notas
+     * que sigan pendientes en disco.
+     */
+    public void writeMetadata(JsonWriter out, Song song) throws IOException {
+        out.name("id").value(song.getId());
+        if (song.getTitle() != null) out.name("title").value(song.getTitle());
+        if (song.getArtist() != null) out.name("artist").value(song.getArtist());
+        out.name("durationSeconds").value(song.getDurationSeconds());
+        if (song.getStyle() != null) out.name("style").value(song.getStyle());
+        if (song.getMood() != null) {
+            out.name("mood");
+            moodAdapter.write(out, song.getMood());
+        }
+        out.name("playable").value(song.isPlayable());
+        TempoMap tempo = song.getTempo();
+        if (!tempo.equals(TempoMap.MILLISECONDS)) {
+            out.name("tempo");
+            tempoAdapter.write(out, tempo);
+        }
+    }
+
+    @Override
+    public Song read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Song song = new Song();
+        boolean hasNotes = false;
+        NoteSequence notes = null;
+        TempoMap tempo = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                hasNotes |= name.equals("notes"); // "notes": null deja la canción sin notas cargadas
+                continue;
+            }
+            switch (name) {
+                case "id" -> song.setId(in.nextInt());
+                case "title" -> song.setTitle(in.nextString());
+                case "artist" -> song.setArtist(strings.intern(in.nextString()));
+                case "durationSeconds" -> song.setDurationSeconds(in.nextInt());
+                case "style" -> song.setStyle(strings.intern(in.nextString()));
+                case "mood" -> song.setMood(moodAdapter.read(in));
+                case "playable" -> song.setPlayable(in.nextBoolean());
+                case "tempo" -> tempo = tempoAdapter.read(in);
+                case "notes" -> {
+                    hasNotes = true;
+                    notes = notesAdapter.read(in);
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (hasNotes) {
+            song.setNotes(notes);
+        }
+        song.setTempo(tempo);
+        return song;
+    }
+}
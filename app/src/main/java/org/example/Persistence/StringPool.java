@@ -0,0 +1,30 @@
+package org.example.Persistence;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Guarda una sola instancia de cada cadena repetida (artistas, estilos) para que las canciones
+ * cargadas la compartan en vez de tener cada una su copia. Se puede usar desde varios hilos.
+ */
+public final class StringPool {
+
+    private static final int MAX_SIZE = 1 << 16; // Si casi todos los valores son distintos no compensa guardarlos
+
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+
+    /**
+     * La instancia compartida igual a {@code s}; null si {@code s} es null.
+     */
+    public String intern(String s) {
+        if (s == null) return null;
+        String shared = strings.get(s);
+        if (shared != null) return shared;
+        if (strings.size() >= MAX_SIZE) return s;
+        shared = strings.putIfAbsent(s, s);
+        return shared != null ? shared : s;
+    }
+
+    public int size() {
+        return strings.size();
+    }
+}
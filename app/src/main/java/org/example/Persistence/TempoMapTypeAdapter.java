@@ -0,0 +1,82 @@
+package org.example.Persistence;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.Business.Model.TempoMap;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Escribe un {@link TempoMap} con la forma de sus campos:
+ * {@code {"ticksPerQuarter": 480, "ticks": [0, ...], "microsPerQuarter": [500000, ...]}}.
+ * Al leerlo se valida con el constructor; un mapa imposible es un JSON erróneo.
+ */
+public class TempoMapTypeAdapter extends TypeAdapter<TempoMap> {
+
+    @Override
+    public void write(JsonWriter out, TempoMap tempo) throws IOException {
+        if (tempo == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("ticksPerQuarter").value(tempo.getTicksPerQuarter());
+        out.name("ticks").beginArray();
+        for (int i = 0; i < tempo.size(); i++) out.value(tempo.getTick(i));
+        out.endArray();
+        out.name("microsPerQuarter").beginArray();
+        for (int i = 0; i < tempo.size(); i++) out.value(tempo.getMicrosPerQuarter(i));
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public TempoMap read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int ticksPerQuarter = 0;
+        long[] ticks = new long[0];
+        int[] micros = new int[0];
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "ticksPerQuarter" -> ticksPerQuarter = in.nextInt();
+                case "ticks" -> {
+                    int n = 0;
+                    ticks = new long[4];
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (n == ticks.length) ticks = Arrays.copyOf(ticks, n * 2);
+                        ticks[n++] = in.nextLong();
+                    }
+                    in.endArray();
+                    ticks = Arrays.copyOf(ticks, n);
+                }
+                case "microsPerQuarter" -> {
+                    int n = 0;
+                    micros = new int[4];
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (n == micros.length) micros = Arrays.copyOf(micros, n * 2);
+                        micros[n++] = in.nextInt();
+                    }
+                    in.endArray();
+                    micros = Arrays.copyOf(micros, n);
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        try {
+            return new TempoMap(ticksPerQuarter, ticks, micros);
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException("Invalid tempo map at " + in.getPath(), e);
+        }
+    }
+}
@@ -2,13 +2,17 @@ package org.example.Presentation;
 
 import org.example.Business.Managers.AlbumGenerator;
 import org.example.Business.Managers.LibraryManager;
+import org.example.Business.Managers.MidiImporter;
 import org.example.Business.Managers.PlaybackManager;
+import org.example.Business.Managers.PlaybackSession;
 import org.example.Business.Model.Mood;
 import org.example.Business.Model.Playlist;
 import org.example.Business.Model.Song;
 import org.example.CustomExceptions.InvalidInputException;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 public class Controller {
@@ -16,12 +20,21 @@ public class Controller {
     private LibraryManager libraryManager;
     private PlaybackManager playbackManager;
     private AlbumGenerator albumManager;
+    private MidiImporter midiImporter;
 
     public Controller() throws IOException {
         this.ui = new ConsoleView();
         this.libraryManager = new LibraryManager();
         this.playbackManager = new PlaybackManager();
+        this.libraryManager.addSongChangeListener(playbackManager.getRenderCache()::invalidate);
+        // Los cambios de la biblioteca se guardan en segundo plano: se vuelcan también si se cierra con Ctrl+C
+        Runtime.getRuntime().addShutdownHook(new Thread(this::saveLibrary, "library-save"));
+        // Con -Dsoundplayer.metrics=true se imprimen las métricas de audio al salir
+        if (Boolean.getBoolean("soundplayer.metrics")) {
+            playbackManager.getMetrics().dumpOnExit(System.err);
+        }
         this.albumManager = new AlbumGenerator(libraryManager);
+        this.midiImporter = new MidiImporter(libraryManager);
     }
 
     public void start() {
@@ -31,6 +44,8 @@ public class Controller {
             switch (option) {
                 case 0: // Exit
                     ui.printMessage("Saliendo del SoundPlayer...");
+                    stopPlayback();
+                    saveLibrary();
                     running = false;
                     break;
                 case 1: // Songs
@@ -60,6 +75,8 @@ public class Controller {
             ui.printMessage("2. EDITAR canción existente");
             ui.printMessage("3. ELIMINAR canción");
             ui.printMessage("4. LISTAR todas las canciones"); // NEW OPTION
+            ui.printMessage("5. IMPORTAR MIDI (fichero o carpeta)");
+            ui.printMessage("6. EXPORTAR canción a MIDI");
             ui.printMessage("0. Volver");
 
             int action = 0;
@@ -97,8 +114,23 @@ public class Controller {
                     // Loop continues automatically, showing menu again
                 }
 
-                // CASE 2 & 3: EDIT / DELETE
-                else if (action == 2 || action == 3) {
+                // CASE 5: MIDI IMPORT
+                else if (action == 5) {
+                    Path path = Path.of(ui.readInput("Ruta del fichero .mid o de la carpeta"));
+                    if (Files.isDirectory(path)) {
+                        MidiImporter.Report report = midiImporter.importDirectory(path);
+                        ui.printMessage("Importación: " + report);
+                        for (String failure : report.getFailures()) {
+                            ui.printError(failure);
+                        }
+                    } else {
+                        Song imported = midiImporter.importFile(path);
+                        ui.printMessage("Canción importada: " + imported + " (" + imported.getNotes().size() + " notas)");
+                    }
+                }
+
+                // CASE 2, 3 & 6: EDIT / DELETE / MIDI EXPORT
+                else if (action == 2 || action == 3 || action == 6) {
                     
                     List<Song> songs = libraryManager.getAllSongs();
                     if (songs.isEmpty()) {
@@ -124,18 +156,25 @@ public class Controller {
 
                     Song selectedSong = songs.get(index - 1);
 
-                    if (action == 2) {
+                    if (action == 6) {
+                        // MIDI EXPORT
+                        Path file = Path.of(ui.readInput("Fichero de destino (.mid)"));
+                        midiImporter.exportSong(selectedSong, file);
+                        ui.printMessage("Exportada a " + file.toAbsolutePath());
+                    } else if (action == 2) {
                         // EDIT
                         ui.printMessage("Editando: " + selectedSong.getTitle());
                         Song newData = ui.editSongData(selectedSong);
                         
-                        selectedSong.setTitle(newData.getTitle());
-                        selectedSong.setArtist(newData.getArtist());
-                        selectedSong.setDurationSeconds(newData.getDurationSeconds());
-                        selectedSong.setMood(newData.getMood());
-                        selectedSong.setPlayable(newData.isPlayable());
+                        // Se edita una copia: la guardada puede estar escribiéndose en segundo plano
+                        Song edited = selectedSong.copy();
+                        edited.setTitle(newData.getTitle());
+                        edited.setArtist(newData.getArtist());
+                        edited.setDurationSeconds(newData.getDurationSeconds());
+                        edited.setMood(newData.getMood());
+                        edited.setPlayable(newData.isPlayable());
                         
-                        libraryManager.updateSong(selectedSong); 
+                        libraryManager.updateSong(edited); 
                         ui.printMessage("Canción editada correctamente.");
                         
                     } else {
@@ -290,8 +329,24 @@ public class Controller {
     // --- 5. Reproducción (Unchanged) ---
     private void handlePlayback() {
         ui.printMessage("\n--- Reproducción ---");
+        PlaybackSession session = playbackManager.getActiveSession();
+        if (session != null && session.getCurrentSong() != null) {
+            ui.printMessage((session.getState() == PlaybackSession.State.PAUSED ? "En pausa: " : "Sonando: ")
+                    + session.getCurrentSong().getTitle()
+                    + " (" + formatTime(session.getPositionMs()) + " / " + formatTime(session.getDurationMs()) + ")");
+        }
+        Exception failure = playbackManager.getLastError();
+        if (failure != null) {
+            ui.printError("La última reproducción se detuvo por un error: " + failure.getMessage());
+        }
         ui.printMessage("1. Reproducir Canción");
         ui.printMessage("2. Reproducir Playlist");
+        ui.printMessage("3. Pausar / Reanudar");
+        ui.printMessage("4. Siguiente canción");
+        ui.printMessage("5. Canción anterior");
+        ui.printMessage("6. Ir a un segundo de la canción");
+        ui.printMessage("7. Detener");
+        ui.printMessage("8. Ver métricas de audio");
         ui.printMessage("0. Volver");
         
         String input = ui.readInput("Seleccione");
@@ -311,7 +366,8 @@ public class Controller {
                     if (sIndex > 0 && sIndex <= songs.size()) {
                         Song s = songs.get(sIndex - 1);
                         if (s.isPlayable()) {
-                            playbackManager.playSong(s);
+                            // Suena en segundo plano; el menú sigue disponible para controlarla
+                            playbackManager.startSong(s);
                         } else {
                             ui.printMessage("Esta canción no es reproducible.");
                         }
@@ -332,11 +388,36 @@ public class Controller {
                     int pIndex = ui.askForInt("Número de la playlist a reproducir");
                     if (pIndex > 0 && pIndex <= playlists.size()) {
                         Playlist p = playlists.get(pIndex - 1);
-                        playbackManager.playPlaylist(p, libraryManager);
+                        playbackManager.startPlaylist(p, libraryManager);
                     } else {
                         ui.printError("Número inválido.");
                     }
                     break;
+                case "3":
+                    if (session == null) ui.printMessage("No hay nada sonando.");
+                    else session.togglePause();
+                    break;
+                case "4":
+                    if (session == null) ui.printMessage("No hay nada sonando.");
+                    else session.next();
+                    break;
+                case "5":
+                    if (session == null) ui.printMessage("No hay nada sonando.");
+                    else session.previous();
+                    break;
+                case "6":
+                    if (session == null) {
+                        ui.printMessage("No hay nada sonando.");
+                    } else {
+                        session.seek(ui.askForInt("Segundo") * 1000L);
+                    }
+                    break;
+                case "7":
+                    stopPlayback();
+                    break;
+                case "8":
+                    ui.printMessage(playbackManager.getMetrics().toString());
+                    break;
                 case "0":
                     break;
             }
@@ -345,6 +426,27 @@ public class Controller {
         }
     }
 
+    private void stopPlayback() {
+        try {
+            playbackManager.stopSession();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void saveLibrary() {
+        try {
+            libraryManager.close();
+        } catch (IOException e) {
+            System.err.println("Error guardando la biblioteca: " + e.getMessage());
+        }
+    }
+
+    private static String formatTime(long ms) {
+        long seconds = ms / 1000;
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
     // --- 6. Random Album (Unchanged) ---
     private void handleRandomAlbum() {
         ui.printMessage("\n--- Generar Álbum Aleatorio ---");
@@ -0,0 +1,321 @@
+package org.example.Presentation;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.Business.Audio.AudioSink;
+import org.example.Business.Audio.BroadcastBuffer;
+import org.example.Business.Audio.OutputFormat;
+import org.example.Business.Audio.SoundSynth;
+import org.example.Business.Audio.SoundSynthSinus;
+import org.example.Business.Audio.WavAudioSink;
+import org.example.Business.Managers.LibraryManager;
+import org.example.Business.Managers.OfflineRenderer;
+import org.example.Business.Managers.RenderSession;
+import org.example.Business.Managers.SessionManager;
+import org.example.Business.Model.Playlist;
+import org.example.Business.Model.Song;
+import org.example.CustomExceptions.AudioOutputException;
+import org.example.CustomExceptions.EmptyJsonFileException;
+import org.example.CustomExceptions.SessionRejectedException;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor HTTP local que emite canciones y playlists como WAV, sintetizado al vuelo
+ * (sin escribir ficheros) y enviado por chunks. Pensado para servidores sin tarjeta de sonido.
+ *
+ * <pre>
+ * GET /songs/{id}       canción
+ * GET /playlists/{id}   playlist completa, con la pausa entre canciones
+ * </pre>
+ *
+ * Cada render es una sesión del {@link SessionManager}, que reparte la CPU entre ellas y rechaza las que
+ * no caben (503). Los clientes que piden lo mismo a la vez comparten la sesión a través de un
+ * {@link BroadcastBuffer} de tamaño fijo: el render no se adelanta más que ese buffer al cliente más lento,
+ * y un cliente que se queda atrás reteniendo a los demás se desconecta. Cada conexión copia con su propio
+ * buffer de tamaño fijo, así que la memoria por render y por conexión está acotada sea cual sea la duración.
+ * Si todos los clientes se desconectan, la sesión se cancela.
+ */
+public class StreamingServer {
+
+    public static final int DEFAULT_PORT = 8080;
+
+    // Lo que cada conexión tiene en vuelo como máximo
+    private static final int CONNECTION_BUFFER_BYTES = 16 * 1024;
+
+    // Cuánto puede adelantarse un render compartido a su cliente más lento (unos 3 s a 44,1 kHz/16 bits),
+    // y cuánto puede ese cliente retener a los demás antes de desconectarlo
+    private static final int BROADCAST_CHUNKS = 16;
+    private static final long STALL_TIMEOUT_MS = 5000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LibraryManager libraryManager;
+    private final SessionManager sessions;
+    private final RenderSession.Mode mode;
+    private final Map<String, SharedRender> inFlight = new ConcurrentHashMap<>();
+
+    public StreamingServer(LibraryManager libraryManager, int port) throws IOException {
+        this(libraryManager, new InetSocketAddress("127.0.0.1", port), new SessionManager(), RenderSession.Mode.REAL_TIME);
+    }
+
+    /**
+     * @param mode REAL_TIME emite al ritmo de reproducción y solo admite las sesiones que la CPU puede
+     *             sostener; BATCH emite tan rápido como lean los clientes, con la CPU que sobre.
+     */
+    public StreamingServer(LibraryManager libraryManager, InetSocketAddress address, SessionManager sessions,
+                           RenderSession.Mode mode) throws IOException {
+        this.libraryManager = libraryManager;
+        this.sessions = sessions;
+        this.mode = mode;
+        // Hilos de plataforma: el servidor HTTP del JDK escribe dentro de bloques synchronized, así que un
+        // cliente lento dejaría su hilo virtual clavado al portador y, con pocos núcleos, pararía los renders
+        this.executor = Executors.newCachedThreadPool(Thread.ofPlatform().name("stream-connection-", 0).daemon().factory());
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/songs/", this::handleSong);
+        server.createContext("/playlists/", this::handlePlaylist);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Deja de aceptar conexiones y espera como mucho {@code delaySeconds} a las que estén en curso.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdownNow();
+        try {
+            sessions.shutdown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // --- Handlers ---
+
+    private void handleSong(HttpExchange exchange) throws IOException {
+        try {
+            Integer id = parseId(exchange, "/songs/");
+            if (id == null) return;
+            Song s = libraryManager.getSongById(id);
+            if (s == null) {
+                sendError(exchange, 404, "Canción no encontrada: " + id);
+            } else if (!s.isPlayable() || s.getNotes().isEmpty()) {
+                sendError(exchange, 409, "La canción no es reproducible: " + id);
+            } else {
+                stream(exchange, "song:" + id, List.of(s));
+            }
+        } catch (EmptyJsonFileException e) {
+            sendError(exchange, 500, e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handlePlaylist(HttpExchange exchange) throws IOException {
+        try {
+            Integer id = parseId(exchange, "/playlists/");
+            if (id == null) return;
+            Playlist p = libraryManager.getPlaylistById(id);
+            if (p == null) {
+                sendError(exchange, 404, "Playlist no encontrada: " + id);
+                return;
+            }
+            List<Song> songs = new ArrayList<>();
+            for (int songId : p.getSongIds()) {
+                Song s = libraryManager.getSongById(songId);
+                if (s != null && s.isPlayable() && s.hasNotes()) {
+                    songs.add(s);
+                }
+            }
+            if (songs.isEmpty()) {
+                sendError(exchange, 409, "La playlist no tiene canciones reproducibles: " + id);
+            } else {
+                stream(exchange, "playlist:" + id, songs);
+            }
+        } catch (EmptyJsonFileException e) {
+            sendError(exchange, 500, e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Devuelve null (y responde con el error) si la petición no es un GET a /prefijo/{número}
+    private static Integer parseId(HttpExchange exchange, String prefix) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "GET");
+            sendError(exchange, 405, "Solo se admite GET.");
+            return null;
+        }
+        String rest = exchange.getRequestURI().getPath().substring(prefix.length());
+        if (rest.endsWith(".wav")) rest = rest.substring(0, rest.length() - 4);
+        try {
+            return Integer.parseInt(rest);
+        } catch (NumberFormatException e) {
+            sendError(exchange, 400, "ID inválido: " + rest);
+            return null;
+        }
+    }
+
+    /**
+     * Envía el WAV de un render compartido, uniéndose a uno en curso si aún está en su principio.
+     */
+    private void stream(HttpExchange exchange, String key, List<Song> songs) throws IOException {
+        SharedRender render;
+        BroadcastBuffer.Reader reader;
+        try {
+            while (true) {
+                render = inFlight.computeIfAbsent(key, k -> new SharedRender(k, songs));
+                reader = render.join();
+                if (reader != null) break;
+                inFlight.remove(key, render); // Ya empezado (o cancelado): los nuevos clientes empiezan otro
+            }
+        } catch (SessionRejectedException e) {
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            sendError(exchange, 503, e.getMessage());
+            return;
+        }
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "audio/wav");
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            exchange.sendResponseHeaders(200, 0); // Longitud 0: transferencia por chunks
+
+            byte[] chunk = new byte[CONNECTION_BUFFER_BYTES];
+            OutputStream body = exchange.getResponseBody();
+            int n;
+            while ((n = reader.read(chunk, 0, chunk.length)) > 0) {
+                body.write(chunk, 0, n); // Bloquea mientras el cliente no lea: contrapresión por conexión
+                body.flush();
+            }
+            body.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Cliente desconectado, demasiado lento o render fallido: la respuesta queda cortada
+        } finally {
+            render.leave(reader);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Una sesión de render en curso y los clientes que la escuchan.
+     */
+    private final class SharedRender implements AudioSink {
+        final String key;
+        final List<Song> songs;
+        final BroadcastBuffer buffer = new BroadcastBuffer(BROADCAST_CHUNKS, CONNECTION_BUFFER_BYTES, STALL_TIMEOUT_MS);
+        private RenderSession session;
+        private SessionRejectedException rejected;
+        private int readers;
+        private boolean finished;
+        private boolean cancelled;
+        private WavAudioSink wav; // Solo lo usa el hilo de la sesión
+        private boolean drained;
+
+        SharedRender(String key, List<Song> songs) {
+            this.key = key;
+            this.songs = songs;
+        }
+
+        /**
+         * Añade un cliente y arranca la sesión con el primero.
+         *
+         * @return null si ya no se puede uno unir a este render.
+         */
+        synchronized BroadcastBuffer.Reader join() throws SessionRejectedException {
+            if (rejected != null) throw rejected;
+            if (cancelled) return null;
+            BroadcastBuffer.Reader reader = buffer.join();
+            if (reader == null) return null;
+            readers++;
+            if (session == null) {
+                try {
+                    session = sessions.submit(songs, OfflineRenderer.DEFAULT_GAP_MS, this, mode);
+                } catch (SessionRejectedException e) {
+                    rejected = e;
+                    readers--;
+                    reader.leave();
+                    inFlight.remove(key, this);
+                    throw e;
+                }
+            }
+            return reader;
+        }
+
+        // Si se va el último cliente antes de terminar, no tiene sentido seguir sintetizando
+        synchronized void leave(BroadcastBuffer.Reader reader) {
+            reader.leave();
+            readers--;
+            if (readers == 0 && !finished) {
+                cancelled = true;
+                session.cancel(); // Antes que el buffer, para que la sesión termine como cancelada y no como fallida
+                buffer.cancel();
+                inFlight.remove(key, this);
+            }
+        }
+
+        // --- Salida de la sesión: WAV hacia el buffer compartido ---
+
+        @Override
+        public void open(AudioFormat format) throws AudioOutputException {
+            // La cabecera necesita la longitud final, que se conoce por las notas en el formato acordado
+            SoundSynth synth = new SoundSynthSinus();
+            synth.setFormat(new OutputFormat(format.getSampleRate(), format.getSampleSizeInBits(), format.getChannels()));
+            long dataBytes = new OfflineRenderer(() -> synth, OfflineRenderer.DEFAULT_GAP_MS).dataBytes(songs);
+            wav = new WavAudioSink(buffer, dataBytes);
+            wav.open(format);
+        }
+
+        @Override
+        public void write(byte[] block, int offset, int length) throws AudioOutputException {
+            wav.write(block, offset, length);
+        }
+
+        @Override
+        public void drain() throws AudioOutputException {
+            wav.drain();
+            wav.close();
+            drained = true;
+        }
+
+        @Override
+        public void close() {
+            if (drained) {
+                buffer.close();
+            } else {
+                buffer.fail(new IOException("El render no terminó."));
+            }
+            synchronized (this) {
+                finished = true;
+            }
+            // Los clientes que lleguen a partir de ahora empiezan un render nuevo
+            inFlight.remove(key, this);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.Benchmarks;
+
+import org.example.Business.Audio.Effects.AudioEffect;
+import org.example.Business.Audio.Effects.BiquadFilter;
+import org.example.Business.Audio.Effects.Delay;
+import org.example.Business.Audio.Effects.EffectChain;
+import org.example.Business.Audio.Effects.Envelope;
+import org.example.Business.Audio.Effects.GainPan;
+import org.example.Business.Audio.Effects.Reverb;
+
+import java.util.Random;
+
+/**
+ * Reports the cost of each effect stage, and of a full chain, in nanoseconds per stereo sample frame.
+ * Run with: ./gradlew benchmark -PbenchClass=org.example.Benchmarks.EffectsBenchmark
+ */
+public class EffectsBenchmark {
+
+    private static final float SAMPLE_RATE = 44100f;
+    private static final int CHANNELS = 2;
+    private static final int BLOCK = 1024;
+    private static final int BLOCKS = 20_000;
+
+    // Fresh input is copied in before every block so repeated processing cannot decay into denormals;
+    // the cost of that copy is measured once and subtracted
+    private static final float[] SOURCE_LEFT = new float[BLOCK];
+    private static final float[] SOURCE_RIGHT = new float[BLOCK];
+    private static double copyNanos;
+
+    public static void main(String[] args) {
+        float[] left = new float[BLOCK];
+        float[] right = new float[BLOCK];
+        fill(SOURCE_LEFT, SOURCE_RIGHT);
+        copyNanos = time(null, left, right);
+
+        Envelope adsr = new Envelope(10, 80, 0.7f, 120);
+        report("Envelope (ADSR)", timeEnvelope(adsr, left));
+        report("Biquad low-pass", time(new BiquadFilter(BiquadFilter.Type.LOW_PASS, 3000, BiquadFilter.DEFAULT_Q, SAMPLE_RATE), left, right));
+        report("Biquad high-pass", time(new BiquadFilter(BiquadFilter.Type.HIGH_PASS, 120, BiquadFilter.DEFAULT_Q, SAMPLE_RATE), left, right));
+        report("Gain/pan", time(new GainPan(-3, 0.3), left, right));
+        report("Delay", time(new Delay(350, 0.4, 0.3, SAMPLE_RATE, CHANNELS), left, right));
+        report("Reverb", time(new Reverb(0.6, 0.4, 0.25, SAMPLE_RATE, CHANNELS, BLOCK), left, right));
+
+        EffectChain chain = EffectChain.builder()
+                .highPass(120).lowPass(3000).gainPan(-3, 0.3).delay(350, 0.4, 0.3).reverb(0.6, 0.4, 0.25)
+                .build();
+        report("Full chain", time(chain.createStages(SAMPLE_RATE, CHANNELS, BLOCK), left, right));
+    }
+
+    private static void report(String name, double nanosPerSample) {
+        System.out.printf("%-17s: %6.2f ns/sample%n", name, nanosPerSample);
+    }
+
+    // Best of several rounds; the first ones double as JIT warm-up
+    private static double time(AudioEffect effect, float[] left, float[] right) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < 10; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < BLOCKS; i++) {
+                System.arraycopy(SOURCE_LEFT, 0, left, 0, BLOCK);
+                System.arraycopy(SOURCE_RIGHT, 0, right, 0, BLOCK);
+                if (effect != null) {
+                    effect.process(left, right, 0, BLOCK);
+                }
+            }
+            best = Math.min(best, (System.nanoTime() - start) / ((double) BLOCKS * BLOCK));
+        }
+        return Math.max(0, best - copyNanos);
+    }
+
+    // The envelope runs per note, once per voice, on one channel
+    private static double timeEnvelope(Envelope envelope, float[] buffer) {
+        int noteLength = 22050;
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < 10; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < BLOCKS; i++) {
+                System.arraycopy(SOURCE_LEFT, 0, buffer, 0, BLOCK);
+                System.arraycopy(SOURCE_RIGHT, 0, buffer, 0, BLOCK);
+                int position = (i * BLOCK) % (noteLength - BLOCK);
+                envelope.apply(buffer, 0, BLOCK, position, noteLength, SAMPLE_RATE);
+            }
+            best = Math.min(best, (System.nanoTime() - start) / ((double) BLOCKS * BLOCK));
+        }
+        return Math.max(0, best - copyNanos);
+    }
+
+    private static void fill(float[] left, float[] right) {
+        Random random = new Random(42);
+        for (int i = 0; i < left.length; i++) {
+            left[i] = random.nextFloat() * 2 - 1;
+            right[i] = random.nextFloat() * 2 - 1;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.Benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.example.Business.Model.Mood;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.Playlist;
+import org.example.Business.Model.Song;
+import org.example.Persistence.LibraryJson;
+import org.example.Persistence.NoteSequenceTypeAdapter;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Serialization and deserialization of the song and playlist lists: the reflective Gson setup the
+ * DAOs used before (pretty printed) against the shared LibraryJson instances with the hand-written
+ * adapters, compact and pretty. Songs are measured with and without notes, since the notes already had
+ * their own adapter. Also counts the distinct artist strings left after loading.
+ * Run with: ./gradlew benchmark -PbenchClass=org.example.Benchmarks.JsonAdaptersBenchmark
+ */
+public class JsonAdaptersBenchmark {
+
+    private static final int SONGS = 20_000;
+    private static final int NOTES_PER_SONG = 50;
+    private static final int PLAYLISTS = 20_000;
+    private static final int ROUNDS = 5;
+
+    private static final Type SONG_LIST = new TypeToken<ArrayList<Song>>() {}.getType();
+    private static final Type PLAYLIST_LIST = new TypeToken<ArrayList<Playlist>>() {}.getType();
+
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Song> songs = new ArrayList<>(SONGS);
+        List<Song> metadata = new ArrayList<>(SONGS);
+        for (int i = 1; i <= SONGS; i++) {
+            Song s = new Song(i, "Song " + i, "Artist " + i % 500, 60 + i % 240, "Style " + i % 20, i % 3 != 0,
+                    Mood.values()[i % Mood.values().length]);
+            NoteSequence notes = new NoteSequence();
+            for (int k = 0; k < NOTES_PER_SONG; k++) {
+                notes.add(220 + random.nextInt(660), 50 + random.nextInt(450), random.nextInt(4));
+            }
+            metadata.add(new Song(i, s.getTitle(), s.getArtist(), s.getDurationSeconds(), s.getStyle(), s.isPlayable(), s.getMood()));
+            s.setNotes(notes);
+            songs.add(s);
+        }
+        List<Playlist> playlists = new ArrayList<>(PLAYLISTS);
+        for (int i = 1; i <= PLAYLISTS; i++) {
+            Playlist p = new Playlist(i, "Playlist " + i, "Description " + i);
+            for (int k = 0; k < 20; k++) p.getSongIds().add(1 + random.nextInt(SONGS));
+            playlists.add(p);
+        }
+
+        Gson reflective = new GsonBuilder()
+                .setPrettyPrinting()
+                .registerTypeAdapter(NoteSequence.class, new NoteSequenceTypeAdapter())
+                .create();
+        Gson reflectivePlaylists = new GsonBuilder().setPrettyPrinting().create();
+
+        for (int round = 0; round < 3; round++) {
+            boolean last = round == 2;
+            if (last) System.out.printf("%,d songs x %,d notes, %,d playlists x 20 songs%n", SONGS, NOTES_PER_SONG, PLAYLISTS);
+            run("songs, reflective pretty", reflective, songs, SONG_LIST, last);
+            run("songs, adapters pretty", LibraryJson.pretty(), songs, SONG_LIST, last);
+            run("songs, adapters compact", LibraryJson.compact(), songs, SONG_LIST, last);
+            run("metadata, reflective pretty", reflective, metadata, SONG_LIST, last);
+            run("metadata, adapters compact", LibraryJson.compact(), metadata, SONG_LIST, last);
+            run("playlists, reflective pretty", reflectivePlaylists, playlists, PLAYLIST_LIST, last);
+            run("playlists, adapters compact", LibraryJson.compact(), playlists, PLAYLIST_LIST, last);
+        }
+
+        String json = reflective.toJson(songs, SONG_LIST);
+        List<Song> before = reflective.fromJson(json, SONG_LIST);
+        List<Song> after = LibraryJson.compact().fromJson(json, SONG_LIST);
+        System.out.printf("distinct artist strings after loading: reflective %,d, adapters %,d%n",
+                distinctArtists(before), distinctArtists(after));
+    }
+
+    private static void run(String what, Gson gson, List<?> list, Type type, boolean print) {
+        String json = gson.toJson(list, type);
+        long start = System.nanoTime();
+        long chars = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            chars += gson.toJson(list, type).length();
+        }
+        double writeMs = (System.nanoTime() - start) / 1e6 / ROUNDS;
+        start = System.nanoTime();
+        int size = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            List<?> read = gson.fromJson(json, type);
+            size += read.size();
+        }
+        double readMs = (System.nanoTime() - start) / 1e6 / ROUNDS;
+        if (size != list.size() * ROUNDS || chars == 0) throw new AssertionError();
+        if (print) {
+            System.out.printf("%-30s : %,7d KB, write %,6.0f ms (%,5.0f MB/s), read %,6.0f ms (%,5.0f MB/s)%n",
+                    what, json.length() >> 10, writeMs, json.length() / writeMs / 1e3, readMs, json.length() / readMs / 1e3);
+        }
+    }
+
+    private static int distinctArtists(List<Song> songs) {
+        Set<String> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Song s : songs) seen.add(s.getArtist());
+        return seen.size();
+    }
+}
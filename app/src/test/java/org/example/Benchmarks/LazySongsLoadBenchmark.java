@@ -0,0 +1,104 @@
+package org.example.Benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.Business.Model.Mood;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.Song;
+import org.example.Persistence.JsonSongsDAO;
+import org.example.Persistence.NoteSequenceTypeAdapter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Startup cost of a songs.json with millions of notes: binding the whole file with Gson (the old
+ * JsonSongsDAO) against the streaming loader, which reads the metadata and leaves the notes in the file.
+ * Reports load time and the heap held by the loaded list, then the cost of reading one song's notes.
+ * Run with: ./gradlew benchmark -PbenchClass=org.example.Benchmarks.LazySongsLoadBenchmark
+ */
+public class LazySongsLoadBenchmark {
+
+    private static final int SONGS = 10_000;
+    private static final int NOTES_PER_SONG = 300;
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("songs-bench");
+        Path file = dir.resolve("songs.json");
+        Gson gson = new GsonBuilder()
+                .setPrettyPrinting()
+                .registerTypeAdapter(NoteSequence.class, new NoteSequenceTypeAdapter())
+                .create();
+        write(file, gson);
+        System.out.printf("songs.json: %,d songs, %,d notes, %,d MB%n",
+                SONGS, (long) SONGS * NOTES_PER_SONG, Files.size(file) >> 20);
+
+        for (int round = 0; round < 3; round++) {
+            boolean last = round == 2;
+
+            long before = usedHeap();
+            long start = System.nanoTime();
+            List<Song> eager;
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                eager = gson.fromJson(reader, new TypeToken<ArrayList<Song>>() {}.getType());
+            }
+            double eagerMs = (System.nanoTime() - start) / 1e6;
+            long eagerHeap = usedHeap() - before;
+            if (eager.size() != SONGS) throw new AssertionError();
+            eager = null;
+
+            before = usedHeap();
+            start = System.nanoTime();
+            List<Song> lazy = new JsonSongsDAO(file).loadAll();
+            double lazyMs = (System.nanoTime() - start) / 1e6;
+            long lazyHeap = usedHeap() - before;
+
+            start = System.nanoTime();
+            int notes = lazy.get(SONGS / 2).getNotes().size();
+            double firstPlayUs = (System.nanoTime() - start) / 1e3;
+            if (notes != NOTES_PER_SONG) throw new AssertionError();
+
+            if (last) {
+                System.out.printf("full bind   : %,8.0f ms, heap %,6d MB%n", eagerMs, eagerHeap >> 20);
+                System.out.printf("lazy notes  : %,8.0f ms, heap %,6d MB (%.1fx faster)%n",
+                        lazyMs, lazyHeap >> 20, eagerMs / lazyMs);
+                System.out.printf("notes of one song on first play: %,.0f us%n", firstPlayUs);
+            }
+        }
+        Files.delete(file);
+        Files.delete(dir);
+    }
+
+    private static void write(Path file, Gson gson) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             JsonWriter json = gson.newJsonWriter(writer)) {
+            json.beginArray();
+            for (int i = 1; i <= SONGS; i++) {
+                Song s = new Song(i, "Song " + i, "Artist " + i % 500, 60 + i % 240, "Pop", true, Mood.HAPPY);
+                NoteSequence notes = new NoteSequence();
+                for (int k = 0; k < NOTES_PER_SONG; k++) {
+                    notes.add(220 + random.nextInt(660), 50 + random.nextInt(450), random.nextInt(4));
+                }
+                s.setNotes(notes);
+                gson.toJson(s, Song.class, json);
+            }
+            json.endArray();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
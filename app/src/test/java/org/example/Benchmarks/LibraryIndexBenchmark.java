@@ -0,0 +1,124 @@
+package org.example.Benchmarks;
+
+import org.example.Business.Model.Mood;
+import org.example.Business.Model.Playlist;
+import org.example.Business.Model.Song;
+import org.example.Persistence.LibraryRepository;
+import org.example.Persistence.PlaylistsDAO;
+import org.example.Persistence.SongsDAO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Lookups by ID, "song in use" checks and playlist stat recalculation on a synthetic library of
+ * 1M songs and 100k playlists: linear scans over the lists (the old LibraryManager code) against the
+ * int-keyed indexes of LibraryRepository. The slow side runs fewer operations; times are per operation.
+ * Run with: ./gradlew benchmark -PbenchClass=org.example.Benchmarks.LibraryIndexBenchmark
+ */
+public class LibraryIndexBenchmark {
+
+    private static final int SONGS = 1_000_000;
+    private static final int PLAYLISTS = 100_000;
+    private static final int SONGS_PER_PLAYLIST = 20;
+    private static final int FAST_OPS = 1_000_000;
+    private static final int SLOW_OPS = 200;
+
+    public static void main(String[] args) throws Exception {
+        List<Song> songs = new ArrayList<>(SONGS);
+        for (int i = 1; i <= SONGS; i++) {
+            songs.add(new Song(i, "Song " + i, "Artist", 60 + i % 240, "Pop", i % 3 != 0, Mood.HAPPY));
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        List<Playlist> playlists = new ArrayList<>(PLAYLISTS);
+        for (int i = 1; i <= PLAYLISTS; i++) {
+            Playlist p = new Playlist(i, "Playlist " + i, "");
+            for (int k = 0; k < SONGS_PER_PLAYLIST; k++) {
+                // Half of the library is never in a playlist, so in-use checks see both answers
+                p.getSongIds().add(1 + random.nextInt(SONGS / 2));
+            }
+            playlists.add(p);
+        }
+
+        long start = System.nanoTime();
+        LibraryRepository repository = new LibraryRepository(new MemorySongs(songs), new MemoryPlaylists(playlists),
+                Long.MAX_VALUE / 2, Integer.MAX_VALUE);
+        System.out.printf("Load + index + stats : %.0f ms for %,d songs, %,d playlists%n",
+                (System.nanoTime() - start) / 1e6, SONGS, PLAYLISTS);
+
+        for (int round = 0; round < 3; round++) {
+            boolean last = round == 2;
+
+            long sum = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < SLOW_OPS; i++) {
+                int id = 1 + random.nextInt(SONGS);
+                Song s = songs.stream().filter(x -> x.getId() == id).findFirst().orElse(null);
+                sum += s == null ? 0 : s.getDurationSeconds();
+            }
+            double scanLookup = (System.nanoTime() - start) / (double) SLOW_OPS;
+            start = System.nanoTime();
+            for (int i = 0; i < FAST_OPS; i++) {
+                Song s = repository.getSong(1 + random.nextInt(SONGS));
+                sum += s == null ? 0 : s.getDurationSeconds();
+            }
+            double indexLookup = (System.nanoTime() - start) / (double) FAST_OPS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < SLOW_OPS; i++) {
+                int id = 1 + random.nextInt(SONGS);
+                sum += playlists.stream().anyMatch(p -> p.getSongIds().contains(id)) ? 1 : 0;
+            }
+            double scanInUse = (System.nanoTime() - start) / (double) SLOW_OPS;
+            start = System.nanoTime();
+            for (int i = 0; i < FAST_OPS; i++) {
+                sum += repository.isSongInAnyPlaylist(1 + random.nextInt(SONGS)) ? 1 : 0;
+            }
+            double indexInUse = (System.nanoTime() - start) / (double) FAST_OPS;
+
+            // The old recalculateStats scanned the library once per song ID
+            start = System.nanoTime();
+            for (int i = 0; i < 5; i++) {
+                Playlist p = playlists.get(random.nextInt(PLAYLISTS));
+                for (Integer id : p.getSongIds()) {
+                    Song s = songs.stream().filter(x -> x.getId() == id).findFirst().orElse(null);
+                    sum += s == null ? 0 : s.getDurationSeconds();
+                }
+            }
+            double scanStats = (System.nanoTime() - start) / 5.0;
+            start = System.nanoTime();
+            for (int i = 0; i < PLAYLISTS; i++) {
+                repository.getPlaylist(1 + i).recalculateStats(repository::getSong);
+            }
+            double indexStats = (System.nanoTime() - start) / (double) PLAYLISTS;
+
+            if (sum == 42) System.out.print(""); // Keep the results alive
+            if (last) {
+                print("getSongById", scanLookup, indexLookup);
+                print("song in use", scanInUse, indexInUse);
+                print("playlist stats", scanStats, indexStats);
+            }
+        }
+        repository.close();
+    }
+
+    private static void print(String what, double scanNanos, double indexNanos) {
+        System.out.printf("%-20s : scan %,12.0f ns, index %,8.0f ns, %,.0fx faster%n",
+                what, scanNanos, indexNanos, scanNanos / indexNanos);
+    }
+
+    private static class MemorySongs implements SongsDAO {
+        private final List<Song> songs;
+        MemorySongs(List<Song> songs) { this.songs = songs; }
+        @Override public List<Song> loadAll() { return songs; }
+        @Override public void saveAll(List<Song> songs) {}
+    }
+
+    private static class MemoryPlaylists implements PlaylistsDAO {
+        private final List<Playlist> playlists;
+        MemoryPlaylists(List<Playlist> playlists) { this.playlists = playlists; }
+        @Override public List<Playlist> loadAll() { return playlists; }
+        @Override public void saveAll(List<Playlist> playlists) {}
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.Benchmarks;
+
+import org.example.Business.Audio.VoiceMixer;
+import org.example.Business.Audio.Waveform;
+
+/**
+ * Measures how much faster than real time the voice mixer renders with many simultaneous voices.
+ * Run with: ./gradlew benchmark -PbenchClass=org.example.Benchmarks.MixerBenchmark
+ */
+public class MixerBenchmark {
+
+    private static final float SAMPLE_RATE = 44100f;
+    private static final int BLOCK = 1024;
+    private static final int BLOCKS = 5_000;
+
+    public static void main(String[] args) {
+        for (int voices : new int[] {1, 8, 32, 64}) {
+            VoiceMixer mixer = new VoiceMixer(Waveform.SINE, SAMPLE_RATE, voices, BLOCK);
+            float[] out = new float[BLOCK];
+
+            double best = 0;
+            for (int round = 0; round < 5; round++) {
+                best = Math.max(best, time(mixer, voices, out));
+            }
+            System.out.printf("%2d voices: %,14.0f samples/s  (%.0fx real time)%n", voices, best, best / SAMPLE_RATE);
+        }
+    }
+
+    private static double time(VoiceMixer mixer, int voices, float[] out) {
+        mixer.reset();
+        for (int v = 0; v < voices; v++) {
+            mixer.noteOn(110 + 37.5 * v, Integer.MAX_VALUE);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < BLOCKS; i++) {
+            mixer.render(out, 0, BLOCK);
+        }
+        return (double) BLOCKS * BLOCK / ((System.nanoTime() - start) / 1e9);
+    }
+}
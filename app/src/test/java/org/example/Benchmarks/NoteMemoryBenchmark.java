@@ -0,0 +1,105 @@
+package org.example.Benchmarks;
+
+import org.example.Business.Model.Note;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.NoteView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the heap taken by a synthetic 100k-song library stored as List&lt;Note&gt; (the old layout)
+ * and as NoteSequence, and the time to walk every note of it once.
+ * Run with: ./gradlew benchmark -PbenchClass=org.example.Benchmarks.NoteMemoryBenchmark
+ */
+public class NoteMemoryBenchmark {
+
+    private static final int SONGS = 100_000;
+    private static final int NOTES_PER_SONG = 48;     // Average; songs range from 1 to 2x this
+    private static final double POLYPHONIC_SHARE = 0.25; // Songs that use more than one track
+
+    public static void main(String[] args) {
+        long before = usedHeap();
+        List<List<Note>> lists = buildLists();
+        long listBytes = usedHeap() - before;
+        long notes = 0;
+        for (List<Note> l : lists) notes += l.size();
+
+        before = usedHeap();
+        List<NoteSequence> sequences = new ArrayList<>(SONGS);
+        for (List<Note> l : lists) {
+            NoteSequence seq = NoteSequence.of(l);
+            seq.trimToSize();
+            sequences.add(seq);
+        }
+        long sequenceBytes = usedHeap() - before;
+
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            long sumLists = walkLists(lists);
+            long listNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            long sumSequences = walkSequences(sequences);
+            long sequenceNanos = System.nanoTime() - start;
+            if (sumLists != sumSequences) throw new AssertionError("Layouts disagree");
+            if (round == 4) {
+                System.out.printf("Walk         : List<Note> %.1f ms, NoteSequence %.1f ms%n",
+                        listNanos / 1e6, sequenceNanos / 1e6);
+            }
+        }
+        System.out.printf("Library      : %,d songs, %,d notes%n", SONGS, notes);
+        System.out.printf("List<Note>   : %,d KB (%.1f bytes/note)%n", listBytes / 1024, (double) listBytes / notes);
+        System.out.printf("NoteSequence : %,d KB (%.1f bytes/note), %.1fx smaller%n",
+                sequenceBytes / 1024, (double) sequenceBytes / notes, (double) listBytes / sequenceBytes);
+    }
+
+    private static List<List<Note>> buildLists() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<List<Note>> lists = new ArrayList<>(SONGS);
+        for (int s = 0; s < SONGS; s++) {
+            boolean polyphonic = random.nextDouble() < POLYPHONIC_SHARE;
+            int n = 1 + random.nextInt(2 * NOTES_PER_SONG);
+            List<Note> notes = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                double freq = 110 * Math.pow(2, random.nextInt(48) / 12.0);
+                notes.add(new Note(freq, 125 * (1 + random.nextInt(8)), polyphonic ? random.nextInt(3) : 0));
+            }
+            lists.add(notes);
+        }
+        return lists;
+    }
+
+    private static long walkLists(List<List<Note>> lists) {
+        long sum = 0;
+        for (List<Note> l : lists) {
+            for (Note n : l) {
+                sum += n.getDurationMs() + n.getTrack() + (long) n.getFrequency();
+            }
+        }
+        return sum;
+    }
+
+    private static long walkSequences(List<NoteSequence> sequences) {
+        long sum = 0;
+        for (NoteView v : sequences) {
+            for (int i = 0, n = v.size(); i < n; i++) {
+                sum += v.getDurationTicks(i) + v.getTrack(i) + (long) v.getFrequency(i);
+            }
+        }
+        return sum;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
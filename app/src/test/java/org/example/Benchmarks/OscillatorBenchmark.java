@@ -0,0 +1,61 @@
+package org.example.Benchmarks;
+
+import org.example.Business.Audio.Waveform;
+import org.example.Business.Audio.WavetableOscillator;
+
+/**
+ * Compares the wavetable oscillator with the original per-sample Math.sin loop.
+ * Run with: ./gradlew benchmark -PbenchClass=org.example.Benchmarks.OscillatorBenchmark
+ */
+public class OscillatorBenchmark {
+
+    private static final float SAMPLE_RATE = 44100f;
+    private static final int BLOCK = 1024;
+    private static final int BLOCKS = 20_000;
+
+    public static void main(String[] args) {
+        byte[] legacyOut = new byte[BLOCK];
+        float[] tableOut = new float[BLOCK];
+        WavetableOscillator oscillator = new WavetableOscillator(Waveform.SINE, SAMPLE_RATE);
+
+        // Several rounds; the first ones double as JIT warm-up, the best one is reported
+        double legacyRate = 0;
+        double tableRate = 0;
+        for (int round = 0; round < 10; round++) {
+            legacyRate = Math.max(legacyRate, timeLegacy(legacyOut));
+            tableRate = Math.max(tableRate, timeWavetable(oscillator, tableOut));
+        }
+
+        System.out.printf("Math.sin loop : %,.0f samples/s%n", legacyRate);
+        System.out.printf("Wavetable     : %,.0f samples/s%n", tableRate);
+        System.out.printf("Speed-up      : %.1fx (checksum %d)%n", tableRate / legacyRate, legacyOut[7] + (int) tableOut[7]);
+    }
+
+    private static double timeLegacy(byte[] out) {
+        long start = System.nanoTime();
+        for (int i = 0; i < BLOCKS; i++) {
+            legacySine(440, i * BLOCK, out);
+        }
+        return samplesPerSecond(System.nanoTime() - start);
+    }
+
+    private static double timeWavetable(WavetableOscillator oscillator, float[] out) {
+        long start = System.nanoTime();
+        for (int i = 0; i < BLOCKS; i++) {
+            oscillator.render(440, out, 0, BLOCK);
+        }
+        return samplesPerSecond(System.nanoTime() - start);
+    }
+
+    // Copy of the loop SoundSynthSinus used before the wavetable oscillator
+    private static void legacySine(double freq, int firstSample, byte[] buffer) {
+        for (int i = 0; i < buffer.length; i++) {
+            double angle = 2.0 * Math.PI * freq * ((firstSample + i) / SAMPLE_RATE);
+            buffer[i] = (byte) (Math.sin(angle) * 100);
+        }
+    }
+
+    private static double samplesPerSecond(long nanos) {
+        return (double) BLOCKS * BLOCK / (nanos / 1e9);
+    }
+}
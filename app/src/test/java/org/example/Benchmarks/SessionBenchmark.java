@@ -0,0 +1,77 @@
+package org.example.Benchmarks;
+
+import org.example.Business.Audio.NullAudioSink;
+import org.example.Business.Managers.RenderSession;
+import org.example.Business.Managers.SessionManager;
+import org.example.Business.Model.Mood;
+import org.example.Business.Model.Note;
+import org.example.Business.Model.Song;
+import org.example.CustomExceptions.SessionRejectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives many concurrent render sessions: first real-time listeners until admission control
+ * refuses more, then thousands of batch renders sharing the same songs.
+ * Run with: ./gradlew benchmark -PbenchClass=org.example.Benchmarks.SessionBenchmark
+ */
+public class SessionBenchmark {
+
+    private static final int REAL_TIME_ATTEMPTS = 2_000;
+    private static final int BATCH_SESSIONS = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        List<Song> songs = List.of(song(1, 0), song(2, 7), song(3, 12));
+
+        SessionManager manager = new SessionManager();
+        List<RenderSession> listeners = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < REAL_TIME_ATTEMPTS; i++) {
+            try {
+                listeners.add(manager.submit(List.of(songs.get(i % songs.size())), new NullAudioSink(), RenderSession.Mode.REAL_TIME));
+            } catch (SessionRejectedException e) {
+                // Expected once the CPU is committed
+            }
+            // Let the cost estimate settle from real measurements during the first admissions
+            if (i < 50) Thread.sleep(5);
+        }
+        long underruns = 0;
+        for (RenderSession s : listeners) {
+            s.await();
+            underruns += s.getUnderruns();
+        }
+        System.out.printf("Real time : %d admitted, %d rejected, %d underruns, %.0f ns/sample, %.1f s%n",
+                listeners.size(), manager.getRejectedSessions(), underruns,
+                manager.getCostNanosPerSample(), (System.nanoTime() - start) / 1e9);
+
+        List<RenderSession> batch = new ArrayList<>();
+        start = System.nanoTime();
+        for (int i = 0; i < BATCH_SESSIONS; i++) {
+            batch.add(manager.submit(List.of(songs.get(i % songs.size())), new NullAudioSink(), RenderSession.Mode.BATCH));
+        }
+        long samples = 0;
+        for (RenderSession s : batch) {
+            s.await();
+            samples += s.getRenderedSamples();
+        }
+        double wall = (System.nanoTime() - start) / 1e9;
+        double audio = samples / 44100.0;
+        System.out.printf("Batch     : %d sessions, %.0f s of audio in %.1f s (%.0fx real time)%n",
+                batch.size(), audio, wall, audio / wall);
+    }
+
+    // A short three-voice song, about 3 seconds long
+    private static Song song(int id, int transpose) {
+        Song s = new Song(id, "Bench " + id, "Benchmark", 3, "test", true, Mood.HAPPY);
+        double root = 220 * Math.pow(2, transpose / 12.0);
+        for (int i = 0; i < 12; i++) {
+            s.addNote(new Note(root * Math.pow(2, (i % 8) / 12.0), 250, 0));
+        }
+        for (int i = 0; i < 3; i++) {
+            s.addNote(new Note(root / 2, 1000, 1));
+            s.addNote(new Note(root * 1.5, 1000, 2));
+        }
+        return s;
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.Benchmarks;
+
+import org.example.Business.Model.Mood;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.Song;
+import org.example.Persistence.BinarySongsDAO;
+import org.example.Persistence.JsonSongsDAO;
+import org.example.Persistence.SongSnapshot;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Startup on a 1M-song library: the memory-mapped binary snapshot (songs.bin) against songs.json read
+ * with the streaming loader. Measures opening the snapshot, random reads of single fields by row,
+ * building every Song from the columns, and the JSON load. Both files are in the page cache after
+ * being written, so this is the CPU cost of startup, not disk reads.
+ * Run with: ./gradlew benchmark -PbenchClass=org.example.Benchmarks.SnapshotBenchmark
+ */
+public class SnapshotBenchmark {
+
+    private static final int SONGS = 1_000_000;
+    private static final int NOTES_PER_SONG = 8;
+    private static final int RANDOM_READS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("snapshot-bench");
+        Path bin = dir.resolve("songs.bin");
+        Path json = dir.resolve("songs.json");
+
+        // Notes come from a source so the whole library is never in memory at once
+        List<Song> songs = new ArrayList<>(SONGS);
+        for (int i = 1; i <= SONGS; i++) {
+            Song s = new Song(i, "Song " + i, "Artist " + i % 5000, 60 + i % 240, "Style " + i % 20, i % 3 != 0,
+                    Mood.values()[i % Mood.values().length]);
+            int seed = i;
+            s.setNotes((NoteSequence) null);
+            s.setNoteSource(() -> notes(seed));
+            songs.add(s);
+        }
+        long start = System.nanoTime();
+        new BinarySongsDAO(bin).saveAll(songs);
+        System.out.printf("write songs.bin   : %,6.0f ms, %,d MB%n", (System.nanoTime() - start) / 1e6, Files.size(bin) >> 20);
+        start = System.nanoTime();
+        new JsonSongsDAO(json).saveAll(songs);
+        System.out.printf("write songs.json  : %,6.0f ms, %,d MB%n", (System.nanoTime() - start) / 1e6, Files.size(json) >> 20);
+        songs = null;
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int round = 0; round < 3; round++) {
+            boolean last = round == 2;
+
+            start = System.nanoTime();
+            SongSnapshot snapshot = SongSnapshot.open(bin);
+            double openMs = (System.nanoTime() - start) / 1e6;
+
+            long sum = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < RANDOM_READS; i++) {
+                int row = random.nextInt(SONGS);
+                sum += snapshot.getId(row) + snapshot.getDurationSeconds(row) + (snapshot.isPlayable(row) ? 1 : 0);
+            }
+            double fieldNs = (double) (System.nanoTime() - start) / RANDOM_READS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < RANDOM_READS; i++) {
+                sum += snapshot.getTitle(random.nextInt(SONGS)).length();
+            }
+            double titleNs = (double) (System.nanoTime() - start) / RANDOM_READS;
+
+            start = System.nanoTime();
+            List<Song> fromSnapshot = new BinarySongsDAO(bin).loadAll();
+            double snapshotLoadMs = (System.nanoTime() - start) / 1e6;
+
+            start = System.nanoTime();
+            sum += fromSnapshot.get(SONGS / 2).getNotes().size();
+            double notesUs = (System.nanoTime() - start) / 1e3;
+            fromSnapshot = null;
+
+            start = System.nanoTime();
+            List<Song> fromJson = new JsonSongsDAO(json).loadAll();
+            double jsonLoadMs = (System.nanoTime() - start) / 1e6;
+            if (fromJson.size() != SONGS) throw new AssertionError();
+            fromJson = null;
+
+            if (sum == 42) System.out.print(""); // Keep the results alive
+            if (last) {
+                System.out.printf("open snapshot     : %,8.2f ms%n", openMs);
+                System.out.printf("random int fields : %,8.0f ns per row (id + duration + playable)%n", fieldNs);
+                System.out.printf("random title      : %,8.0f ns per row%n", titleNs);
+                System.out.printf("loadAll, snapshot : %,8.0f ms for %,d songs%n", snapshotLoadMs, SONGS);
+                System.out.printf("loadAll, JSON     : %,8.0f ms (streaming, notes left in the file)%n", jsonLoadMs);
+                System.out.printf("notes on first play from the snapshot: %,.0f us%n", notesUs);
+            }
+        }
+        Files.delete(bin);
+        Files.delete(json);
+        Files.delete(dir);
+    }
+
+    private static NoteSequence notes(int seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        NoteSequence notes = new NoteSequence(NOTES_PER_SONG);
+        for (int k = 0; k < NOTES_PER_SONG; k++) {
+            notes.add(220 + random.nextInt(660), 50 + random.nextInt(450), random.nextInt(4));
+        }
+        return notes;
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.Benchmarks;
+
+import org.example.Business.Audio.Oscillator;
+import org.example.Business.Audio.PulseOscillator;
+import org.example.Business.Audio.SoundSynthSinus;
+import org.example.Business.Audio.SoundSynthSquare;
+
+/**
+ * Compares the band-limited pulse oscillator with the sine synth's wavetable oscillator
+ * and with a straightforward per-sample PolyBLEP loop.
+ * Run with: ./gradlew benchmark -PbenchClass=org.example.Benchmarks.SquareBenchmark
+ */
+public class SquareBenchmark {
+
+    private static final float SAMPLE_RATE = 44100f;
+    private static final int BLOCK = 1024;
+    private static final int BLOCKS = 20_000;
+    private static final double FREQ = 440;
+
+    public static void main(String[] args) {
+        float[] out = new float[BLOCK];
+        Oscillator sine = new SoundSynthSinus().createOscillator();
+        Oscillator square = new SoundSynthSquare().createOscillator();
+        Oscillator narrow = new PulseOscillator(SAMPLE_RATE, 0.125);
+        PerSamplePolyBlep reference = new PerSamplePolyBlep();
+
+        // Several rounds; the first ones double as JIT warm-up, the best one is reported
+        double sineRate = 0;
+        double squareRate = 0;
+        double narrowRate = 0;
+        double referenceRate = 0;
+        float checksum = 0;
+        for (int round = 0; round < 10; round++) {
+            sineRate = Math.max(sineRate, time(sine, out));
+            checksum += out[7];
+            squareRate = Math.max(squareRate, time(square, out));
+            checksum += out[7];
+            narrowRate = Math.max(narrowRate, time(narrow, out));
+            checksum += out[7];
+            referenceRate = Math.max(referenceRate, time(reference, out));
+            checksum += out[7];
+        }
+
+        System.out.printf("Sine (SoundSynthSinus)  : %,.0f samples/s%n", sineRate);
+        System.out.printf("Square, block PolyBLEP  : %,.0f samples/s%n", squareRate);
+        System.out.printf("Pulse 12.5%%, block      : %,.0f samples/s%n", narrowRate);
+        System.out.printf("Square, per-sample BLEP : %,.0f samples/s%n", referenceRate);
+        System.out.printf("Square vs sine          : %.2fx (checksum %.3f)%n", squareRate / sineRate, checksum);
+    }
+
+    private static double time(Oscillator oscillator, float[] out) {
+        long start = System.nanoTime();
+        for (int i = 0; i < BLOCKS; i++) {
+            oscillator.render(FREQ, out, 0, BLOCK);
+        }
+        return (double) BLOCKS * BLOCK / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // Textbook PolyBLEP square: phase, branches and corrections evaluated on every sample
+    private static final class PerSamplePolyBlep implements Oscillator {
+        private double phase;
+
+        @Override
+        public void render(double freq, float[] out, int offset, int length) {
+            double dt = freq / SAMPLE_RATE;
+            for (int i = 0; i < length; i++) {
+                double value = phase < 0.5 ? 1 : -1;
+                value += blep(phase, dt) - blep((phase + 0.5) % 1.0, dt);
+                out[offset + i] = (float) value;
+                phase += dt;
+                if (phase >= 1) phase -= 1;
+            }
+        }
+
+        @Override
+        public void reset() {
+            phase = 0;
+        }
+
+        private static double blep(double t, double dt) {
+            if (t < dt) {
+                t /= dt;
+                return t + t - t * t - 1;
+            } else if (t > 1 - dt) {
+                t = (t - 1) / dt;
+                return t * t + t + t + 1;
+            }
+            return 0;
+        }
+    }
+}
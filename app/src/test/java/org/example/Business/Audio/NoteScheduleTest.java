@@ -0,0 +1,84 @@
+package org.example.Business.Audio;
+
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.TempoMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class NoteScheduleTest {
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    private static SoundSynth synthAt(float rate) {
+        SoundSynth synth = new SoundSynthSinus();
+        synth.setFormat(new OutputFormat(rate, 16, 1));
+        return synth;
+    }
+
+    @Test public void hourOfMillisecondNotesEndsOnTheExactSample() {
+        // 333 ms is 14685.3 samples at 44.1 kHz: truncating every note would lose ~3 s over an hour
+        for (float rate : OutputFormat.SUPPORTED_RATES) {
+            NoteSequence notes = new NoteSequence();
+            long ms = 0;
+            for (int i = 0; ms < HOUR_MS; i++) {
+                int d = (int) Math.min(HOUR_MS - ms, 333 + i % 3);
+                notes.add(220 + i % 12, d, 0);
+                ms += d;
+            }
+            NoteSchedule schedule = NoteSchedule.of(notes, TempoMap.MILLISECONDS, synthAt(rate));
+            assertEquals(3600L * (long) rate, schedule.getTotalSamples());
+        }
+    }
+
+    @Test public void everyNoteStartsWhereItsAbsoluteTimeFalls() {
+        NoteSequence notes = new NoteSequence();
+        for (int i = 0; i < 10_000; i++) {
+            notes.add(440, 7, 0);
+        }
+        NoteSchedule schedule = NoteSchedule.of(notes, TempoMap.MILLISECONDS, synthAt(44100));
+        for (int i = 0; i < schedule.size(); i++) {
+            assertEquals(i * 7L * 44100 / 1000, schedule.getStart(i));
+        }
+    }
+
+    @Test public void hourOfTempoGridNotesHasNoDrift() {
+        // Eighth-note triplets at 480 ppq are 160 ticks: 1/6 s at 120 BPM, a repeating fraction of a sample
+        TempoMap tempo = TempoMap.ofBpm(480, 120);
+        NoteSequence notes = new NoteSequence();
+        long triplets = 6 * 3600;
+        for (long i = 0; i < triplets; i++) {
+            notes.add(330, 160, 0);
+        }
+        assertEquals(3600L * 48000, NoteSchedule.of(notes, tempo, synthAt(48000)).getTotalSamples());
+        assertEquals(3600L * 44100, NoteSchedule.of(notes, tempo, synthAt(44100)).getTotalSamples());
+    }
+
+    @Test public void tempoChangesAreFollowedExactly() {
+        // 30 minutes at 120 BPM, then 30 minutes at 90 BPM
+        int ppq = 960;
+        long firstHalf = 30 * 60 * 2 * ppq;
+        TempoMap tempo = TempoMap.ofBpm(ppq, 120).withTempo(firstHalf, 666_667);
+        NoteSequence notes = new NoteSequence();
+        long ticks = firstHalf + 30 * 90 * ppq; // 2700 quarters
+        for (long t = 0; t < ticks; t += 37) {
+            notes.add(550, (int) Math.min(37, ticks - t), 0);
+        }
+        long expectedMicros = 1_800_000_000L + (ticks - firstHalf) * 666_667 / ppq;
+        assertEquals(expectedMicros * 44100 / 1_000_000, NoteSchedule.of(notes, tempo, synthAt(44100)).getTotalSamples());
+    }
+
+    @Test public void subMillisecondDurationsAreKept() {
+        // 10000 ppq at 60 BPM: one tick is 0.1 ms
+        TempoMap tempo = new TempoMap(10_000, 1_000_000);
+        NoteSequence notes = new NoteSequence();
+        for (int i = 0; i < 1000; i++) {
+            notes.add(1000, 5, 0); // 0.5 ms each
+        }
+        NoteSchedule schedule = NoteSchedule.of(notes, tempo, synthAt(48000));
+        assertEquals(24_000, schedule.getTotalSamples());
+        for (int i = 0; i < schedule.size(); i++) {
+            assertEquals(24, schedule.getLength(i));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.Business.Model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SongTest {
+
+    private static Song stored() {
+        Song s = new Song(1, "Stored", "Artist", 10, "Style", true, Mood.HAPPY);
+        s.addNote(new Note(440, 250));
+        return s;
+    }
+
+    @Test public void editingACopyLeavesTheStoredSongAlone() {
+        Song stored = stored();
+        NoteView seen = stored.getNotes(); // E.g. a render or a flush reading it
+
+        Song copy = stored.copy();
+        assertTrue(copy.sharesNotesWith(stored));
+        copy.setTempo(TempoMap.ofBpm(480, 120));
+        copy.addNote(new Note(330, 250));
+
+        assertEquals(TempoMap.MILLISECONDS, stored.getTempo());
+        assertEquals(1, stored.getNotes().size());
+        assertEquals(1, seen.size());
+        assertEquals(2, copy.getNotes().size());
+        assertFalse(copy.sharesNotesWith(stored));
+    }
+
+    @Test public void readingNotesChangesNothing() {
+        Song stored = stored();
+        Song copy = stored.copy();
+        copy.setTempo(TempoMap.ofBpm(480, 120));
+        assertTrue(copy.getNotes() == stored.getNotes());
+        assertEquals(TempoMap.MILLISECONDS, stored.getTempo());
+    }
+
+    @Test public void hasNotesLeavesPendingNotesOnDisk() {
+        int[] loads = {0};
+        Song lazy = new Song(2, "Lazy", "Artist", 10, "Style", true, Mood.SAD);
+        lazy.setNotes((NoteSequence) null);
+        lazy.setNoteSource(() -> {
+            loads[0]++;
+            NoteSequence notes = new NoteSequence();
+            notes.add(440, 250, 0);
+            return notes;
+        });
+        assertTrue(lazy.hasNotes());
+        assertEquals(0, loads[0]);
+        assertTrue(lazy.getNoteSource() != null);
+
+        Song none = new Song(3, "None", "Artist", 0, "Style", true, Mood.SAD);
+        assertFalse(none.hasNotes());
+    }
+}
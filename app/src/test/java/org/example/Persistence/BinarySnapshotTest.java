@@ -0,0 +1,165 @@
+package org.example.Persistence;
+
+import org.example.Business.Model.Mood;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.NoteView;
+import org.example.Business.Model.Playlist;
+import org.example.Business.Model.Song;
+import org.example.Business.Model.TempoMap;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BinarySnapshotTest {
+
+    private static NoteSequence notes(int count, int seed) {
+        NoteSequence notes = new NoteSequence();
+        for (int i = 0; i < count; i++) {
+            notes.add(110.5 + seed * 7 + i, 10 + i * seed, i % 3);
+        }
+        return notes;
+    }
+
+    private static List<Song> library() {
+        List<Song> songs = new ArrayList<>();
+        for (Mood mood : Mood.values()) {
+            Song s = new Song(songs.size() + 1, "Title " + mood, "Shared artist", 30 + songs.size(), "Style", true, mood);
+            s.setNotes(notes(5 + songs.size(), songs.size() + 1));
+            songs.add(s);
+        }
+        Song bare = new Song(100, null, null, 0, null, false, null); // Null strings and mood
+        bare.setNotes(new NoteSequence());
+        songs.add(bare);
+
+        Song tempo = new Song(101, "Tempo", "Other artist", 12, "MIDI", true, Mood.RELAX);
+        tempo.setNotes(notes(4, 9));
+        tempo.setTempo(new TempoMap(480, new long[] {0, 1920}, new int[] {500000, 400000}));
+        songs.add(tempo);
+
+        Song lazy = new Song(102, "Lazy", "Shared artist", 7, "Style", true, Mood.SAD);
+        lazy.setNotes((NoteSequence) null);
+        lazy.setNoteSource(() -> notes(6, 3));
+        songs.add(lazy);
+        return songs;
+    }
+
+    private static void assertSameSong(Song expected, Song actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getArtist(), actual.getArtist());
+        assertEquals(expected.getDurationSeconds(), actual.getDurationSeconds());
+        assertEquals(expected.getStyle(), actual.getStyle());
+        assertEquals(expected.getMood(), actual.getMood());
+        assertEquals(expected.isPlayable(), actual.isPlayable());
+        assertEquals(expected.getTempo(), actual.getTempo());
+        NoteView a = expected.getNotes();
+        NoteView b = actual.getNotes();
+        assertEquals(a.size(), b.size());
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals(a.getFrequency(i), b.getFrequency(i), 0);
+            assertEquals(a.getDurationTicks(i), b.getDurationTicks(i));
+            assertEquals(a.getTrack(i), b.getTrack(i));
+        }
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Test public void songsComeBackFromTheSnapshotUnchanged() throws Exception {
+        Path dir = Files.createTempDirectory("snapshot-test");
+        try {
+            List<Song> songs = library();
+            BinarySongsDAO dao = new BinarySongsDAO(dir.resolve("songs.bin"));
+            dao.saveAll(songs);
+
+            SongSnapshot snapshot = dao.open();
+            assertEquals(songs.size(), snapshot.size());
+            List<Song> read = snapshot.toSongs();
+            // A lazily loaded song is written without keeping its notes, and read back lazily
+            assertTrue(songs.get(songs.size() - 1).getNoteSource() != null);
+            assertTrue(read.get(read.size() - 1).getNoteSource() != null);
+            for (int i = 0; i < songs.size(); i++) {
+                assertSameSong(songs.get(i), read.get(i));
+                assertEquals(songs.get(i).getNotes().size(), snapshot.getNoteCount(i));
+            }
+            int bare = songs.size() - 3;
+            assertNull(snapshot.getTitle(bare));
+            assertNull(snapshot.getArtist(bare));
+            assertNull(snapshot.getStyle(bare));
+            assertNull(snapshot.getMood(bare));
+            assertNull(snapshot.getTempo(bare));
+
+            List<Song> loaded = dao.loadAll();
+            for (int i = 0; i < songs.size(); i++) {
+                assertSameSong(songs.get(i), loaded.get(i));
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    @Test public void playlistsComeBackFromTheSnapshotUnchanged() throws Exception {
+        Path dir = Files.createTempDirectory("snapshot-test");
+        try {
+            Playlist full = new Playlist(1, "Mix", "With a description");
+            full.getSongIds().addAll(List.of(3, 1, 3, 2));
+            Playlist bare = new Playlist(2, null, null);
+            Playlist single = new Playlist(3, "One", "");
+            single.getSongIds().add(7);
+            List<Playlist> playlists = List.of(full, bare, single);
+
+            BinaryPlaylistsDAO dao = new BinaryPlaylistsDAO(dir.resolve("playlists.bin"));
+            dao.saveAll(playlists);
+            List<Playlist> read = dao.loadAll();
+
+            assertEquals(playlists.size(), read.size());
+            for (int i = 0; i < playlists.size(); i++) {
+                assertEquals(playlists.get(i).getId(), read.get(i).getId());
+                assertEquals(playlists.get(i).getName(), read.get(i).getName());
+                assertEquals(playlists.get(i).getDescription(), read.get(i).getDescription());
+                assertEquals(playlists.get(i).getSongIds(), read.get(i).getSongIds());
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    @Test public void binaryStorageIsRefusedOnWindows() throws IOException {
+        Path dir = Files.createTempDirectory("snapshot-test");
+        String os = System.getProperty("os.name");
+        System.setProperty("os.name", "Windows 11");
+        try {
+            try {
+                new BinarySongsDAO(dir.resolve("songs.bin"));
+                fail("Songs snapshot opened on Windows");
+            } catch (IOException expected) {
+                // Mapped files cannot be replaced there
+            }
+            try {
+                new BinaryPlaylistsDAO(dir.resolve("playlists.bin"));
+                fail("Playlists snapshot opened on Windows");
+            } catch (IOException expected) {
+                // Same for playlists
+            }
+        } finally {
+            System.setProperty("os.name", os);
+            deleteTree(dir);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.Persistence;
+
+import org.example.Business.Model.Mood;
+import org.example.Business.Model.NoteSequence;
+import org.example.Business.Model.Playlist;
+import org.example.Business.Model.Song;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LibraryJournalTest {
+
+    private static Song song(int id, String title, int notes) {
+        Song s = new Song(id, title, "Artist", 60, "Style", true, Mood.HAPPY);
+        NoteSequence sequence = new NoteSequence();
+        for (int i = 0; i < notes; i++) {
+            sequence.add(220 + i, 100, 0);
+        }
+        s.setNotes(sequence);
+        return s;
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Test public void recordCutShortIsDroppedAndTheLogContinuesAfterTheLastGoodOne() throws IOException {
+        Path dir = Files.createTempDirectory("journal-test");
+        Path file = dir.resolve("library.journal");
+        try {
+            String partial;
+            try (LibraryJournal journal = new LibraryJournal(file)) {
+                journal.append(List.of(journal.putSong(song(1, "One", 3)), journal.deleteSong(2)));
+                partial = journal.putSong(song(3, "Three", 3));
+            }
+            long good = Files.size(file);
+            // A crash in the middle of an append: a record without its line end
+            Files.writeString(file, partial.substring(0, partial.length() / 2), StandardOpenOption.APPEND);
+
+            try (LibraryJournal journal = new LibraryJournal(file)) {
+                LibraryJournal.Changes changes = journal.replay();
+                assertTrue(changes.truncated);
+                assertEquals(2, changes.records);
+                assertEquals("One", changes.songs.get(1).getTitle());
+                assertEquals(3, changes.songs.get(1).getNotes().size());
+                assertTrue(changes.songs.containsKey(2));
+                assertNull(changes.songs.get(2));
+                assertFalse(changes.songs.containsKey(3));
+                assertEquals(good, Files.size(file));
+
+                journal.append(List.of(journal.putSong(song(3, "Three", 3))));
+            }
+            try (LibraryJournal journal = new LibraryJournal(file)) {
+                LibraryJournal.Changes changes = journal.replay();
+                assertFalse(changes.truncated);
+                assertEquals(3, changes.records);
+                assertEquals("Three", changes.songs.get(3).getTitle());
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    @Test public void checksumMismatchEndsTheLog() throws IOException {
+        Path dir = Files.createTempDirectory("journal-test");
+        Path file = dir.resolve("library.journal");
+        try {
+            String first;
+            try (LibraryJournal journal = new LibraryJournal(file)) {
+                first = journal.putSong(song(1, "One", 2));
+                journal.append(List.of(first, journal.putSong(song(2, "Two", 2)), journal.putSong(song(3, "Three", 2))));
+            }
+            // Flip one character of the second record's JSON; its line length stays the same
+            String text = Files.readString(file, StandardCharsets.UTF_8);
+            int at = text.indexOf("\"Two\"");
+            Files.writeString(file, text.substring(0, at) + "\"Twx\"" + text.substring(at + 5), StandardCharsets.UTF_8);
+
+            try (LibraryJournal journal = new LibraryJournal(file)) {
+                LibraryJournal.Changes changes = journal.replay();
+                assertTrue(changes.truncated);
+                assertEquals(1, changes.records);
+                assertEquals("One", changes.songs.get(1).getTitle());
+                assertFalse(changes.songs.containsKey(2));
+                assertFalse(changes.songs.containsKey(3)); // Good, but after the damage
+                assertEquals(first.getBytes(StandardCharsets.UTF_8).length, Files.size(file));
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    @Test public void metadataUpdateKeepsTheNotesOfThePreviousRecord() throws IOException {
+        Path dir = Files.createTempDirectory("journal-test");
+        Path file = dir.resolve("library.journal");
+        try {
+            try (LibraryJournal journal = new LibraryJournal(file)) {
+                Song renamed = song(1, "Renamed", 0);
+                renamed.setMood(Mood.SAD);
+                journal.append(List.of(journal.putSong(song(1, "One", 5)), journal.updateSong(renamed),
+                        journal.updateSong(song(2, "Snapshot song", 0))));
+            }
+            try (LibraryJournal journal = new LibraryJournal(file)) {
+                LibraryJournal.Changes changes = journal.replay();
+                Song s = changes.songs.get(1);
+                assertEquals("Renamed", s.getTitle());
+                assertEquals(Mood.SAD, s.getMood());
+                assertEquals(5, s.getNotes().size());
+                assertFalse(changes.songs.containsKey(2));
+                assertEquals("Snapshot song", changes.songUpdates.get(2).getTitle());
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    @Test public void replayAfterCompactionGivesTheSameLibrary() throws Exception {
+        Path dir = Files.createTempDirectory("journal-test");
+        Path songsFile = dir.resolve("songs.json");
+        Path playlistsFile = dir.resolve("playlists.json");
+        Path journalFile = dir.resolve("library.journal");
+        try {
+            // A 1-byte limit folds the journal into the JSON files on every flush
+            try (LibraryRepository repository = new LibraryRepository(new JsonSongsDAO(songsFile),
+                    new JsonPlaylistsDAO(playlistsFile, false), 60_000, 1_000, new LibraryJournal(journalFile), 1)) {
+                repository.addSong(song(1, "One", 4));
+                repository.addSong(song(2, "Two", 4));
+                Playlist p = new Playlist(10, "List", "");
+                p.getSongIds().add(1);
+                repository.addPlaylist(p);
+                repository.flush();
+                assertEquals(0, Files.size(journalFile));
+            }
+
+            // Changes after the compaction stay in the journal
+            try (LibraryRepository repository = new LibraryRepository(new JsonSongsDAO(songsFile),
+                    new JsonPlaylistsDAO(playlistsFile, false), 60_000, 1_000, new LibraryJournal(journalFile),
+                    LibraryRepository.DEFAULT_JOURNAL_MAX_BYTES)) {
+                Song renamed = repository.getSong(1).copy();
+                renamed.setTitle("One, renamed");
+                repository.updateSong(renamed);
+                repository.removeSong(2);
+                repository.addSong(song(3, "Three", 2));
+                Playlist p = repository.getPlaylist(10).copy();
+                p.getSongIds().add(3);
+                repository.updatePlaylist(p);
+                repository.flush();
+                assertTrue(Files.size(journalFile) > 0);
+            }
+
+            try (LibraryRepository repository = new LibraryRepository(new JsonSongsDAO(songsFile),
+                    new JsonPlaylistsDAO(playlistsFile, false), 60_000, 1_000, new LibraryJournal(journalFile),
+                    LibraryRepository.DEFAULT_JOURNAL_MAX_BYTES)) {
+                List<Song> songs = repository.getSongs();
+                assertEquals(2, songs.size());
+                assertEquals("One, renamed", songs.get(0).getTitle());
+                assertEquals(4, songs.get(0).getNotes().size());
+                assertEquals("Three", songs.get(1).getTitle());
+                assertNull(repository.getSong(2));
+                assertEquals(List.of(1, 3), repository.getPlaylist(10).getSongIds());
+                assertTrue(repository.isSongInAnyPlaylist(3));
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+}
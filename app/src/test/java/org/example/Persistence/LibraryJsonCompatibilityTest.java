@@ -0,0 +1,151 @@
+package org.example.Persistence;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.example.Business.Model.Mood;
+import org.example.Business.Model.NoteView;
+import org.example.Business.Model.Playlist;
+import org.example.Business.Model.Song;
+import org.example.Business.Model.TempoMap;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The hand-written adapters against files in the shape Gson's reflection wrote
+ * (legacy-songs.json and legacy-playlists.json, next to this class).
+ */
+public class LibraryJsonCompatibilityTest {
+
+    private static final TempoMap FIXTURE_TEMPO = new TempoMap(480, new long[] {0, 960}, new int[] {500000, 250000});
+
+    private static String fixture(String name) throws IOException {
+        try (InputStream in = LibraryJsonCompatibilityTest.class.getResourceAsStream(name)) {
+            assertNotNull("Missing fixture " + name, in);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Path copyToTemp(String name) throws IOException {
+        Path file = Files.createTempFile("legacy", ".json");
+        Files.writeString(file, fixture(name));
+        return file;
+    }
+
+    private static void assertFixtureSongs(List<Song> songs) {
+        assertEquals(3, songs.size());
+
+        Song full = songs.get(0);
+        assertEquals(1, full.getId());
+        assertEquals("Full", full.getTitle());
+        assertEquals("Artist", full.getArtist());
+        assertEquals(95, full.getDurationSeconds());
+        assertEquals("POP", full.getStyle());
+        assertEquals(Mood.HAPPY, full.getMood());
+        assertTrue(full.isPlayable());
+        assertEquals(TempoMap.MILLISECONDS, full.getTempo());
+        NoteView notes = full.getNotes();
+        assertEquals(2, notes.size());
+        assertEquals(440.0, notes.getFrequency(0), 0);
+        assertEquals(250, notes.getDurationTicks(0));
+        assertEquals(1, notes.getTrack(0));
+        assertEquals(329.63, notes.getFrequency(1), 0);
+        assertEquals(0, notes.getTrack(1)); // No "track": the default
+
+        Song bare = songs.get(1);
+        assertEquals(2, bare.getId());
+        assertNull(bare.getTitle());
+        assertNull(bare.getArtist());
+        assertNull(bare.getStyle());
+        assertNull(bare.getMood()); // Unknown name, as Gson's enum adapter did
+        assertFalse(bare.isPlayable());
+        assertEquals(0, bare.getNotes().size()); // "notes": null
+
+        Song tempo = songs.get(2);
+        assertEquals("Tempo", tempo.getTitle());
+        assertEquals(Mood.SAD, tempo.getMood());
+        assertEquals(FIXTURE_TEMPO, tempo.getTempo());
+        assertEquals(1, tempo.getNotes().size());
+        assertEquals(960, tempo.getNotes().getDurationTicks(0));
+    }
+
+    @Test public void adapterReadsSongsInTheReflectiveShape() throws IOException {
+        Song[] songs = LibraryJson.compact().fromJson(fixture("legacy-songs.json"), Song[].class);
+        assertFixtureSongs(List.of(songs));
+    }
+
+    @Test public void songsDaoLoadsTheReflectiveShape() throws Exception {
+        Path file = copyToTemp("legacy-songs.json");
+        try {
+            assertFixtureSongs(new JsonSongsDAO(file).loadAll());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test public void songsAreWrittenWithTheReflectiveFieldNames() throws IOException {
+        Gson gson = LibraryJson.compact();
+        Song[] songs = gson.fromJson(fixture("legacy-songs.json"), Song[].class);
+
+        JsonObject full = JsonParser.parseString(gson.toJson(songs[0])).getAsJsonObject();
+        assertEquals(Set.of("id", "title", "artist", "durationSeconds", "style", "mood", "playable", "notes"), full.keySet());
+        assertEquals(Set.of("frequency", "durationMs", "track"),
+                full.getAsJsonArray("notes").get(1).getAsJsonObject().keySet());
+
+        // Null fields are left out, as Gson did by default
+        JsonObject bare = JsonParser.parseString(gson.toJson(songs[1])).getAsJsonObject();
+        assertEquals(Set.of("id", "durationSeconds", "playable", "notes"), bare.keySet());
+
+        JsonObject tempo = JsonParser.parseString(gson.toJson(songs[2])).getAsJsonObject();
+        assertEquals(Set.of("ticksPerQuarter", "ticks", "microsPerQuarter"), tempo.getAsJsonObject("tempo").keySet());
+
+        // And read back unchanged
+        Song[] again = gson.fromJson(gson.toJson(songs), Song[].class);
+        assertFixtureSongs(List.of(again));
+    }
+
+    @Test public void playlistsReadAndWriteTheReflectiveShape() throws Exception {
+        Path file = copyToTemp("legacy-playlists.json");
+        try {
+            List<Playlist> playlists = new JsonPlaylistsDAO(file, false).loadAll();
+            assertEquals(2, playlists.size());
+
+            Playlist mix = playlists.get(0);
+            assertEquals(10, mix.getId());
+            assertEquals("Mix", mix.getName());
+            assertEquals("Old totals", mix.getDescription());
+            assertEquals(List.of(1, 3), mix.getSongIds());
+            // The stored totals are a cache: recalculated from the songs, not read
+            Song[] songs = LibraryJson.compact().fromJson(fixture("legacy-songs.json"), Song[].class);
+            mix.recalculateStats(List.of(songs));
+            assertEquals(99, mix.getTotalDuration());
+            assertEquals(2, mix.getPlayableCount());
+
+            Playlist empty = playlists.get(1);
+            assertEquals("Empty", empty.getName());
+            assertNull(empty.getDescription());
+            assertTrue(empty.getSongIds().isEmpty()); // "songIds": null
+
+            JsonObject written = JsonParser.parseString(LibraryJson.compact().toJson(mix)).getAsJsonObject();
+            assertEquals(Set.of("id", "name", "description", "songIds", "totalDuration", "playableCount"), written.keySet());
+            assertEquals(99, written.get("totalDuration").getAsInt());
+            JsonObject writtenEmpty = JsonParser.parseString(LibraryJson.compact().toJson(empty)).getAsJsonObject();
+            assertFalse(writtenEmpty.has("description"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}